@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.benchmarks;
+
+import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.model.JsonHome;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static de.otto.jsonhome.benchmarks.SyntheticJsonHome.syntheticJsonHome;
+import static de.otto.jsonhome.converter.JsonHomeConverter.toRepresentation;
+import static de.otto.jsonhome.converter.JsonHomeWriter.writeJsonHome;
+
+/**
+ * Benchmarks the conversion of JsonHome documents into their representations.
+ *
+ * The convertToMap benchmark only measures the creation of the Map-based representation, while
+ * convertAndSerializeMap also includes the serialization of the map using Jackson. The writeStreaming benchmark
+ * measures the streaming {@link de.otto.jsonhome.converter.JsonHomeWriter} that does not create a Map.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonHomeConverterBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Param({"10", "1000", "50000"})
+    public int relationTypes;
+
+    @Param({"false", "true"})
+    public boolean withDocs;
+
+    @Param({"APPLICATION_JSONHOME", "APPLICATION_JSON"})
+    public JsonHomeMediaType mediaType;
+
+    private JsonHome jsonHome;
+
+    @Setup
+    public void setup() {
+        jsonHome = syntheticJsonHome(relationTypes, withDocs);
+    }
+
+    @Benchmark
+    public Map<String, ?> convertToMap() {
+        return toRepresentation(jsonHome, mediaType);
+    }
+
+    @Benchmark
+    public void convertAndSerializeMap() throws IOException {
+        OBJECT_MAPPER.writeValue(NullOutputStream.INSTANCE, toRepresentation(jsonHome, mediaType));
+    }
+
+    @Benchmark
+    public void writeStreaming() throws IOException {
+        writeJsonHome(jsonHome, mediaType, NullOutputStream.INSTANCE);
+    }
+
+    /**
+     * An OutputStream discarding all bytes, so the benchmarks are not measuring the growth of buffers.
+     */
+    static final class NullOutputStream extends OutputStream {
+
+        static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.benchmarks;
+
+import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.parser.JacksonJsonHomeParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import static de.otto.jsonhome.benchmarks.SyntheticJsonHome.syntheticDocument;
+import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSON;
+
+/**
+ * Benchmarks {@link JacksonJsonHomeParser#parse(java.io.InputStream)} in both parser modes.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonHomeParserBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int relationTypes;
+
+    @Param({"false", "true"})
+    public boolean withDocs;
+
+    @Param({"TREE", "STREAMING"})
+    public JacksonJsonHomeParser.Mode mode;
+
+    private byte[] document;
+    private JacksonJsonHomeParser parser;
+
+    @Setup
+    public void setup() {
+        document = syntheticDocument(relationTypes, withDocs, APPLICATION_JSON);
+        parser = new JacksonJsonHomeParser(mode);
+    }
+
+    @Benchmark
+    public JsonHome parse() {
+        return parser.parse(new ByteArrayInputStream(document));
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.benchmarks;
+
+import de.otto.jsonhome.model.Allow;
+import de.otto.jsonhome.model.ResourceLink;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static de.otto.jsonhome.benchmarks.SyntheticJsonHome.syntheticResourceLinks;
+import static de.otto.jsonhome.model.ResourceLinkHelper.mergeResources;
+import static de.otto.jsonhome.model.ResourceLinkMerger.resourceLinkMerger;
+
+/**
+ * Benchmarks {@link de.otto.jsonhome.model.ResourceLinkHelper#mergeResources(java.util.List, java.util.List)} and
+ * the {@link de.otto.jsonhome.model.ResourceLinkMerger}.
+ *
+ * Two lists containing the same relation types, but different allowed methods, are merged into a single list. This
+ * is what happens if the JsonHomeGenerator is merging the resource links of controllers having methods for GET and
+ * POST requests on the same resources.
+ *
+ * Merging large lists is slow, so the benchmark is running in single-shot mode: every measurement is a single
+ * invocation of the merge.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MergeResourcesBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int relationTypes;
+
+    @Param({"false", "true"})
+    public boolean withDocs;
+
+    private List<ResourceLink> resourceLinks;
+    private List<ResourceLink> other;
+
+    @Setup
+    public void setup() {
+        resourceLinks = syntheticResourceLinks(relationTypes, withDocs, Allow.GET);
+        other = syntheticResourceLinks(relationTypes, withDocs, Allow.POST);
+    }
+
+    @Benchmark
+    public List<? extends ResourceLink> mergeResourceLinks() {
+        return mergeResources(resourceLinks, other);
+    }
+
+    @Benchmark
+    public List<? extends ResourceLink> mergeOneByOne() {
+        List<? extends ResourceLink> result = resourceLinks;
+        for (final ResourceLink resourceLink : other) {
+            result = mergeResources(result, resourceLink);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<? extends ResourceLink> mergeWithMerger() {
+        return resourceLinkMerger()
+                .mergeAll(resourceLinks)
+                .mergeAll(other)
+                .getResourceLinks();
+    }
+
+}
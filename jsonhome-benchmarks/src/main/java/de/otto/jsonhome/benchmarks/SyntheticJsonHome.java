@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.benchmarks;
+
+import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.otto.jsonhome.converter.JsonHomeWriter.writeJsonHome;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.Documentation.documentation;
+import static de.otto.jsonhome.model.Documentation.emptyDocs;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.HrefVar.hrefVar;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static de.otto.jsonhome.model.TemplatedLink.templatedLink;
+import static java.util.Arrays.asList;
+
+/**
+ * Generator for synthetic json-home documents of configurable size, used by the benchmarks.
+ *
+ * Every second resource is a TemplatedLink with three href-vars (id, page and pageSize), the other resources are
+ * DirectLinks. If documentation is requested, every resource has a link to its documentation, a short description
+ * and a detailed HTML description, similar to the documents generated for applications using the Doc annotation.
+ *
+ * The generated documents are deterministic: calling the generator twice with the same arguments will return equal
+ * documents.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class SyntheticJsonHome {
+
+    public static final String REL_BASE_URI = "http://example.org/rel/";
+    public static final String RESOURCE_BASE_URI = "http://example.org/";
+    public static final String VAR_TYPE_BASE_URI = "http://example.org/vartype/";
+
+    private SyntheticJsonHome() {}
+
+    /**
+     * Creates a JsonHome with the specified number of relation types.
+     *
+     * @param relationTypes the number of resources in the document.
+     * @param withDocs true, if the resources should be documented.
+     * @return JsonHome
+     */
+    public static JsonHome syntheticJsonHome(final int relationTypes, final boolean withDocs) {
+        return jsonHome(syntheticResourceLinks(relationTypes, withDocs, Allow.GET));
+    }
+
+    /**
+     * Creates a list of resource links with the specified number of relation types.
+     *
+     * Lists created with different allowed methods can be merged, for example to benchmark
+     * {@link ResourceLinkHelper#mergeResources(java.util.List, java.util.List)}.
+     *
+     * @param relationTypes the number of resource links.
+     * @param withDocs true, if the resources should be documented.
+     * @param allow the allowed method of the resource links.
+     * @return list of ResourceLinks
+     */
+    public static List<ResourceLink> syntheticResourceLinks(final int relationTypes,
+                                                            final boolean withDocs,
+                                                            final Allow allow) {
+        final List<ResourceLink> resourceLinks = new ArrayList<>(relationTypes);
+        for (int i = 0; i < relationTypes; ++i) {
+            final URI relationType = URI.create(REL_BASE_URI + "resource" + i);
+            final Hints hints = hintsBuilder()
+                    .allowing(allow)
+                    .representedAs("text/html", "application/json")
+                    .with(withDocs ? docsFor(i) : emptyDocs())
+                    .build();
+            if (i % 2 == 0) {
+                resourceLinks.add(directLink(relationType, URI.create(RESOURCE_BASE_URI + "resource" + i), hints));
+            } else {
+                resourceLinks.add(templatedLink(
+                        relationType,
+                        RESOURCE_BASE_URI + "resource" + i + "/{id}{?page,pageSize}",
+                        asList(
+                                hrefVar("id", URI.create(VAR_TYPE_BASE_URI + "id")),
+                                hrefVar("page", URI.create(VAR_TYPE_BASE_URI + "page")),
+                                hrefVar("pageSize", URI.create(VAR_TYPE_BASE_URI + "pageSize"))),
+                        hints));
+            }
+        }
+        return resourceLinks;
+    }
+
+    /**
+     * Returns the UTF-8 encoded json document of a synthetic JsonHome.
+     *
+     * @param relationTypes the number of resources in the document.
+     * @param withDocs true, if the resources should be documented.
+     * @param mediaType the media type of the document. Descriptions are only contained in application/json.
+     * @return bytes of the document
+     */
+    public static byte[] syntheticDocument(final int relationTypes,
+                                           final boolean withDocs,
+                                           final JsonHomeMediaType mediaType) {
+        try {
+            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            writeJsonHome(syntheticJsonHome(relationTypes, withDocs), mediaType, stream);
+            return stream.toByteArray();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Documentation docsFor(final int i) {
+        return documentation(
+                asList("Resource number " + i + " of the synthetic json-home document.",
+                        "It is only used to benchmark the jsonhome libraries."),
+                "<h1>Resource " + i + "</h1>\n<p>A <em>detailed</em> description of the resource, as it is rendered " +
+                        "from Markdown files by the DocsGenerator.</p>\n<ul><li>first item</li><li>second item</li></ul>",
+                URI.create(RESOURCE_BASE_URI + "docs/resource" + i + ".md"));
+    }
+
+}
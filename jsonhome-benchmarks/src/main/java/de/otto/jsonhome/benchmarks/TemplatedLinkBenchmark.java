@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.benchmarks;
+
+import de.otto.jsonhome.model.TemplatedLink;
+import de.otto.jsonhome.model.TemplatedLinkExpander;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static de.otto.jsonhome.benchmarks.SyntheticJsonHome.VAR_TYPE_BASE_URI;
+import static de.otto.jsonhome.benchmarks.SyntheticJsonHome.syntheticResourceLinks;
+import static de.otto.jsonhome.model.Allow.GET;
+
+/**
+ * Benchmarks the expansion of {@link TemplatedLink templated links} into URIs.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplatedLinkBenchmark {
+
+    private static final URI ID = URI.create(VAR_TYPE_BASE_URI + "id");
+    private static final URI PAGE = URI.create(VAR_TYPE_BASE_URI + "page");
+    private static final URI PAGE_SIZE = URI.create(VAR_TYPE_BASE_URI + "pageSize");
+
+    private TemplatedLink templatedLink;
+    private Map<URI, Object> values;
+    private TemplatedLinkExpander expander;
+    private Object[] positionalValues;
+    private StringBuilder sb;
+
+    @Setup
+    public void setup() {
+        // the second synthetic resource link is a templated link:
+        templatedLink = syntheticResourceLinks(2, false, GET).get(1).asTemplatedLink();
+        values = new HashMap<>();
+        values.put(ID, "4711");
+        values.put(PAGE, 2);
+        values.put(PAGE_SIZE, 50);
+        expander = templatedLink.expanderFor(ID, PAGE, PAGE_SIZE);
+        positionalValues = new Object[] {"4711", 2, 50};
+        sb = new StringBuilder(128);
+    }
+
+    @Benchmark
+    public URI expandSingleVar() {
+        return templatedLink.expandToUri(ID, "4711");
+    }
+
+    @Benchmark
+    public URI expandThreeVars() {
+        return templatedLink.expandToUri(ID, "4711", PAGE, 2, PAGE_SIZE, 50);
+    }
+
+    @Benchmark
+    public URI expandMap() {
+        return templatedLink.expandToUri(values);
+    }
+
+    @Benchmark
+    public int expandWithExpander() {
+        sb.setLength(0);
+        expander.expandTo(sb, positionalValues);
+        return sb.length();
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Asynchronous variant of the {@link JsonHomeClient}, used to retrieve JsonHome documents without blocking the
+ * calling thread.
+ *
+ * The returned futures are completed exceptionally with the same exceptions that are thrown by the
+ * JsonHomeClient: {@link NotFoundException}, {@link HttpStatusException} or {@link JsonHomeClientException}. If the
+ * timeout of a call elapses before the document is retrieved, the future is completed exceptionally with a
+ * {@link java.util.concurrent.TimeoutException}.
+ *
+ * Cancelling a returned future aborts the retrieval of the document, if possible.
+ *
+ * The interface does not require a non-blocking transport. The {@link HttpJsonHomeClient} is using a blocking
+ * HttpClient: the calling thread is not blocked, but every document that is currently retrieved occupies a thread
+ * of the client's executor until the response is parsed.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public interface AsyncJsonHomeClient {
+
+    /**
+     * Gets the JsonHome document associated to the specified URI, without a timeout.
+     *
+     * @param uri the URI of the JsonHome document.
+     * @return future of the JsonHome
+     */
+    public default CompletableFuture<JsonHome> getAsync(final URI uri) {
+        return getAsync(uri, 0, MILLISECONDS);
+    }
+
+    /**
+     * Gets the JsonHome document associated to the specified URI.
+     *
+     * The returned instance may be returned from a cache.
+     *
+     * @param uri the URI of the JsonHome document.
+     * @param timeout the maximum time to wait for the document. Values &lt;= 0 disable the timeout.
+     * @param unit the unit of the timeout.
+     * @return future of the JsonHome
+     */
+    public CompletableFuture<JsonHome> getAsync(final URI uri, final long timeout, final TimeUnit unit);
+
+    /**
+     * Updates the (possibly cached) JsonHome instance identified by the URI, without a timeout.
+     *
+     * @param uri the URI uniquely identifying the JsonHome instance.
+     * @return future of the updated JsonHome
+     */
+    public default CompletableFuture<JsonHome> updateAndGetAsync(final URI uri) {
+        return updateAndGetAsync(uri, 0, MILLISECONDS);
+    }
+
+    /**
+     * Updates the (possibly cached) JsonHome instance identified by the URI and returns the updated instance.
+     *
+     * @param uri the URI uniquely identifying the JsonHome instance.
+     * @param timeout the maximum time to wait for the document. Values &lt;= 0 disable the timeout.
+     * @param unit the unit of the timeout.
+     * @return future of the updated JsonHome
+     */
+    public CompletableFuture<JsonHome> updateAndGetAsync(final URI uri, final long timeout, final TimeUnit unit);
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+
+import java.net.URI;
+
+/**
+ * A parsed JsonHome document, together with the HTTP validators of the response it was parsed from.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+final class CachedJsonHome {
+
+    private final URI uri;
+    private final String eTag;
+    private final String lastModified;
+    private final JsonHome jsonHome;
+
+    CachedJsonHome(final URI uri, final String eTag, final String lastModified, final JsonHome jsonHome) {
+        this.uri = uri;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.jsonHome = jsonHome;
+    }
+
+    URI getUri() {
+        return uri;
+    }
+
+    String getETag() {
+        return eTag;
+    }
+
+    String getLastModified() {
+        return lastModified;
+    }
+
+    JsonHome getJsonHome() {
+        return jsonHome;
+    }
+
+    /**
+     * Checks whether the cached document was parsed from a response having the same validators.
+     *
+     * @param eTag the ETag of a response. May be null.
+     * @param lastModified the Last-Modified header of a response. May be null.
+     * @return true, if at least one validator is present and all validators are equal.
+     */
+    boolean hasValidators(final String eTag, final String lastModified) {
+        if (eTag == null && lastModified == null) {
+            return false;
+        }
+        return (eTag == null ? this.eTag == null : eTag.equals(this.eTag))
+                && (lastModified == null ? this.lastModified == null : lastModified.equals(this.lastModified));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A circuit breaker protecting the retrieval of a single json-home document.
+ *
+ * The circuit is closed as long as requests succeed. After failureThreshold consecutive failures, the circuit is
+ * opened: no requests are sent until the backoff has elapsed. Afterwards, the circuit is half-open and a single
+ * probe request is permitted. If the probe succeeds, the circuit is closed again; otherwise it is opened again,
+ * doubling the backoff up to maxBackoff.
+ *
+ * This implementation is thread-safe.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long backoffNanos;
+    private long openUntilNanos;
+
+    CircuitBreaker(final int failureThreshold, final long initialBackoffNanos, final long maxBackoffNanos) {
+        this(failureThreshold, initialBackoffNanos, maxBackoffNanos, System::nanoTime);
+    }
+
+    CircuitBreaker(final int failureThreshold,
+                   final long initialBackoffNanos,
+                   final long maxBackoffNanos,
+                   final LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.initialBackoffNanos = initialBackoffNanos;
+        this.maxBackoffNanos = Math.max(initialBackoffNanos, maxBackoffNanos);
+        this.nanoClock = nanoClock;
+        this.backoffNanos = initialBackoffNanos;
+    }
+
+    /**
+     * Returns true, if a request may be sent. Every permitted request must be followed by a call of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onAbort()}.
+     *
+     * @return true if the circuit is closed, or if the request is the probe of a half-open circuit.
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openUntilNanos >= 0) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // a probe is already in flight
+                return false;
+        }
+    }
+
+    /**
+     * The server responded successfully: the circuit is closed.
+     */
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        backoffNanos = initialBackoffNanos;
+    }
+
+    /**
+     * The request failed. The circuit is opened, if the failure threshold is reached or the probe failed.
+     */
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+            open();
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * The request was aborted by the client. If the request was the probe of a half-open circuit, the next
+     * request is permitted to probe the server.
+     */
+    synchronized void onAbort() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openUntilNanos = nanoClock.getAsLong();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return milliseconds until the next probe is permitted, or 0 if the circuit is not open.
+     */
+    synchronized long getRetryAfterMillis() {
+        return state == State.OPEN
+                ? Math.max(0, (openUntilNanos - nanoClock.getAsLong()) / 1000000)
+                : 0;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilNanos = nanoClock.getAsLong() + backoffNanos;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import java.net.URI;
+
+/**
+ * Thrown by the {@link HttpJsonHomeClient} without sending a request, if the circuit breaker of a json-home document
+ * is open because of previous failures, and no previously retrieved document is available.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class CircuitOpenException extends JsonHomeClientException {
+
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(final URI uri, final long retryAfterMillis) {
+        super("Circuit breaker of json-home document " + uri + " is open, retrying in " + retryAfterMillis + "ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return the number of milliseconds until the next request is sent to the server.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
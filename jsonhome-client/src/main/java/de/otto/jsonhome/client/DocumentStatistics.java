@@ -0,0 +1,191 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import java.net.URI;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the retrieval of a single json-home document, collected by {@link JsonHomeClientStatistics}.
+ *
+ * All counters and histograms are lock-free.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class DocumentStatistics implements DocumentStatisticsMBean {
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final URI uri;
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram parseTime = new LatencyHistogram();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder bytesParsed = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    DocumentStatistics(final URI uri) {
+        this.uri = uri;
+    }
+
+    /**
+     * @return histogram of the time needed to receive the responses of the HTTP requests.
+     */
+    public LatencyHistogram getFetchLatency() {
+        return fetchLatency;
+    }
+
+    /**
+     * @return histogram of the time needed to read and parse the documents.
+     */
+    public LatencyHistogram getParseTime() {
+        return parseTime;
+    }
+
+    @Override
+    public String getUri() {
+        return uri.toString();
+    }
+
+    @Override
+    public long getFetches() {
+        return fetchLatency.getCount();
+    }
+
+    @Override
+    public double getFetchMeanMillis() {
+        return fetchLatency.getMeanNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getFetch50thPercentileMillis() {
+        return fetchLatency.getPercentileNanos(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getFetch99thPercentileMillis() {
+        return fetchLatency.getPercentileNanos(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getFetchMaxMillis() {
+        return fetchLatency.getMaxNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getRevalidations() {
+        return revalidations.sum();
+    }
+
+    @Override
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    @Override
+    public long getParses() {
+        return parseTime.getCount();
+    }
+
+    @Override
+    public double getParseMeanMillis() {
+        return parseTime.getMeanNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getParse99thPercentileMillis() {
+        return parseTime.getPercentileNanos(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getParseMaxMillis() {
+        return parseTime.getMaxNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getBytesParsed() {
+        return bytesParsed.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return the ratio of responses that did not need to be parsed, because the parsed document was cached.
+     */
+    @Override
+    public double getCacheHitRatio() {
+        final long hits = cacheHits.sum();
+        final long lookups = hits + cacheMisses.sum();
+        return lookups > 0 ? (double) hits / lookups : 0;
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    void fetched(final int statusCode, final long durationNanos) {
+        fetchLatency.record(durationNanos);
+        if (statusCode == 304) {
+            notModified.increment();
+        }
+    }
+
+    void revalidated() {
+        revalidations.increment();
+    }
+
+    void lookedUp(final boolean hit) {
+        if (hit) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+    }
+
+    void parsed(final long bytes, final long durationNanos) {
+        parseTime.record(durationNanos);
+        bytesParsed.add(bytes);
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentStatistics{" +
+                "uri=" + uri +
+                ", fetches=" + getFetches() +
+                ", fetchMeanMillis=" + getFetchMeanMillis() +
+                ", parses=" + getParses() +
+                ", cacheHitRatio=" + getCacheHitRatio() +
+                ", failures=" + getFailures() +
+                '}';
+    }
+}
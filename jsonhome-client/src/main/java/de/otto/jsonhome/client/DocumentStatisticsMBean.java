@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+/**
+ * JMX interface of the {@link DocumentStatistics} of a json-home document. Durations are reported in milliseconds.
+ *
+ * BytesParsed is the number of decompressed bytes read by the parser. Documents returned from the cache of parsed
+ * documents are not counted, so it is not the number of bytes transferred over the network.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public interface DocumentStatisticsMBean {
+
+    public String getUri();
+
+    public long getFetches();
+
+    public double getFetchMeanMillis();
+
+    public double getFetch50thPercentileMillis();
+
+    public double getFetch99thPercentileMillis();
+
+    public double getFetchMaxMillis();
+
+    public long getRevalidations();
+
+    public long getNotModified();
+
+    public long getParses();
+
+    public double getParseMeanMillis();
+
+    public double getParse99thPercentileMillis();
+
+    public double getParseMaxMillis();
+
+    public long getBytesParsed();
+
+    public long getCacheHits();
+
+    public long getCacheMisses();
+
+    public double getCacheHitRatio();
+
+    public long getFailures();
+
+}
@@ -18,49 +18,116 @@ package de.otto.jsonhome.client;
 
 import de.otto.jsonhome.model.JsonHome;
 import de.otto.jsonhome.parser.JacksonJsonHomeParser;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.cache.HttpCacheStorage;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.cache.*;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.otto.jsonhome.client.HttpJsonHomeClientBuilder.httpJsonHomeClientBuilder;
 
 /**
  * A JsonHomeClient used to get json-home documents from an URI via HTTP.
  *
- * This implementation is relying on Apache's CachingHttpClient.
+ * This implementation is relying on Apache's CachingHttpClient. In addition to the cached HTTP responses, parsed
+ * documents are kept in a {@link JsonHomeCache}: if a response has the same ETag and Last-Modified headers as a
+ * previously parsed document, the same JsonHome instance is returned without parsing the response again.
+ *
+ * Unless an external HttpClient is used, requests are sent using a pool of keep-alive connections, configured by
+ * the {@link HttpJsonHomeClientBuilder}. Statistics of the pool are available using
+ * {@link #getConnectionPoolStats()}.
+ *
+ * Documents are requested using gzip or deflate content coding. Compressed responses are stored compressed in
+ * the HTTP cache, and decompressed transparently before they are parsed.
+ *
+ * Concurrent requests of the same document share a single HTTP request and a single parse: callers requesting a
+ * document that is currently retrieved by another thread wait for the result of that thread, instead of sending
+ * their own request. Calls of get() and updateAndGet() are deduplicated separately.
+ *
+ * Documents requested using the {@link AsyncJsonHomeClient} interface are retrieved by the threads of a
+ * configurable Executor. If all callers waiting for a document cancel their futures, or exceed the timeout of
+ * their calls, the HTTP request is aborted. The HttpClient is blocking, so every document that is currently
+ * retrieved occupies a thread of the executor. Unless an executor is configured, a pool of at most
+ * {@link HttpJsonHomeClientBuilder#withMaxConnections(int, int) maxConnections} threads is used, and the returned
+ * futures are completed by the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}.
+ *
+ * If {@link HttpJsonHomeClientBuilder#withBackgroundRefresh(long, long, TimeUnit) background refresh} is enabled,
+ * get() returns the last retrieved document without waiting for the network, and documents are refreshed in the
+ * background, respecting the max-age and stale-while-revalidate directives of the Cache-Control header.
+ *
+ * An optional {@link HttpJsonHomeClientBuilder#withCircuitBreaker(int, long, long, TimeUnit) circuit breaker} per
+ * URI stops sending requests to unavailable servers for an exponentially growing backoff. While the circuit is
+ * open, the last retrieved document is returned, or a {@link CircuitOpenException} is thrown.
+ *
+ * The client is instrumented using {@link JsonHomeClientMetrics}, configured using
+ * {@link HttpJsonHomeClientBuilder#withMetrics(JsonHomeClientMetrics)}.
+ *
+ * {@link JsonHomeChangeListener Listeners} are notified if a retrieved document differs from the previously
+ * retrieved document of the same URI.
  *
  * @author Guido Steinacker
  * @since 26.10.12
  */
-public class HttpJsonHomeClient implements JsonHomeClient {
+public class HttpJsonHomeClient implements JsonHomeClient, AsyncJsonHomeClient {
 
     private static Logger LOG = LoggerFactory.getLogger(HttpJsonHomeClient.class);
 
+    private static final ScheduledExecutorService SCHEDULER = scheduler();
+    /** Minimum interval between two background refreshes of a document. */
+    private static final long MIN_REFRESH_INTERVAL_MILLIS = 1000;
+
     private final HttpClient httpClient;
-    private final HttpCacheStorage cacheStorage;
+    private final HttpClient backendClient;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final JsonHomeCache jsonHomeCache;
+    private final JsonHomeClientMetrics metrics;
+    private final JacksonJsonHomeParser parser = new JacksonJsonHomeParser();
+    private final ConcurrentMap<URI, Flight> getsInFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<URI, Flight> updatesInFlight = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final Executor completionExecutor;
+    private final ExecutorService ownExecutor;
+    private final ConcurrentMap<URI, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final List<JsonHomeChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final boolean backgroundRefresh;
+    private final long refreshIntervalMillis;
+    private final long staleWhileRevalidateMillis;
+    private final ConcurrentMap<URI, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final int circuitBreakerFailureThreshold;
+    private final long circuitBreakerInitialBackoffNanos;
+    private final long circuitBreakerMaxBackoffNanos;
+    private volatile boolean shutdown;
 
     /**
      * Constructs a default HttpJsonHomeClient build on top of a CachingHttpClient with in-memory storage.
      */
     public HttpJsonHomeClient() {
-        final CacheConfig cacheConfig = CacheConfig.custom()
-                .setMaxCacheEntries(100)
-                .setMaxObjectSize(50000)
-                .build();
-        this.cacheStorage = new BasicHttpCacheStorage(cacheConfig);
-        this.httpClient = CachingHttpClientBuilder.create()
-                .setHttpCacheStorage(cacheStorage)
-                .setCacheConfig(cacheConfig)
-                .build();
+        this(httpJsonHomeClientBuilder());
     }
 
     /**
@@ -72,8 +139,9 @@ public class HttpJsonHomeClient implements JsonHomeClient {
      * @param cacheConfig configuration of the HttpCacheStorage
      */
     public HttpJsonHomeClient(final HttpClient httpClient, final CacheConfig cacheConfig) {
-        this.cacheStorage = new BasicHttpCacheStorage(cacheConfig);
-        this.httpClient = new CachingHttpClient(httpClient, cacheStorage, cacheConfig);
+        this(httpJsonHomeClientBuilder()
+                .withHttpClient(httpClient)
+                .withCacheConfig(cacheConfig));
     }
 
     /**
@@ -86,76 +154,894 @@ public class HttpJsonHomeClient implements JsonHomeClient {
     public HttpJsonHomeClient(final HttpClient httpClient,
                               final HttpCacheStorage storage,
                               final CacheConfig cacheConfig) {
-        this.cacheStorage = storage;
-        this.httpClient = new CachingHttpClient(httpClient, cacheStorage, cacheConfig);
+        this(httpJsonHomeClientBuilder()
+                .withHttpClient(httpClient)
+                .withCacheStorage(storage)
+                .withCacheConfig(cacheConfig));
+    }
+
+    /**
+     * Constructs a HttpJsonHomeClient from the properties of a builder.
+     *
+     * @param builder the HttpJsonHomeClientBuilder
+     */
+    HttpJsonHomeClient(final HttpJsonHomeClientBuilder builder) {
+        final CacheConfig cacheConfig = builder.getCacheConfig() != null
+                ? builder.getCacheConfig()
+                : CacheConfig.custom()
+                        .setMaxCacheEntries(100)
+                        .setMaxObjectSize(50000)
+                        .build();
+        final HttpCacheStorage cacheStorage = builder.getCacheStorage() != null
+                ? builder.getCacheStorage()
+                : new BasicHttpCacheStorage(cacheConfig);
+        if (builder.getHttpClient() != null) {
+            this.connectionManager = null;
+            this.backendClient = builder.getHttpClient();
+            this.httpClient = new CachingHttpClient(backendClient, cacheStorage, cacheConfig);
+        } else {
+            this.connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(builder.getMaxConnections());
+            connectionManager.setDefaultMaxPerRoute(builder.getMaxConnectionsPerRoute());
+            final long keepAliveMillis = builder.getKeepAliveMillis();
+            this.backendClient = null;
+            this.httpClient = CachingHttpClientBuilder.create()
+                    .setHttpCacheStorage(cacheStorage)
+                    .setCacheConfig(cacheConfig)
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectTimeout((int) builder.getConnectTimeoutMillis())
+                            .setSocketTimeout((int) builder.getSocketTimeoutMillis())
+                            .setConnectionRequestTimeout((int) builder.getConnectionRequestTimeoutMillis())
+                            .build())
+                    .setKeepAliveStrategy((response, context) -> {
+                        final long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return keepAlive > 0 ? keepAlive : keepAliveMillis;
+                    })
+                    .evictExpiredConnections()
+                    .evictIdleConnections(builder.getMaxIdleTimeMillis(), TimeUnit.MILLISECONDS)
+                    .build();
+        }
+        this.jsonHomeCache = builder.getJsonHomeCache();
+        this.metrics = builder.getMetrics() != JsonHomeClientMetrics.NO_METRICS
+                ? new GuardedMetrics(builder.getMetrics())
+                : JsonHomeClientMetrics.NO_METRICS;
+        this.changeListeners.addAll(builder.getChangeListeners());
+        this.backgroundRefresh = builder.getRefreshIntervalMillis() > 0;
+        this.refreshIntervalMillis = builder.getRefreshIntervalMillis();
+        this.staleWhileRevalidateMillis = builder.getStaleWhileRevalidateMillis();
+        this.circuitBreakerFailureThreshold = builder.getCircuitBreakerFailureThreshold();
+        this.circuitBreakerInitialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(builder.getCircuitBreakerInitialBackoffMillis());
+        this.circuitBreakerMaxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(builder.getCircuitBreakerMaxBackoffMillis());
+        if (builder.getExecutor() != null) {
+            this.ownExecutor = null;
+            this.executor = builder.getExecutor();
+            this.completionExecutor = executor;
+        } else {
+            // one blocked thread per connection; more threads would only wait for a connection:
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    builder.getMaxConnections(), builder.getMaxConnections(),
+                    60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    daemonThreads("jsonhome-client-"));
+            pool.allowCoreThreadTimeOut(true);
+            this.ownExecutor = pool;
+            this.executor = pool;
+            // futures must not wait for queued requests, otherwise timeouts would be delayed:
+            this.completionExecutor = ForkJoinPool.commonPool();
+        }
     }
 
     /**
      * {@inheritDoc}
+     *
+     * The document is revalidated using the validators of the cached document: if the server responds with
+     * 304 NOT MODIFIED, the cached instance is returned. Concurrent calls for the same URI share a single HTTP
+     * request.
      */
     @Override
     public JsonHome updateAndGet(final URI uri) {
+        return update(uri).getJsonHome();
+    }
+
+    /**
+     * Revalidates the JsonHome document identified by the URI, like {@link #updateAndGet(java.net.URI)}, and
+     * reports whether the document has changed.
+     *
+     * @param uri the URI uniquely identifying the JsonHome instance.
+     * @return JsonHomeUpdate containing the current document.
+     * @throws NotFoundException if the requested JsonHome was not found.
+     * @throws JsonHomeClientException if the document could not be retrieved.
+     */
+    public JsonHomeUpdate update(final URI uri) {
+        final Snapshot previous = snapshots.get(uri);
+        final JsonHome jsonHome = join(uri, updatesInFlight);
+        final boolean changed = previous == null
+                || (previous.jsonHome != jsonHome && !previous.jsonHome.equals(jsonHome));
+        return new JsonHomeUpdate(uri, jsonHome, changed);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Concurrent calls for the same URI share a single HTTP request. If background refresh is enabled, the
+     * last retrieved document is returned without waiting for the network.
+     */
+    @Override
+    public JsonHome get(final URI uri) {
+        final Snapshot snapshot = backgroundRefresh ? snapshots.get(uri) : null;
+        if (snapshot != null) {
+            if (!snapshot.isTooStale()) {
+                return snapshot.jsonHome;
+            }
+            try {
+                return join(uri, getsInFlight);
+            } catch (final JsonHomeClientException e) {
+                LOG.warn("Unable to refresh json-home document {}, returning stale document: {}", uri, e.getMessage());
+                return snapshot.jsonHome;
+            }
+        }
+        return join(uri, getsInFlight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The documents are retrieved by the executor of the client, using at most maxConcurrency concurrent requests.
+     * Requests that are still running when the deadline elapses are aborted.
+     */
+    @Override
+    public JsonHomeResults getAll(final Collection<URI> uris,
+                                  final int maxConcurrency,
+                                  final long timeout,
+                                  final TimeUnit unit) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final Semaphore permits = new Semaphore(maxConcurrency);
+        final Map<URI, CompletableFuture<JsonHome>> futures = new LinkedHashMap<>();
         try {
-            LOG.info("Expiring cached json-home document {}", uri);
-            cacheStorage.removeEntry(uri.toString());
-        } catch (IOException e) {
-            throw new JsonHomeClientException("IOException caught while removing cache-entry: " + e.getMessage(), e);
+            for (final URI uri : uris) {
+                if (futures.containsKey(uri)) {
+                    continue;
+                }
+                if (timeout > 0) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !permits.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                        futures.put(uri, failedFuture(new TimeoutException("Deadline exceeded")));
+                        continue;
+                    }
+                } else {
+                    permits.acquire();
+                }
+                final CompletableFuture<JsonHome> future = timeout > 0
+                        ? getAsync(uri, Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        : getAsync(uri);
+                future.whenComplete((jsonHome, throwable) -> permits.release());
+                futures.put(uri, future);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final Map<URI, JsonHome> jsonHomes = new LinkedHashMap<>();
+        final Map<URI, JsonHomeClientException> failures = new LinkedHashMap<>();
+        for (final URI uri : uris) {
+            final CompletableFuture<JsonHome> future = futures.get(uri);
+            if (future == null) {
+                // the caller was interrupted before the document was requested:
+                failures.put(uri, new JsonHomeClientException("Interrupted before requesting json-home document " + uri));
+                continue;
+            }
+            try {
+                jsonHomes.put(uri, future.get());
+            } catch (final ExecutionException e) {
+                failures.put(uri, bulkFailureOf(uri, e.getCause()));
+            } catch (final CancellationException e) {
+                failures.put(uri, bulkFailureOf(uri, e));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                failures.put(uri, new JsonHomeClientException("Interrupted while getting json-home document " + uri, e));
+            }
         }
-        return get(uri);
+        return new JsonHomeResults(jsonHomes, failures);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public JsonHome get(final URI uri) {
+    public CompletableFuture<JsonHome> getAsync(final URI uri, final long timeout, final TimeUnit unit) {
+        final Snapshot snapshot = backgroundRefresh ? snapshots.get(uri) : null;
+        if (snapshot != null && !snapshot.isTooStale()) {
+            return CompletableFuture.completedFuture(snapshot.jsonHome);
+        }
+        return async(uri, getsInFlight, timeout, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<JsonHome> updateAndGetAsync(final URI uri, final long timeout, final TimeUnit unit) {
+        return async(uri, updatesInFlight, timeout, unit);
+    }
+
+    /**
+     * Returns the cache of parsed documents, for example to get the number of cache hits and misses.
+     *
+     * @return JsonHomeCache
+     */
+    public JsonHomeCache getJsonHomeCache() {
+        return jsonHomeCache;
+    }
+
+    public void addChangeListener(final JsonHomeChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(final JsonHomeChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        for (final Snapshot snapshot : snapshots.values()) {
+            snapshot.cancelRefresh();
+        }
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+        try {
+            if (httpClient instanceof Closeable) {
+                ((Closeable) httpClient).close();
+            } else if (backendClient instanceof Closeable) {
+                ((Closeable) backendClient).close();
+            } else {
+                shutdownConnectionManagerOf(httpClient);
+            }
+        } catch (final IOException e) {
+            LOG.warn("Error closing HttpClient: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns true, if the circuit breaker of a json-home document is open or half-open, so requests of the
+     * document are currently not sent to the server.
+     *
+     * @param uri the URI of the json-home document.
+     * @return true if the circuit is open, false if it is closed or circuit breakers are disabled.
+     */
+    public boolean isCircuitOpen(final URI uri) {
+        final CircuitBreaker circuitBreaker = circuitBreakers.get(uri);
+        return circuitBreaker != null && circuitBreaker.getState() != CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * Returns the statistics of the HTTP connection pool: the number of leased, pending, available and maximum
+     * connections.
+     *
+     * @return PoolStats, or null if the client was built using an external HttpClient.
+     */
+    public PoolStats getConnectionPoolStats() {
+        return connectionManager != null ? connectionManager.getTotalStats() : null;
+    }
+
+    /**
+     * Retrieves the document in the calling thread, or waits for a concurrent retrieval of the same document.
+     */
+    private JsonHome join(final URI uri, final ConcurrentMap<URI, Flight> flights) {
+        final Flight newFlight = new Flight(uri, requestFor(uri), flights == updatesInFlight);
+        final Flight flight = flightOf(newFlight, flights);
+        if (flight == newFlight) {
+            run(flight, flights);
+            return resultOf(flight);
+        } else {
+            try {
+                return resultOf(flight);
+            } finally {
+                flight.leave();
+            }
+        }
+    }
+
+    /**
+     * Registers the new flight of a document, or joins the flight that is already retrieving the document. Flights
+     * that were closed because nobody was waiting for them anymore are not joined.
+     *
+     * @return the new flight, if it was registered, or the joined flight.
+     */
+    private static Flight flightOf(final Flight newFlight, final ConcurrentMap<URI, Flight> flights) {
+        while (true) {
+            final Flight existing = flights.putIfAbsent(newFlight.uri, newFlight);
+            if (existing == null) {
+                return newFlight;
+            }
+            if (existing.tryJoin()) {
+                return existing;
+            }
+            flights.remove(newFlight.uri, existing);
+        }
+    }
+
+    /**
+     * Retrieves the document using the executor of the client, or waits for a concurrent retrieval of the same
+     * document.
+     *
+     * The returned future is completed by a thread of the completion executor, or by the caller in case of a
+     * cancellation.
+     * If the futures of all callers waiting for the document are completed exceptionally before the document
+     * is retrieved, the HTTP request is aborted.
+     */
+    private CompletableFuture<JsonHome> async(final URI uri,
+                                              final ConcurrentMap<URI, Flight> flights,
+                                              final long timeout,
+                                              final TimeUnit unit) {
+        final CompletableFuture<JsonHome> future = new CompletableFuture<>();
+        final Flight newFlight = new Flight(uri, requestFor(uri), flights == updatesInFlight);
+        final Flight flight = flightOf(newFlight, flights);
+        if (flight == newFlight) {
+            try {
+                executor.execute(() -> run(newFlight, flights));
+            } catch (final RejectedExecutionException e) {
+                flights.remove(uri, newFlight);
+                newFlight.result.completeExceptionally(
+                        new JsonHomeClientException("Unable to get json-home document " + uri + ": " + e.getMessage(), e));
+            }
+        }
+        try {
+            flight.result.whenCompleteAsync((jsonHome, throwable) -> {
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                } else {
+                    future.complete(jsonHome);
+                }
+            }, completionExecutor);
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(
+                    new JsonHomeClientException("Unable to get json-home document " + uri + ": " + e.getMessage(), e));
+        }
+        if (timeout > 0 && !future.isDone()) {
+            final ScheduledFuture<?> timeoutTask = SCHEDULER.schedule(
+                    () -> completeExceptionally(future, new TimeoutException(
+                            "Timeout after " + unit.toMillis(timeout) + "ms getting json-home document " + uri)),
+                    timeout, unit);
+            future.whenComplete((jsonHome, throwable) -> timeoutTask.cancel(false));
+        }
+        future.whenComplete((jsonHome, throwable) -> {
+            if (flight.leave()) {
+                // nobody is waiting for the document anymore:
+                flights.remove(uri, flight);
+                flight.request.abort();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Retrieves the document of a flight and completes its result.
+     */
+    private void run(final Flight flight, final ConcurrentMap<URI, Flight> flights) {
+        try {
+            if (flight.update) {
+                flight.result.complete(revalidate(flight.uri, flight.request));
+            } else {
+                flight.result.complete(get(flight.uri, flight.request, null));
+            }
+        } catch (final RuntimeException e) {
+            flight.result.completeExceptionally(e);
+        } finally {
+            flights.remove(flight.uri, flight);
+        }
+    }
+
+    private static JsonHome resultOf(final Flight flight) {
+        try {
+            return flight.result.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new JsonHomeClientException("Error getting json-home document " + flight.uri, e.getCause());
+        }
+    }
+
+    /**
+     * Completes the future exceptionally using the completion executor, so dependent stages are not executed by
+     * the timeout scheduler.
+     */
+    private void completeExceptionally(final CompletableFuture<JsonHome> future, final Throwable throwable) {
+        try {
+            completionExecutor.execute(() -> future.completeExceptionally(throwable));
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Revalidates the document with the origin server. The request is sent with no-cache, so it is not answered
+     * from the HTTP cache, and with the validators of the cached JsonHome, if any. If the server answers with
+     * 304 NOT MODIFIED, the cached instance is returned.
+     */
+    private JsonHome revalidate(final URI uri, final HttpGet httpget) {
+        LOG.debug("Revalidating json-home document {}", uri);
+        httpget.setHeader("Cache-Control", "no-cache");
+        final CachedJsonHome cached = jsonHomeCache.getEntry(uri);
+        if (cached != null) {
+            if (cached.getETag() != null) {
+                httpget.setHeader("If-None-Match", cached.getETag());
+            }
+            if (cached.getLastModified() != null) {
+                httpget.setHeader("If-Modified-Since", cached.getLastModified());
+            }
+        }
+        return get(uri, httpget, cached);
+    }
+
+    private HttpGet requestFor(final URI uri) {
         final HttpGet httpget = new HttpGet(uri);
         httpget.setHeader("Accept", "application/json");
+        httpget.setHeader("Accept-Encoding", "gzip, deflate");
+        return httpget;
+    }
+
+    /**
+     * Retrieves the document.
+     *
+     * @param uri the URI of the document.
+     * @param httpget the request.
+     * @param conditional the cached document, if the request is conditional, or null.
+     * @return JsonHome
+     */
+    private JsonHome get(final URI uri, final HttpGet httpget, final CachedJsonHome conditional) {
+        final CircuitBreaker circuitBreaker = circuitBreakerOf(uri);
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            final Snapshot lastRetrieved = snapshots.get(uri);
+            if (lastRetrieved != null) {
+                LOG.debug("Circuit of json-home document {} is open, returning last retrieved document", uri);
+                return lastRetrieved.jsonHome;
+            }
+            throw failed(uri, new CircuitOpenException(uri, circuitBreaker.getRetryAfterMillis()));
+        }
         final BasicHttpContext context = new BasicHttpContext();
-        final HttpResponse response;
+        boolean serverAvailable = false;
         try {
-            LOG.info("Getting json-home document {}", uri);
-            response = httpClient.execute(httpget, context);
+            LOG.debug("Getting json-home document {}", uri);
+            final long started = System.nanoTime();
+            final HttpResponse response = httpClient.execute(httpget, context);
             final int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode == 404) {
+            final long fetchNanos = System.nanoTime() - started;
+            serverAvailable = statusCode < 500;
+            metrics.onFetch(uri, statusCode, fetchNanos);
+            if (conditional != null) {
+                metrics.onRevalidation(uri, statusCode != 304, fetchNanos);
+            }
+            if (statusCode == 304 && conditional != null) {
+                LOG.debug("Json-home document {} is not modified, returning cached instance", uri);
+                EntityUtils.consumeQuietly(response.getEntity());
+                final JsonHome cached = jsonHomeCache.get(uri, conditional.getETag(), conditional.getLastModified());
+                metrics.onCacheLookup(uri, cached != null);
+                final JsonHome jsonHome = cached != null ? cached : conditional.getJsonHome();
+                remember(uri, jsonHome, response);
+                return jsonHome;
+            } else if (statusCode == 404) {
                 LOG.warn("Json-home document {} not found. HTTP status is 404", uri);
-                throw new NotFoundException("Resource " + uri + " not found");
+                throw failed(uri, new NotFoundException("Resource " + uri + " not found"));
             } else if (statusCode >= 400) {
                 final String status = response.getStatusLine().toString();
                 LOG.warn("Json-home document {} not found: {}", uri, status);
-                throw new HttpStatusException(statusCode,
+                throw failed(uri, new HttpStatusException(statusCode,
                         "Failed to load json-home from " + uri +
-                                ": Received HTTP status code " + status);
+                                ": Received HTTP status code " + status));
             }
+            final String eTag = headerOf(response, "ETag");
+            final String lastModified = headerOf(response, "Last-Modified");
+            final JsonHome cached = jsonHomeCache.get(uri, eTag, lastModified);
+            metrics.onCacheLookup(uri, cached != null);
+            if (cached != null) {
+                LOG.debug("Json-home document {} is not modified, returning cached instance", uri);
+                EntityUtils.consumeQuietly(response.getEntity());
+                remember(uri, cached, response);
+                return cached;
+            }
+            final JsonHome jsonHome = parse(uri, decodedEntityOf(response));
+            jsonHomeCache.put(uri, eTag, lastModified, jsonHome);
+            remember(uri, jsonHome, response);
+            return jsonHome;
         } catch (final IOException e) {
             LOG.warn("Error getting json-home document {}: {}", uri, e.getMessage());
             // in case of an IOException, the connection will be released automatically.
-            throw new JsonHomeClientException("Error getting json-home document " + uri, e);
+            throw failed(uri, new JsonHomeClientException("Error getting json-home document " + uri, e));
         } finally {
+            if (circuitBreaker != null) {
+                if (serverAvailable) {
+                    circuitBreaker.onSuccess();
+                } else if (httpget.isAborted()) {
+                    circuitBreaker.onAbort();
+                } else {
+                    circuitBreaker.onFailure();
+                }
+            }
+            // the entity must be consumed before the request is reset, as long as the response is streamed:
             httpget.reset();
         }
+    }
+
+    private static CompletableFuture<JsonHome> failedFuture(final Throwable throwable) {
+        final CompletableFuture<JsonHome> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    /**
+     * Converts the reason why a document was not retrieved by getAll() into a JsonHomeClientException.
+     */
+    private static JsonHomeClientException bulkFailureOf(final URI uri, final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof JsonHomeClientException) {
+            return (JsonHomeClientException) cause;
+        } else if (cause instanceof TimeoutException) {
+            return new JsonHomeClientException("Deadline exceeded getting json-home document " + uri, cause);
+        } else {
+            return new JsonHomeClientException("Error getting json-home document " + uri, cause);
+        }
+    }
+
+    /**
+     * @return the CircuitBreaker of the document, or null if circuit breakers are disabled.
+     */
+    private CircuitBreaker circuitBreakerOf(final URI uri) {
+        if (circuitBreakerFailureThreshold <= 0) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(uri, u -> new CircuitBreaker(
+                circuitBreakerFailureThreshold, circuitBreakerInitialBackoffNanos, circuitBreakerMaxBackoffNanos));
+    }
+
+    /**
+     * Returns the decompressed entity of the response. Responses are usually decompressed by the HttpClient, but
+     * HttpClients provided by the user may not support content compression.
+     */
+    private static HttpEntity decodedEntityOf(final HttpResponse response) {
         final HttpEntity entity = response.getEntity();
+        final String contentEncoding = headerOf(response, "Content-Encoding");
+        if (entity == null || contentEncoding == null) {
+            return entity;
+        }
+        switch (contentEncoding.trim().toLowerCase()) {
+            case "gzip":
+            case "x-gzip":
+                return new GzipDecompressingEntity(entity);
+            case "deflate":
+                return new DeflateDecompressingEntity(entity);
+            default:
+                return entity;
+        }
+    }
+
+    private JsonHome parse(final URI uri, final HttpEntity entity) {
         if (entity != null) {
-            InputStream stream = null;
-            try {
-                stream = entity.getContent();
-                return new JacksonJsonHomeParser().parse(stream);
-            } catch (final IOException e) {
-                // in case of an IOException, the connection will be released automatically.
-                throw new JsonHomeClientException("Exception caught while getting json-home from " + uri, e);
-            } catch (final RuntimeException e) {
-                httpget.abort();
-                throw new JsonHomeClientException("Exception caught while getting json-home from " + uri, e);
-            } finally {
-                if (stream != null) try { stream.close(); } catch (IOException e) { /* ignore */ }
+            final long started = System.nanoTime();
+            try (final CountingInputStream stream = new CountingInputStream(entity.getContent())) {
+                final JsonHome jsonHome = parser.parse(stream);
+                metrics.onParse(uri, stream.count, System.nanoTime() - started);
+                return jsonHome;
+            } catch (final IOException | RuntimeException e) {
+                throw failed(uri, new JsonHomeClientException("Exception caught while getting json-home from " + uri, e));
             }
         }
-        throw new JsonHomeClientException("No content returned when getting json-home resource from " + uri);
+        throw failed(uri, new JsonHomeClientException("No content returned when getting json-home resource from " + uri));
     }
 
-    @Override
-    public void shutdown() {
+    /**
+     * Reports the failure to the metrics.
+     *
+     * @return the exception
+     */
+    private JsonHomeClientException failed(final URI uri, final JsonHomeClientException exception) {
+        metrics.onFailure(uri, exception);
+        return exception;
+    }
+
+    /**
+     * Remembers the retrieved document, notifies the change listeners if the document has changed and schedules
+     * the next background refresh.
+     */
+    private void remember(final URI uri, final JsonHome jsonHome, final HttpResponse response) {
+        final long maxAge = cacheControlDirectiveOf(response, "max-age");
+        final long age = response.containsHeader("Age") ? parseSeconds(headerOf(response, "Age")) : 0;
+        final long staleWhileRevalidate = cacheControlDirectiveOf(response, "stale-while-revalidate");
+        final Snapshot snapshot = new Snapshot(
+                jsonHome,
+                maxAge > 0 ? Math.max(MIN_REFRESH_INTERVAL_MILLIS, (maxAge - Math.max(age, 0)) * 1000) : refreshIntervalMillis,
+                staleWhileRevalidate >= 0 ? staleWhileRevalidate * 1000 : staleWhileRevalidateMillis);
+        final Snapshot previous = snapshots.put(uri, snapshot);
+        if (previous != null) {
+            previous.cancelRefresh();
+        }
+        if (backgroundRefresh) {
+            scheduleRefresh(uri, snapshot);
+        }
+        if (previous != null && previous.jsonHome != jsonHome && !previous.jsonHome.equals(jsonHome)) {
+            LOG.info("Json-home document {} has changed", uri);
+            for (final JsonHomeChangeListener listener : changeListeners) {
+                try {
+                    listener.onChange(uri, previous.jsonHome, jsonHome);
+                } catch (final RuntimeException e) {
+                    LOG.error("JsonHomeChangeListener failed to process change of " + uri + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void scheduleRefresh(final URI uri, final Snapshot snapshot) {
+        scheduleRefresh(uri, snapshot, snapshot.maxAgeMillis);
+    }
+
+    private void scheduleRefresh(final URI uri, final Snapshot snapshot, final long delayMillis) {
+        if (!shutdown) {
+            snapshot.refresh = SCHEDULER.schedule(() -> refresh(uri), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Refreshes the document using the executor. If the document was retrieved, the next refresh is scheduled
+     * by {@link #remember(URI, JsonHome, HttpResponse)}, otherwise the refresh is tried again later. If the
+     * circuit of the document is open, the last retrieved document is returned without a request, and the
+     * refresh is tried again when the circuit breaker allows the next probe.
+     */
+    private void refresh(final URI uri) {
+        try {
+            executor.execute(() -> {
+                try {
+                    LOG.debug("Refreshing json-home document {} in the background", uri);
+                    final Snapshot before = snapshots.get(uri);
+                    join(uri, getsInFlight);
+                    if (before != null && snapshots.get(uri) == before) {
+                        final CircuitBreaker circuitBreaker = circuitBreakers.get(uri);
+                        final long retryAfterMillis = circuitBreaker != null ? circuitBreaker.getRetryAfterMillis() : 0;
+                        LOG.debug("Json-home document {} was not retrieved, refreshing again in {}ms",
+                                uri, retryAfterMillis);
+                        scheduleRefresh(uri, before, Math.max(MIN_REFRESH_INTERVAL_MILLIS, retryAfterMillis));
+                    }
+                } catch (final RuntimeException e) {
+                    LOG.warn("Unable to refresh json-home document {}: {}", uri, e.getMessage());
+                    final Snapshot snapshot = snapshots.get(uri);
+                    if (snapshot != null) {
+                        scheduleRefresh(uri, snapshot);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            LOG.warn("Unable to refresh json-home document {}: {}", uri, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the value of a Cache-Control directive in seconds, or -1 if the directive is missing.
+     */
+    private static long cacheControlDirectiveOf(final HttpResponse response, final String directive) {
+        for (final Header header : response.getHeaders("Cache-Control")) {
+            for (final HeaderElement element : header.getElements()) {
+                if (directive.equalsIgnoreCase(element.getName())) {
+                    return parseSeconds(element.getValue());
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long parseSeconds(final String value) {
+        try {
+            return value != null ? Long.parseLong(value.trim()) : -1;
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Shuts down external HttpClients that are not Closeable, like HttpClients created by the deprecated
+     * DefaultHttpClient.
+     */
+    @SuppressWarnings("deprecation")
+    private static void shutdownConnectionManagerOf(final HttpClient httpClient) {
         httpClient.getConnectionManager().shutdown();
     }
 
+    private static String headerOf(final HttpResponse response, final String name) {
+        final Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    private static ScheduledExecutorService scheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+                1, daemonThreads("jsonhome-client-scheduler-"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * The last retrieved document of an URI.
+     */
+    private static final class Snapshot {
+        private final JsonHome jsonHome;
+        private final long retrievedAtNanos = System.nanoTime();
+        private final long maxAgeMillis;
+        private final long staleWhileRevalidateMillis;
+        private volatile ScheduledFuture<?> refresh;
+
+        private Snapshot(final JsonHome jsonHome, final long maxAgeMillis, final long staleWhileRevalidateMillis) {
+            this.jsonHome = jsonHome;
+            this.maxAgeMillis = maxAgeMillis;
+            this.staleWhileRevalidateMillis = staleWhileRevalidateMillis;
+        }
+
+        /**
+         * @return true, if the document is older than max-age plus stale-while-revalidate.
+         */
+        private boolean isTooStale() {
+            final long ageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - retrievedAtNanos);
+            return ageMillis > maxAgeMillis + staleWhileRevalidateMillis;
+        }
+
+        private void cancelRefresh() {
+            final ScheduledFuture<?> refresh = this.refresh;
+            if (refresh != null) {
+                refresh.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * The retrieval of a document, shared by all callers requesting the same document at the same time.
+     */
+    private static final class Flight {
+        private static final int CLOSED = -1;
+        private final URI uri;
+        private final HttpGet request;
+        private final boolean update;
+        private final CompletableFuture<JsonHome> result = new CompletableFuture<>();
+        /** The number of callers waiting for the result, including the creator, or CLOSED. */
+        private final AtomicInteger waiters = new AtomicInteger(1);
+
+        private Flight(final URI uri, final HttpGet request, final boolean update) {
+            this.uri = uri;
+            this.request = request;
+            this.update = update;
+        }
+
+        /**
+         * Adds a caller waiting for the result.
+         *
+         * @return false, if the flight is closed and must not be joined anymore.
+         */
+        private boolean tryJoin() {
+            while (true) {
+                final int current = waiters.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+                if (waiters.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Removes a caller waiting for the result. If it was the last caller and the result is not yet available,
+         * the flight is closed.
+         *
+         * @return true, if the flight was closed and the request should be aborted.
+         */
+        private boolean leave() {
+            return waiters.decrementAndGet() == 0
+                    && !result.isDone()
+                    && waiters.compareAndSet(0, CLOSED);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(final String namePrefix) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Counts the bytes read from a stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                ++count;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Makes sure that failing JsonHomeClientMetrics are not affecting the client.
+     */
+    private static final class GuardedMetrics implements JsonHomeClientMetrics {
+        private final JsonHomeClientMetrics delegate;
+
+        private GuardedMetrics(final JsonHomeClientMetrics delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onFetch(final URI uri, final int statusCode, final long durationNanos) {
+            try {
+                delegate.onFetch(uri, statusCode, durationNanos);
+            } catch (final RuntimeException e) {
+                LOG.error("JsonHomeClientMetrics failed to process fetch of " + uri + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void onRevalidation(final URI uri, final boolean modified, final long durationNanos) {
+            try {
+                delegate.onRevalidation(uri, modified, durationNanos);
+            } catch (final RuntimeException e) {
+                LOG.error("JsonHomeClientMetrics failed to process revalidation of " + uri + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void onCacheLookup(final URI uri, final boolean hit) {
+            try {
+                delegate.onCacheLookup(uri, hit);
+            } catch (final RuntimeException e) {
+                LOG.error("JsonHomeClientMetrics failed to process cache lookup of " + uri + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void onParse(final URI uri, final long bytes, final long durationNanos) {
+            try {
+                delegate.onParse(uri, bytes, durationNanos);
+            } catch (final RuntimeException e) {
+                LOG.error("JsonHomeClientMetrics failed to process parsing of " + uri + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void onFailure(final URI uri, final JsonHomeClientException exception) {
+            try {
+                delegate.onFailure(uri, exception);
+            } catch (final RuntimeException e) {
+                LOG.error("JsonHomeClientMetrics failed to process failure of " + uri + ": " + e.getMessage(), e);
+            }
+        }
+    }
 }
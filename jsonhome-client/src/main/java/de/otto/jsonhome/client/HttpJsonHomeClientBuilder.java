@@ -0,0 +1,363 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.cache.HttpCacheStorage;
+import org.apache.http.impl.client.cache.CacheConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static de.otto.jsonhome.client.JsonHomeCache.jsonHomeCache;
+
+/**
+ * A builder used to build HttpJsonHomeClient instances.
+ *
+ * All properties are optional. By default, the client is using an in-memory HTTP cache and a JsonHomeCache for up
+ * to 100 documents. Documents requested asynchronously are retrieved by a pool of at most maxConnections threads,
+ * and the returned futures are completed by the common ForkJoinPool.
+ *
+ * Unless a HttpClient is configured, the client is using a pool of HTTP connections with the following defaults,
+ * that can be changed using the transport properties of the builder:
+ * <ul>
+ *     <li>at most 50 connections, at most 10 connections per route (host),</li>
+ *     <li>5 seconds to connect, 10 seconds socket timeout, 5 seconds to wait for a connection from the pool,</li>
+ *     <li>connections are kept alive for 30 seconds, if the server does not specify a keep-alive timeout,</li>
+ *     <li>connections that are idle for more than 60 seconds are closed.</li>
+ * </ul>
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class HttpJsonHomeClientBuilder {
+
+    private HttpClient httpClient;
+    private HttpCacheStorage cacheStorage;
+    private CacheConfig cacheConfig;
+    private Executor executor;
+    private JsonHomeCache jsonHomeCache;
+    private long refreshIntervalMillis = -1;
+    private long staleWhileRevalidateMillis = -1;
+    private final List<JsonHomeChangeListener> changeListeners = new ArrayList<>();
+    private JsonHomeClientMetrics metrics = JsonHomeClientMetrics.NO_METRICS;
+    private int circuitBreakerFailureThreshold = 0;
+    private long circuitBreakerInitialBackoffMillis;
+    private long circuitBreakerMaxBackoffMillis;
+    private int maxConnections = 50;
+    private int maxConnectionsPerRoute = 10;
+    private long connectTimeoutMillis = 5000;
+    private long socketTimeoutMillis = 10000;
+    private long connectionRequestTimeoutMillis = 5000;
+    private long keepAliveMillis = 30000;
+    private long maxIdleTimeMillis = 60000;
+
+    private HttpJsonHomeClientBuilder() {
+    }
+
+    public static HttpJsonHomeClientBuilder httpJsonHomeClientBuilder() {
+        return new HttpJsonHomeClientBuilder();
+    }
+
+    /**
+     * Configures the non-caching HttpClient used to get resources. If a HttpClient is configured, the transport
+     * properties of the builder (connections, timeouts, keep-alive and idle time) are ignored.
+     *
+     * @param httpClient non-caching HttpClient used to get resources.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withHttpClient(final HttpClient httpClient) {
+        this.httpClient = httpClient;
+        return this;
+    }
+
+    /**
+     * @param cacheStorage the HttpCacheStorage used to cache HTTP responses.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withCacheStorage(final HttpCacheStorage cacheStorage) {
+        this.cacheStorage = cacheStorage;
+        return this;
+    }
+
+    /**
+     * @param cacheConfig configuration of the HTTP cache.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withCacheConfig(final CacheConfig cacheConfig) {
+        this.cacheConfig = cacheConfig;
+        return this;
+    }
+
+    /**
+     * The Executor used to retrieve documents requested using the {@link AsyncJsonHomeClient} interface. The
+     * returned futures are completed by threads of this executor.
+     *
+     * Retrieving a document blocks a thread of the executor until the response is parsed, so the executor should
+     * provide at least as many threads as documents are retrieved concurrently. By default, a pool of at most
+     * maxConnections threads is used.
+     *
+     * The executor is not shut down by {@link HttpJsonHomeClient#shutdown()}.
+     *
+     * @param executor the Executor.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withExecutor(final Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * The cache of parsed JsonHome documents. The same cache may be shared by multiple clients.
+     *
+     * @param jsonHomeCache the JsonHomeCache.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withJsonHomeCache(final JsonHomeCache jsonHomeCache) {
+        this.jsonHomeCache = jsonHomeCache;
+        return this;
+    }
+
+    /**
+     * Creates a JsonHomeCache with the specified maximum number of documents.
+     *
+     * @param maxEntries the maximum number of cached documents. 0 disables caching of parsed documents.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withJsonHomeCacheSize(final int maxEntries) {
+        this.jsonHomeCache = jsonHomeCache(maxEntries);
+        return this;
+    }
+
+    /**
+     * Instruments the client using JsonHomeClientMetrics, for example {@link JsonHomeClientStatistics}.
+     *
+     * @param metrics the JsonHomeClientMetrics.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withMetrics(final JsonHomeClientMetrics metrics) {
+        this.metrics = metrics != null ? metrics : JsonHomeClientMetrics.NO_METRICS;
+        return this;
+    }
+
+    /**
+     * Enables the background refresh of json-home documents.
+     *
+     * Once a document was retrieved, get() returns the last retrieved document without waiting for the network,
+     * while the document is refreshed in the background after the max-age of the response. If the document
+     * could not be refreshed within the stale-while-revalidate period after the max-age, get() tries to retrieve
+     * the document itself and falls back to the stale document, if this fails.
+     *
+     * @param refreshInterval interval used to refresh documents if the response has no Cache-Control max-age
+     *                        directive, or if the max-age is 0.
+     * @param staleWhileRevalidate period after the max-age, documents are returned while they are refreshed,
+     *                             if the response has no Cache-Control stale-while-revalidate directive.
+     * @param unit the unit of the refreshInterval and staleWhileRevalidate.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withBackgroundRefresh(final long refreshInterval,
+                                                           final long staleWhileRevalidate,
+                                                           final TimeUnit unit) {
+        if (refreshInterval <= 0 || staleWhileRevalidate < 0) {
+            throw new IllegalArgumentException("refreshInterval must be positive, staleWhileRevalidate must not be negative");
+        }
+        this.refreshIntervalMillis = unit.toMillis(refreshInterval);
+        this.staleWhileRevalidateMillis = unit.toMillis(staleWhileRevalidate);
+        return this;
+    }
+
+    /**
+     * Adds a listener that is notified, if a retrieved json-home document has changed.
+     *
+     * @param listener the JsonHomeChangeListener.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withChangeListener(final JsonHomeChangeListener listener) {
+        this.changeListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Enables a circuit breaker per json-home document.
+     *
+     * After failureThreshold consecutive failures (I/O errors or 5xx status codes) retrieving a document, the
+     * circuit of the document is opened: no requests are sent to the server until the backoff has elapsed.
+     * Afterwards, a single request is sent to probe the server. If it fails, the circuit is opened again, doubling
+     * the backoff up to maxBackoff. While the circuit is open, the client returns the last retrieved document, or
+     * throws a {@link CircuitOpenException} if no document is available.
+     *
+     * @param failureThreshold number of consecutive failures opening the circuit.
+     * @param initialBackoff the time the circuit is open after the failure threshold was reached.
+     * @param maxBackoff the maximum time the circuit is open.
+     * @param unit the unit of initialBackoff and maxBackoff.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withCircuitBreaker(final int failureThreshold,
+                                                        final long initialBackoff,
+                                                        final long maxBackoff,
+                                                        final TimeUnit unit) {
+        if (failureThreshold <= 0 || initialBackoff <= 0 || maxBackoff < initialBackoff) {
+            throw new IllegalArgumentException("failureThreshold and initialBackoff must be positive, " +
+                    "maxBackoff must not be less than initialBackoff");
+        }
+        this.circuitBreakerFailureThreshold = failureThreshold;
+        this.circuitBreakerInitialBackoffMillis = unit.toMillis(initialBackoff);
+        this.circuitBreakerMaxBackoffMillis = unit.toMillis(maxBackoff);
+        return this;
+    }
+
+    /**
+     * Limits the number of pooled HTTP connections.
+     *
+     * @param maxConnections the maximum number of connections.
+     * @param maxConnectionsPerRoute the maximum number of connections per route (host).
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withMaxConnections(final int maxConnections, final int maxConnectionsPerRoute) {
+        if (maxConnections <= 0 || maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("Number of connections must be positive");
+        }
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * Configures the timeouts of HTTP requests. A timeout of 0 is interpreted as an infinite timeout.
+     *
+     * @param connectTimeout timeout until a connection is established.
+     * @param socketTimeout maximum period of inactivity between two data packets.
+     * @param connectionRequestTimeout timeout to get a connection from the pool.
+     * @param unit the unit of the timeouts.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withTimeouts(final long connectTimeout,
+                                                  final long socketTimeout,
+                                                  final long connectionRequestTimeout,
+                                                  final TimeUnit unit) {
+        this.connectTimeoutMillis = unit.toMillis(connectTimeout);
+        this.socketTimeoutMillis = unit.toMillis(socketTimeout);
+        this.connectionRequestTimeoutMillis = unit.toMillis(connectionRequestTimeout);
+        return this;
+    }
+
+    /**
+     * Configures how long connections are kept alive, if the server does not specify a keep-alive timeout.
+     *
+     * @param keepAlive the keep-alive duration.
+     * @param unit the unit of keepAlive.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withKeepAlive(final long keepAlive, final TimeUnit unit) {
+        this.keepAliveMillis = unit.toMillis(keepAlive);
+        return this;
+    }
+
+    /**
+     * Configures the time after which idle connections are closed by a background thread.
+     *
+     * @param maxIdleTime the maximum time a connection may be idle.
+     * @param unit the unit of maxIdleTime.
+     * @return this
+     */
+    public HttpJsonHomeClientBuilder withMaxIdleTime(final long maxIdleTime, final TimeUnit unit) {
+        this.maxIdleTimeMillis = unit.toMillis(maxIdleTime);
+        return this;
+    }
+
+    public HttpJsonHomeClient build() {
+        return new HttpJsonHomeClient(this);
+    }
+
+    HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    HttpCacheStorage getCacheStorage() {
+        return cacheStorage;
+    }
+
+    CacheConfig getCacheConfig() {
+        return cacheConfig;
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    int getMaxConnections() {
+        return maxConnections;
+    }
+
+    int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    long getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    long getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+
+    long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    long getMaxIdleTimeMillis() {
+        return maxIdleTimeMillis;
+    }
+
+    long getRefreshIntervalMillis() {
+        return refreshIntervalMillis;
+    }
+
+    long getStaleWhileRevalidateMillis() {
+        return staleWhileRevalidateMillis;
+    }
+
+    int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    long getCircuitBreakerInitialBackoffMillis() {
+        return circuitBreakerInitialBackoffMillis;
+    }
+
+    long getCircuitBreakerMaxBackoffMillis() {
+        return circuitBreakerMaxBackoffMillis;
+    }
+
+    JsonHomeClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    List<JsonHomeChangeListener> getChangeListeners() {
+        return changeListeners;
+    }
+
+    JsonHomeCache getJsonHomeCache() {
+        return jsonHomeCache != null ? jsonHomeCache : jsonHomeCache(100);
+    }
+}
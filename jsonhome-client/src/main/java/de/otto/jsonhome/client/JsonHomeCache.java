@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of parsed JsonHome documents, used by the {@link HttpJsonHomeClient} in addition to the HTTP cache.
+ *
+ * Documents are identified by their URI and the validators (ETag and Last-Modified) of the HTTP response they
+ * were parsed from. If a response has the same validators as a cached document, the cached instance is returned
+ * instead of parsing the response again. Responses without validators are not cached.
+ *
+ * The cache is limited to a maximum number of documents. If the limit is exceeded, the least recently used
+ * document is evicted.
+ *
+ * This implementation is thread-safe.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class JsonHomeCache {
+
+    private final int maxEntries;
+    private final Map<URI, CachedJsonHome> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private JsonHomeCache(final int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<URI, CachedJsonHome>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<URI, CachedJsonHome> eldest) {
+                if (size() > JsonHomeCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a JsonHomeCache holding up to maxEntries documents.
+     *
+     * @param maxEntries the maximum number of cached documents. 0 disables the cache.
+     * @return JsonHomeCache
+     */
+    public static JsonHomeCache jsonHomeCache(final int maxEntries) {
+        return new JsonHomeCache(maxEntries);
+    }
+
+    /**
+     * Returns the cached document of the URI, if it was parsed from a response with the same validators.
+     *
+     * Every call is either counted as a hit or as a miss.
+     *
+     * @param uri the URI of the document.
+     * @param eTag the ETag of the current response. May be null.
+     * @param lastModified the Last-Modified header of the current response. May be null.
+     * @return cached JsonHome or null.
+     */
+    public JsonHome get(final URI uri, final String eTag, final String lastModified) {
+        final CachedJsonHome cached = getEntry(uri);
+        if (cached != null && cached.hasValidators(eTag, lastModified)) {
+            hits.incrementAndGet();
+            return cached.getJsonHome();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds a parsed document to the cache, replacing a previously cached document of the same URI. If both
+     * validators are null, the document is not cached.
+     *
+     * @param uri the URI of the document.
+     * @param eTag the ETag of the response. May be null.
+     * @param lastModified the Last-Modified header of the response. May be null.
+     * @param jsonHome the parsed document.
+     */
+    public void put(final URI uri, final String eTag, final String lastModified, final JsonHome jsonHome) {
+        if (maxEntries > 0 && (eTag != null || lastModified != null)) {
+            synchronized (entries) {
+                entries.put(uri, new CachedJsonHome(uri, eTag, lastModified, jsonHome));
+            }
+        }
+    }
+
+    /**
+     * Removes the document of the URI from the cache.
+     *
+     * @param uri the URI of the document.
+     */
+    public void remove(final URI uri) {
+        synchronized (entries) {
+            entries.remove(uri);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return number of lookups returning a cached document.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups that did not find a cached document with matching validators.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of documents evicted because the maximum number of entries was exceeded.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    CachedJsonHome getEntry(final URI uri) {
+        synchronized (entries) {
+            return entries.get(uri);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+
+import java.net.URI;
+
+/**
+ * Listener that is notified by the {@link HttpJsonHomeClient} if a previously retrieved json-home document has
+ * changed.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public interface JsonHomeChangeListener {
+
+    /**
+     * Called after a json-home document was retrieved that is different from the previously retrieved document of
+     * the same URI.
+     *
+     * The listener is called by the thread that retrieved the document, which may be a thread of the executor
+     * of the client. Implementations should return quickly.
+     *
+     * @param uri the URI of the json-home document.
+     * @param previous the previously retrieved document.
+     * @param current the changed document.
+     */
+    public void onChange(final URI uri, final JsonHome previous, final JsonHome current);
+
+}
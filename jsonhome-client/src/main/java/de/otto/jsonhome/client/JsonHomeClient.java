@@ -19,6 +19,12 @@ package de.otto.jsonhome.client;
 import de.otto.jsonhome.model.JsonHome;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * Client used to retrieve JsonHome documents from different sources.
@@ -57,6 +63,52 @@ public interface JsonHomeClient {
      */
     public JsonHome get(final URI uri);
 
+    /**
+     * Gets the JsonHome documents associated to the specified URIs, using at most 10 concurrent requests and
+     * without a deadline.
+     *
+     * @param uris the URIs of the JsonHome documents.
+     * @return JsonHomeResults containing the retrieved documents and the failures.
+     */
+    public default JsonHomeResults getAll(final Collection<URI> uris) {
+        return getAll(uris, 10, 0, MILLISECONDS);
+    }
+
+    /**
+     * Gets the JsonHome documents associated to the specified URIs.
+     *
+     * In contrast to {@link #get(java.net.URI)}, no exception is thrown if some of the documents can not be
+     * retrieved: the failures are returned together with the successfully retrieved documents.
+     *
+     * The default implementation gets the documents one after another, using {@link #get(java.net.URI)}, and
+     * ignores the timeout. Implementations retrieving documents from remote servers should override it.
+     *
+     * @param uris the URIs of the JsonHome documents.
+     * @param maxConcurrency the maximum number of documents retrieved concurrently. Must be positive.
+     * @param timeout the deadline for retrieving all documents. Documents not retrieved before the deadline are
+     *                returned as failures. Values &lt;= 0 disable the deadline.
+     * @param unit the unit of the timeout.
+     * @return JsonHomeResults containing the retrieved documents and the failures.
+     */
+    public default JsonHomeResults getAll(final Collection<URI> uris,
+                                          final int maxConcurrency,
+                                          final long timeout,
+                                          final TimeUnit unit) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        final Map<URI, JsonHome> jsonHomes = new LinkedHashMap<>();
+        final Map<URI, JsonHomeClientException> failures = new LinkedHashMap<>();
+        for (final URI uri : uris) {
+            try {
+                jsonHomes.put(uri, get(uri));
+            } catch (final JsonHomeClientException e) {
+                failures.put(uri, e);
+            }
+        }
+        return new JsonHomeResults(jsonHomes, failures);
+    }
+
     /**
      * Shutdown the client and dispose all resources.
      *
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import java.net.URI;
+
+/**
+ * Instrumentation SPI of the {@link HttpJsonHomeClient}, used to collect metrics about retrieved json-home documents.
+ *
+ * The methods are called by the thread retrieving a document, which may be a thread of the executor of the client.
+ * As they are called for every request, implementations must return quickly and should not block. Exceptions
+ * thrown by implementations are logged and ignored.
+ *
+ * All methods have empty default implementations, so implementations only need to override the methods they are
+ * interested in. {@link JsonHomeClientStatistics} is a default implementation, collecting counters and latency
+ * histograms per URI that can be exposed via JMX.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public interface JsonHomeClientMetrics {
+
+    /**
+     * Metrics that are ignoring all events.
+     */
+    public static final JsonHomeClientMetrics NO_METRICS = new JsonHomeClientMetrics() {};
+
+    /**
+     * Called after the response headers of a HTTP request were received.
+     *
+     * @param uri the URI of the json-home document.
+     * @param statusCode the HTTP status code of the response.
+     * @param durationNanos the time from sending the request until the response was received, in nanoseconds.
+     */
+    public default void onFetch(final URI uri, final int statusCode, final long durationNanos) {}
+
+    /**
+     * Called after a document was revalidated using a conditional request.
+     *
+     * @param uri the URI of the json-home document.
+     * @param modified false, if the server responded with 304 NOT MODIFIED.
+     * @param durationNanos the time from sending the request until the response was received, in nanoseconds.
+     */
+    public default void onRevalidation(final URI uri, final boolean modified, final long durationNanos) {}
+
+    /**
+     * Called after the validators of a response were looked up in the {@link JsonHomeCache} of parsed documents.
+     *
+     * @param uri the URI of the json-home document.
+     * @param hit true, if the parsed document was found, so the response did not need to be parsed.
+     */
+    public default void onCacheLookup(final URI uri, final boolean hit) {}
+
+    /**
+     * Called after a document was read and parsed.
+     *
+     * @param uri the URI of the json-home document.
+     * @param bytes the number of bytes of the (decompressed) document.
+     * @param durationNanos the time needed to read and parse the document, in nanoseconds.
+     */
+    public default void onParse(final URI uri, final long bytes, final long durationNanos) {}
+
+    /**
+     * Called if a document could not be retrieved.
+     *
+     * @param uri the URI of the json-home document.
+     * @param exception the exception thrown by the client.
+     */
+    public default void onFailure(final URI uri, final JsonHomeClientException exception) {}
+
+}
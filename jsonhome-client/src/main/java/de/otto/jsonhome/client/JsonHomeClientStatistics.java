@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default implementation of {@link JsonHomeClientMetrics}, collecting {@link DocumentStatistics} per URI.
+ *
+ * If a name is specified, the statistics of every document are registered as MBean in the platform MBeanServer,
+ * using ObjectNames like <code>de.otto.jsonhome:type=JsonHomeClient,name="&lt;name&gt;",uri="&lt;uri&gt;"</code>.
+ *
+ * Usage:
+ * <pre>
+ *     final JsonHomeClientStatistics statistics = jsonHomeClientStatistics("registry");
+ *     final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+ *          .withMetrics(statistics)
+ *          .build();
+ * </pre>
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class JsonHomeClientStatistics implements JsonHomeClientMetrics, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JsonHomeClientStatistics.class);
+
+    private final String name;
+    private final ConcurrentMap<URI, DocumentStatistics> statistics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<URI, ObjectName> registeredMBeans = new ConcurrentHashMap<>();
+
+    private JsonHomeClientStatistics(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates JsonHomeClientStatistics that are not exposed via JMX.
+     *
+     * @return JsonHomeClientStatistics
+     */
+    public static JsonHomeClientStatistics jsonHomeClientStatistics() {
+        return new JsonHomeClientStatistics(null);
+    }
+
+    /**
+     * Creates JsonHomeClientStatistics that are exposed via JMX.
+     *
+     * @param name the name of the client, used in the ObjectNames of the MBeans.
+     * @return JsonHomeClientStatistics
+     */
+    public static JsonHomeClientStatistics jsonHomeClientStatistics(final String name) {
+        return new JsonHomeClientStatistics(name);
+    }
+
+    /**
+     * @param uri the URI of a json-home document.
+     * @return the statistics of the document, or null if the document was never requested.
+     */
+    public DocumentStatistics getStatistics(final URI uri) {
+        return statistics.get(uri);
+    }
+
+    /**
+     * @return unmodifiable map containing the statistics of all requested documents.
+     */
+    public Map<URI, DocumentStatistics> getAll() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    @Override
+    public void onFetch(final URI uri, final int statusCode, final long durationNanos) {
+        statisticsOf(uri).fetched(statusCode, durationNanos);
+    }
+
+    @Override
+    public void onRevalidation(final URI uri, final boolean modified, final long durationNanos) {
+        statisticsOf(uri).revalidated();
+    }
+
+    @Override
+    public void onCacheLookup(final URI uri, final boolean hit) {
+        statisticsOf(uri).lookedUp(hit);
+    }
+
+    @Override
+    public void onParse(final URI uri, final long bytes, final long durationNanos) {
+        statisticsOf(uri).parsed(bytes, durationNanos);
+    }
+
+    @Override
+    public void onFailure(final URI uri, final JsonHomeClientException exception) {
+        statisticsOf(uri).failed();
+    }
+
+    /**
+     * Unregisters the MBeans of the statistics.
+     */
+    @Override
+    public void close() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (final URI uri : registeredMBeans.keySet()) {
+            final ObjectName objectName = registeredMBeans.remove(uri);
+            try {
+                server.unregisterMBean(objectName);
+            } catch (final JMException e) {
+                LOG.warn("Unable to unregister MBean {}: {}", objectName, e.getMessage());
+            }
+        }
+    }
+
+    private DocumentStatistics statisticsOf(final URI uri) {
+        final DocumentStatistics existing = statistics.get(uri);
+        if (existing != null) {
+            return existing;
+        }
+        final DocumentStatistics created = new DocumentStatistics(uri);
+        final DocumentStatistics previous = statistics.putIfAbsent(uri, created);
+        if (previous != null) {
+            return previous;
+        }
+        if (name != null) {
+            register(uri, created);
+        }
+        return created;
+    }
+
+    private void register(final URI uri, final DocumentStatistics documentStatistics) {
+        try {
+            final ObjectName objectName = new ObjectName("de.otto.jsonhome:type=JsonHomeClient,name="
+                    + ObjectName.quote(name) + ",uri=" + ObjectName.quote(uri.toString()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(documentStatistics, objectName);
+            registeredMBeans.put(uri, objectName);
+        } catch (final JMException e) {
+            LOG.warn("Unable to register statistics of json-home document {} as MBean: {}", uri, e.getMessage());
+        }
+    }
+}
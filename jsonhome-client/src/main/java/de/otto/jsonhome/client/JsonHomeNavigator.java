@@ -0,0 +1,265 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.model.ResourceLink;
+import de.otto.jsonhome.model.TemplatedLinkExpander;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Resolves link-relation types of a json-home document to the URIs of the linked resources.
+ *
+ * Instead of looking up the ResourceLink in the JsonHome document, checking whether it is a direct or templated link
+ * and expanding the template on every call, the navigator resolves every link-relation type only once and keeps
+ * {@link TemplatedLinkExpander expanders} of the precompiled templates for every combination of var-types used
+ * by the callers:
+ * <pre>
+ * {@code
+ *     JsonHomeNavigator navigator = jsonHomeNavigator(client, URI.create("http://example.org/json-home"));
+ *     URI productsUri = navigator.resolve(productsRelType);
+ *     URI productUri = navigator.resolve(productRelType, productIdVarType, "42");
+ * }
+ * </pre>
+ * The document is retrieved from the JsonHomeClient on every call, so the client is still responsible for caching
+ * and refreshing the document. If the client returns a different version of the document, the resolved links are
+ * discarded and resolved again using the new document. Documents are compared by identity first, and by equality
+ * otherwise: clients like the HttpJsonHomeClient are returning the same instance as long as the document is not
+ * modified. Using an HttpJsonHomeClient with background refresh, resolving a link does not wait for the network.
+ *
+ * This implementation is thread-safe.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class JsonHomeNavigator {
+
+    private final JsonHomeClient client;
+    private final URI jsonHomeUri;
+    private volatile ResolvedLinks resolvedLinks;
+
+    private JsonHomeNavigator(final JsonHomeClient client, final URI jsonHomeUri) {
+        if (client == null || jsonHomeUri == null) {
+            throw new NullPointerException("client and jsonHomeUri must not be null");
+        }
+        this.client = client;
+        this.jsonHomeUri = jsonHomeUri;
+    }
+
+    /**
+     * Creates a navigator for the json-home document at the specified URI.
+     *
+     * @param client the client used to retrieve the json-home document.
+     * @param jsonHomeUri the URI of the json-home document.
+     * @return JsonHomeNavigator
+     */
+    public static JsonHomeNavigator jsonHomeNavigator(final JsonHomeClient client, final URI jsonHomeUri) {
+        return new JsonHomeNavigator(client, jsonHomeUri);
+    }
+
+    public URI getJsonHomeUri() {
+        return jsonHomeUri;
+    }
+
+    /**
+     * @return the current version of the json-home document, as returned by the client.
+     * @throws JsonHomeClientException if the client fails to get the document.
+     */
+    public JsonHome getJsonHome() {
+        return resolvedLinks().jsonHome;
+    }
+
+    /**
+     * Resolves a link-relation type without href-vars. The href of a direct link is returned as-is, the URI
+     * template of a templated link is expanded without values.
+     *
+     * @param relationType the link-relation type.
+     * @return URI of the linked resource.
+     * @throws IllegalArgumentException if the document has no link for the link-relation type.
+     * @throws JsonHomeClientException if the client fails to get the document.
+     */
+    public URI resolve(final URI relationType) {
+        return resolvedLinks().linkFor(relationType).resolve();
+    }
+
+    /**
+     * Resolves a templated link, using a single href-var.
+     *
+     * @param relationType the link-relation type.
+     * @param varType the var-type of the href-var.
+     * @param value the value of the href-var.
+     * @return URI of the linked resource.
+     * @throws IllegalArgumentException if the document has no link for the link-relation type, or if the link does
+     * not define a HrefVar for the var-type.
+     * @throws JsonHomeClientException if the client fails to get the document.
+     */
+    public URI resolve(final URI relationType, final URI varType, final Object value) {
+        return resolvedLinks().linkFor(relationType).expanderFor(varType).expandToUri(value);
+    }
+
+    /**
+     * Resolves a templated link, using two href-vars.
+     *
+     * @param relationType the link-relation type.
+     * @param varType0 the var-type of the first href-var.
+     * @param value0 the value of the first href-var.
+     * @param varType1 the var-type of the second href-var.
+     * @param value1 the value of the second href-var.
+     * @return URI of the linked resource.
+     * @throws IllegalArgumentException if the document has no link for the link-relation type, or if the link does
+     * not define a HrefVar for one of the var-types.
+     * @throws JsonHomeClientException if the client fails to get the document.
+     */
+    public URI resolve(final URI relationType,
+                       final URI varType0, final Object value0,
+                       final URI varType1, final Object value1) {
+        return resolvedLinks().linkFor(relationType)
+                .expanderFor(asList(varType0, varType1))
+                .expandToUri(value0, value1);
+    }
+
+    /**
+     * Resolves a templated link, using the values of the href-vars.
+     *
+     * @param relationType the link-relation type.
+     * @param values a map of var-type URIs to the values of the href-vars.
+     * @return URI of the linked resource.
+     * @throws IllegalArgumentException if the document has no link for the link-relation type, or if the link does
+     * not define a HrefVar for one of the var-types.
+     * @throws JsonHomeClientException if the client fails to get the document.
+     */
+    public URI resolve(final URI relationType, final Map<URI, ?> values) {
+        final List<URI> varTypes = new ArrayList<>(values.size());
+        final Object[] positionalValues = new Object[values.size()];
+        for (final Map.Entry<URI, ?> entry : values.entrySet()) {
+            positionalValues[varTypes.size()] = entry.getValue();
+            varTypes.add(entry.getKey());
+        }
+        return resolvedLinks().linkFor(relationType).expanderFor(varTypes).expandToUri(positionalValues);
+    }
+
+    /**
+     * Returns the resolved links of the current document, resolving them again if the document has changed.
+     */
+    private ResolvedLinks resolvedLinks() {
+        final JsonHome jsonHome = client.get(jsonHomeUri);
+        final ResolvedLinks current = resolvedLinks;
+        if (current != null && current.jsonHome == jsonHome) {
+            return current;
+        }
+        final ResolvedLinks updated = current != null && current.jsonHome.equals(jsonHome)
+                ? new ResolvedLinks(jsonHome, current.links)
+                : new ResolvedLinks(jsonHome, new ConcurrentHashMap<URI, ResolvedLink>());
+        resolvedLinks = updated;
+        return updated;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonHomeNavigator{" +
+                "jsonHomeUri=" + jsonHomeUri +
+                '}';
+    }
+
+    /**
+     * The links resolved for one version of the json-home document.
+     */
+    private static final class ResolvedLinks {
+        private final JsonHome jsonHome;
+        private final ConcurrentMap<URI, ResolvedLink> links;
+
+        private ResolvedLinks(final JsonHome jsonHome, final ConcurrentMap<URI, ResolvedLink> links) {
+            this.jsonHome = jsonHome;
+            this.links = links;
+        }
+
+        private ResolvedLink linkFor(final URI relationType) {
+            ResolvedLink link = links.get(relationType);
+            if (link == null) {
+                final ResourceLink resourceLink = jsonHome.getResourceFor(relationType);
+                if (resourceLink == null) {
+                    throw new IllegalArgumentException("json-home document has no link for " + relationType);
+                }
+                link = new ResolvedLink(resourceLink);
+                final ResolvedLink existing = links.putIfAbsent(relationType, link);
+                if (existing != null) {
+                    link = existing;
+                }
+            }
+            return link;
+        }
+    }
+
+    /**
+     * A resolved ResourceLink: the href of a direct link, or the expanders of a templated link.
+     */
+    private static final class ResolvedLink {
+        private final ResourceLink resourceLink;
+        private final URI href;
+        private final ConcurrentMap<Object, TemplatedLinkExpander> expanders;
+
+        private ResolvedLink(final ResourceLink resourceLink) {
+            this.resourceLink = resourceLink;
+            if (resourceLink.isDirectLink()) {
+                this.href = resourceLink.asDirectLink().getHref();
+                this.expanders = null;
+            } else {
+                this.href = null;
+                this.expanders = new ConcurrentHashMap<>();
+            }
+        }
+
+        private URI resolve() {
+            return href != null ? href : expanderFor(Collections.<URI>emptyList()).expandToUri();
+        }
+
+        /**
+         * Returns the expander for a single var-type. The var-type itself is used as key, so the list of var-types
+         * is only allocated if the expander is not yet cached.
+         */
+        private TemplatedLinkExpander expanderFor(final URI varType) {
+            final TemplatedLinkExpander expander = expanders != null ? expanders.get(varType) : null;
+            return expander != null ? expander : expanderFor(varType, singletonList(varType));
+        }
+
+        private TemplatedLinkExpander expanderFor(final List<URI> varTypes) {
+            return expanderFor(varTypes, varTypes);
+        }
+
+        private TemplatedLinkExpander expanderFor(final Object key, final List<URI> varTypes) {
+            if (expanders == null) {
+                throw new IllegalArgumentException("DirectLink does not define a HrefVar for " + varTypes);
+            }
+            TemplatedLinkExpander expander = expanders.get(key);
+            if (expander == null) {
+                expander = resourceLink.asTemplatedLink().expanderFor(varTypes);
+                expanders.putIfAbsent(key, expander);
+            }
+            return expander;
+        }
+    }
+}
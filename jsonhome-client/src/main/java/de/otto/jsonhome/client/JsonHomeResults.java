@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The results of {@link JsonHomeClient#getAll(java.util.Collection, int, long, java.util.concurrent.TimeUnit)}:
+ * the retrieved json-home documents and the failures of documents that could not be retrieved.
+ *
+ * Every requested URI is either contained in the retrieved documents or in the failures. Both maps are in the
+ * order of the requested URIs.
+ *
+ * This implementation is immutable.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class JsonHomeResults {
+
+    private final Map<URI, JsonHome> jsonHomes;
+    private final Map<URI, JsonHomeClientException> failures;
+
+    JsonHomeResults(final Map<URI, JsonHome> jsonHomes, final Map<URI, JsonHomeClientException> failures) {
+        this.jsonHomes = Collections.unmodifiableMap(new LinkedHashMap<>(jsonHomes));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    /**
+     * @return the successfully retrieved documents.
+     */
+    public Map<URI, JsonHome> getJsonHomes() {
+        return jsonHomes;
+    }
+
+    /**
+     * Returns the exceptions of the documents that could not be retrieved, for example {@link NotFoundException},
+     * {@link HttpStatusException} or {@link CircuitOpenException}. Documents that were not retrieved before the
+     * deadline elapsed are failed with a JsonHomeClientException caused by a
+     * {@link java.util.concurrent.TimeoutException}.
+     *
+     * @return failures
+     */
+    public Map<URI, JsonHomeClientException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @param uri the URI of a requested document.
+     * @return the retrieved document, or null if the document could not be retrieved.
+     */
+    public JsonHome get(final URI uri) {
+        return jsonHomes.get(uri);
+    }
+
+    /**
+     * @return true, if at least one document could not be retrieved.
+     */
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "JsonHomeResults{" +
+                "jsonHomes=" + jsonHomes.keySet() +
+                ", failures=" + failures.keySet() +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+
+import java.net.URI;
+
+/**
+ * The result of an update of a json-home document, returned by {@link HttpJsonHomeClient#update(java.net.URI)}.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class JsonHomeUpdate {
+
+    private final URI uri;
+    private final JsonHome jsonHome;
+    private final boolean changed;
+
+    JsonHomeUpdate(final URI uri, final JsonHome jsonHome, final boolean changed) {
+        this.uri = uri;
+        this.jsonHome = jsonHome;
+        this.changed = changed;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * @return the current JsonHome document.
+     */
+    public JsonHome getJsonHome() {
+        return jsonHome;
+    }
+
+    /**
+     * @return true, if the document is different from the previously retrieved document, or if the document was
+     * not retrieved before.
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonHomeUpdate{" +
+                "uri=" + uri +
+                ", changed=" + changed +
+                '}';
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.client.cache.HttpCacheEntrySerializer;
+import org.apache.http.client.cache.HttpCacheStorage;
+import org.apache.http.client.cache.HttpCacheUpdateCallback;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.DefaultHttpCacheEntrySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A persistent HttpCacheStorage, storing cache entries in a memory-mapped file, so cached json-home documents
+ * survive restarts of the application.
+ *
+ * The file is an append-only log of records. Every record contains a key and a serialized HttpCacheEntry, or marks
+ * the removal of a key. A record is committed by writing its header last, and it is protected by a checksum, so a
+ * record that was not completely written, for example because the process was killed, is ignored when the file is
+ * opened again. The index of the entries is kept in memory and rebuilt from the file when the storage is opened.
+ *
+ * The size of the file is limited to maxBytes, the number of entries is limited by
+ * {@link CacheConfig#getMaxCacheEntries()}. If the file is full, the current entries are compacted into a new file
+ * that atomically replaces the old one. If necessary, the least recently used entries are evicted.
+ *
+ * The file may only be used by a single storage instance at a time; opening a file that is used by another
+ * process or by another instance fails. This implementation is thread-safe.
+ *
+ * Usage:
+ * <pre>
+ *     final CacheConfig cacheConfig = CacheConfig.custom().setMaxObjectSize(500000).build();
+ *     final HttpCacheStorage storage = new MappedFileHttpCacheStorage(new File("/var/cache/json-home.cache"), 10000000, cacheConfig);
+ *     final JsonHomeClient client = new HttpJsonHomeClient(HttpClients.createDefault(), storage, cacheConfig);
+ * </pre>
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class MappedFileHttpCacheStorage implements HttpCacheStorage, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedFileHttpCacheStorage.class);
+
+    /** Marks committed records. */
+    private static final int MAGIC = 0x4a484331;
+    /** magic, length of the key, length of the value (-1 for removed entries), checksum */
+    private static final int HEADER_SIZE = 16;
+    private static final int REMOVED = -1;
+
+    private final Path file;
+    private final int capacity;
+    private final int maxEntries;
+    private final HttpCacheEntrySerializer serializer = new DefaultHttpCacheEntrySerializer();
+    /** The offsets of the current entries, in access order. */
+    private final LinkedHashMap<String, Slot> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private long evictions;
+    private boolean closed;
+
+    /**
+     * Opens or creates a MappedFileHttpCacheStorage.
+     *
+     * @param file the file used to store the cache entries.
+     * @param maxBytes the maximum size of the file. Must not exceed Integer.MAX_VALUE.
+     * @param cacheConfig the CacheConfig, used to limit the number of entries.
+     * @throws IOException if the file can not be opened, or if it is already used by another process.
+     */
+    public MappedFileHttpCacheStorage(final File file,
+                                      final long maxBytes,
+                                      final CacheConfig cacheConfig) throws IOException {
+        if (maxBytes <= HEADER_SIZE || maxBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxBytes must be between " + HEADER_SIZE + " and " + Integer.MAX_VALUE);
+        }
+        this.file = file.toPath();
+        this.capacity = (int) maxBytes;
+        this.maxEntries = cacheConfig.getMaxCacheEntries();
+        this.lockChannel = FileChannel.open(this.file.resolveSibling(file.getName() + ".lock"), CREATE, WRITE);
+        this.lock = tryLock(lockChannel);
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Cache file " + file + " is used by another process");
+        }
+        this.buffer = map(this.file);
+        this.writePosition = readIndex();
+        LOG.info("Opened cache file {} containing {} entries", file, index.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void putEntry(final String key, final HttpCacheEntry entry) throws IOException {
+        ensureOpen();
+        append(key, serialize(entry));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized HttpCacheEntry getEntry(final String key) throws IOException {
+        ensureOpen();
+        final Slot slot = index.get(key);
+        if (slot == null) {
+            return null;
+        }
+        final byte[] value = new byte[slot.valueLength];
+        final ByteBuffer source = buffer.duplicate();
+        source.position(slot.offset + HEADER_SIZE + slot.keyLength);
+        source.get(value);
+        return serializer.readFrom(new ByteArrayInputStream(value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void removeEntry(final String key) throws IOException {
+        ensureOpen();
+        if (index.containsKey(key)) {
+            append(key, null);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The update is atomic with respect to all other operations of this storage.
+     */
+    @Override
+    public synchronized void updateEntry(final String key, final HttpCacheUpdateCallback callback) throws IOException {
+        ensureOpen();
+        final HttpCacheEntry updated = callback.update(getEntry(key));
+        if (updated != null) {
+            putEntry(key, updated);
+        } else {
+            removeEntry(key);
+        }
+    }
+
+    /**
+     * @return the number of entries.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return the number of bytes used by the records in the file, including records that were overwritten or
+     * removed but not yet compacted.
+     */
+    public synchronized int getBytesUsed() {
+        return writePosition;
+    }
+
+    /**
+     * @return the number of entries evicted because the file was full, or the maximum number of entries was
+     * exceeded.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Writes all changes to the storage device and releases the file.
+     *
+     * @throws IOException if the file can not be released.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            buffer.force();
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * Appends a record to the file.
+     *
+     * @param key the key of the entry.
+     * @param value the serialized entry, or null if the entry is removed.
+     */
+    private void append(final String key, final byte[] value) throws IOException {
+        final byte[] keyBytes = key.getBytes(UTF_8);
+        final int recordSize = HEADER_SIZE + keyBytes.length + (value != null ? value.length : 0);
+        if (recordSize > capacity / 2) {
+            LOG.warn("Cache entry {} is too large to be stored in cache file {}", key, file);
+            if (value != null) {
+                removeEntry(key);
+            }
+            return;
+        }
+        if (writePosition + recordSize > capacity) {
+            if (value != null) {
+                // the old version of the entry does not need to be compacted:
+                index.remove(key);
+            }
+            compact(capacity / 2 - recordSize);
+            if (value == null && !index.containsKey(key)) {
+                // the entry was evicted during compaction
+                return;
+            }
+        }
+        final int offset = writePosition;
+        write(buffer, offset, keyBytes, value);
+        writePosition += recordSize;
+        if (value != null) {
+            index.put(key, new Slot(offset, keyBytes.length, value.length));
+            if (maxEntries > 0 && index.size() > maxEntries) {
+                final String eldest = index.keySet().iterator().next();
+                evictions++;
+                append(eldest, null);
+            }
+        } else {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Writes a record and commits it by writing the magic number last.
+     */
+    private void write(final ByteBuffer target, final int offset, final byte[] key, final byte[] value) {
+        final CRC32 crc = new CRC32();
+        crc.update(key);
+        if (value != null) {
+            crc.update(value);
+        }
+        final ByteBuffer record = target.duplicate();
+        record.position(offset + 4);
+        record.putInt(key.length);
+        record.putInt(value != null ? value.length : REMOVED);
+        record.putInt((int) crc.getValue());
+        record.put(key);
+        if (value != null) {
+            record.put(value);
+        }
+        // make sure, the record is not followed by an outdated record:
+        if (record.remaining() >= 4) {
+            record.putInt(record.position(), 0);
+        }
+        target.putInt(offset, MAGIC);
+    }
+
+    /**
+     * Copies the current entries into a new file that replaces the old file. If the entries require more than
+     * maxBytes, the least recently used entries are evicted.
+     */
+    private void compact(final int maxBytes) throws IOException {
+        int bytes = 0;
+        for (final Slot slot : index.values()) {
+            bytes += slot.size();
+        }
+        final Iterator<Slot> eldest = index.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().size();
+            eldest.remove();
+            evictions++;
+        }
+        final Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(compacted);
+        final MappedByteBuffer target = map(compacted);
+        final List<Map.Entry<String, Slot>> entries = new ArrayList<>(index.entrySet());
+        int position = 0;
+        for (final Map.Entry<String, Slot> entry : entries) {
+            final Slot slot = entry.getValue();
+            final byte[] value = new byte[slot.valueLength];
+            final ByteBuffer source = buffer.duplicate();
+            source.position(slot.offset + HEADER_SIZE + slot.keyLength);
+            source.get(value);
+            final byte[] key = entry.getKey().getBytes(UTF_8);
+            write(target, position, key, value);
+            entry.setValue(new Slot(position, key.length, value.length));
+            position += slot.size();
+        }
+        target.force();
+        Files.move(compacted, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        buffer = target;
+        writePosition = position;
+        LOG.info("Compacted cache file {}: {} entries, {} bytes", file, index.size(), position);
+    }
+
+    /**
+     * Rebuilds the index from the committed records of the file.
+     *
+     * @return the position after the last committed record.
+     */
+    private int readIndex() {
+        final ByteBuffer source = buffer.duplicate();
+        int position = 0;
+        while (position + HEADER_SIZE <= capacity && source.getInt(position) == MAGIC) {
+            final int keyLength = source.getInt(position + 4);
+            final int valueLength = source.getInt(position + 8);
+            final int checksum = source.getInt(position + 12);
+            final long end = (long) position + HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+            if (keyLength < 0 || valueLength < REMOVED || end > capacity) {
+                break;
+            }
+            final byte[] key = new byte[keyLength];
+            final byte[] value = new byte[Math.max(valueLength, 0)];
+            source.position(position + HEADER_SIZE);
+            source.get(key);
+            source.get(value);
+            final CRC32 crc = new CRC32();
+            crc.update(key);
+            crc.update(value);
+            if ((int) crc.getValue() != checksum) {
+                LOG.warn("Ignoring corrupt record at position {} of cache file {}", position, file);
+                break;
+            }
+            final String keyString = new String(key, UTF_8);
+            if (valueLength == REMOVED) {
+                index.remove(keyString);
+            } else {
+                index.put(keyString, new Slot(position, keyLength, valueLength));
+            }
+            position = (int) end;
+        }
+        return position;
+    }
+
+    private static FileLock tryLock(final FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+            // locked by another instance in this JVM
+            return null;
+        }
+    }
+
+    private MappedByteBuffer map(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+            return channel.map(READ_WRITE, 0, capacity);
+        }
+    }
+
+    private byte[] serialize(final HttpCacheEntry entry) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        serializer.writeTo(entry, stream);
+        return stream.toByteArray();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Cache file " + file + " is closed");
+        }
+    }
+
+    /**
+     * The position of an entry in the file.
+     */
+    private static final class Slot {
+        private final int offset;
+        private final int keyLength;
+        private final int valueLength;
+
+        private Slot(final int offset, final int keyLength, final int valueLength) {
+            this.offset = offset;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+
+        private int size() {
+            return HEADER_SIZE + keyLength + valueLength;
+        }
+    }
+}
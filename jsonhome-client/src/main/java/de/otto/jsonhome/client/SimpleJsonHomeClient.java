@@ -19,8 +19,10 @@ package de.otto.jsonhome.client;
 import de.otto.jsonhome.model.JsonHome;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of the JavaHomeClient interface, serving registered JavaHome documents stored in memory.
@@ -30,7 +32,7 @@ import java.util.concurrent.ConcurrentMap;
  * @author Guido Steinacker
  * @since 26.10.12
  */
-public class SimpleJsonHomeClient implements JsonHomeClient {
+public class SimpleJsonHomeClient implements JsonHomeClient, AsyncJsonHomeClient {
 
     private final ConcurrentMap<URI, JsonHome> registry = new ConcurrentHashMap<URI, JsonHome>();
 
@@ -71,6 +73,32 @@ public class SimpleJsonHomeClient implements JsonHomeClient {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * This implementation returns a completed future, so the timeout is ignored.
+     */
+    @Override
+    public CompletableFuture<JsonHome> getAsync(final URI uri, final long timeout, final TimeUnit unit) {
+        final CompletableFuture<JsonHome> future = new CompletableFuture<>();
+        try {
+            future.complete(get(uri));
+        } catch (final RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * This method has the same behaviour as {@link #getAsync(java.net.URI, long, java.util.concurrent.TimeUnit)}.
+     */
+    @Override
+    public CompletableFuture<JsonHome> updateAndGetAsync(final URI uri, final long timeout, final TimeUnit unit) {
+        return getAsync(uri, timeout, unit);
+    }
+
     @Override
     public void shutdown() {
         registry.clear();
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.otto.jsonhome.client.CircuitBreaker.State.*;
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void shouldOpenAfterConsecutiveFailures() {
+        // given
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(2, 100, 1000, now::get);
+        // when
+        failedRequest(circuitBreaker);
+        succeededRequest(circuitBreaker);
+        failedRequest(circuitBreaker);
+        // then
+        assertEquals(circuitBreaker.getState(), CLOSED);
+        // when
+        failedRequest(circuitBreaker);
+        // then
+        assertEquals(circuitBreaker.getState(), OPEN);
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void shouldPermitSingleProbeAfterBackoff() {
+        // given
+        final CircuitBreaker circuitBreaker = openCircuitBreaker();
+        now.addAndGet(100);
+        // when
+        final boolean probe = circuitBreaker.tryAcquire();
+        // then
+        assertTrue(probe);
+        assertEquals(circuitBreaker.getState(), HALF_OPEN);
+        assertFalse(circuitBreaker.tryAcquire());
+        // when
+        circuitBreaker.onSuccess();
+        // then
+        assertEquals(circuitBreaker.getState(), CLOSED);
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void shouldDoubleBackoffIfProbeFails() {
+        // given
+        final CircuitBreaker circuitBreaker = openCircuitBreaker();
+        // when
+        for (final long backoff : new long[] {100, 200, 400, 800, 1000, 1000}) {
+            now.addAndGet(backoff - 1);
+            assertFalse(circuitBreaker.tryAcquire());
+            now.incrementAndGet();
+            failedRequest(circuitBreaker);
+        }
+        // then
+        assertEquals(circuitBreaker.getState(), OPEN);
+    }
+
+    @Test
+    public void shouldPermitNewProbeIfProbeIsAborted() {
+        // given
+        final CircuitBreaker circuitBreaker = openCircuitBreaker();
+        now.addAndGet(100);
+        circuitBreaker.tryAcquire();
+        // when
+        circuitBreaker.onAbort();
+        // then
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    private CircuitBreaker openCircuitBreaker() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(1, 100, 1000, now::get);
+        failedRequest(circuitBreaker);
+        assertEquals(circuitBreaker.getState(), OPEN);
+        return circuitBreaker;
+    }
+
+    private void failedRequest(final CircuitBreaker circuitBreaker) {
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onFailure();
+    }
+
+    private void succeededRequest(final CircuitBreaker circuitBreaker) {
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess();
+    }
+}
@@ -17,11 +17,23 @@
 package de.otto.jsonhome.client;
 
 import de.otto.jsonhome.model.JsonHome;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.*;
 
+import static de.otto.jsonhome.client.HttpJsonHomeClientBuilder.httpJsonHomeClientBuilder;
+import static de.otto.jsonhome.client.JsonHomeTestServer.jsonHomeTestServer;
 import static java.net.URI.create;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.*;
 
 /**
@@ -30,43 +42,56 @@ import static org.testng.Assert.*;
  */
 public class HttpJsonHomeClientTest {
 
-    public static final URI RELATION_TYPE_URI = create("http://localhost:8080/jsonhome-example/rel/products");
-    public static final URI JSONHOME_URI = create("http://localhost:8080/jsonhome-example/json-home");
+    public static final URI RELATION_TYPE_URI = create("http://example.org/rel/products");
+    public static final String JSON_HOME = "{\"resources\":{" +
+            "\"http://example.org/rel/products\":{\"href\":\"http://example.org/products\"}}}";
 
-    // TODO: implement and use harness server
-    @Test(enabled = false)
+    private JsonHomeTestServer server;
+    private URI jsonHomeUri;
+
+    @BeforeMethod
+    public void startServer() throws Exception {
+        server = jsonHomeTestServer();
+        jsonHomeUri = server.serve("/json-home", JSON_HOME);
+    }
+
+    @AfterMethod
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
     public void shouldFindRegisteredResource() {
         // given
         final JsonHomeClient client = new HttpJsonHomeClient();
         // when
-        final JsonHome jsonHome = client.get(JSONHOME_URI);
+        final JsonHome jsonHome = client.get(jsonHomeUri);
         // then
         assertNotNull(jsonHome);
         assertTrue(jsonHome.hasResourceFor(RELATION_TYPE_URI));
+        client.shutdown();
     }
 
-    // TODO: implement and use harness server
-    // TODO: caching-behaviour is not testable
-    @Test(enabled = false)
+    @Test
     public void shouldInvalidateCacheEntry() {
         // given
         final JsonHomeClient client = new HttpJsonHomeClient();
         // when
-        client.get(JSONHOME_URI);
-        client.get(JSONHOME_URI);
-        final JsonHome jsonHome = client.updateAndGet(JSONHOME_URI);
+        client.get(jsonHomeUri);
+        client.get(jsonHomeUri);
+        final JsonHome jsonHome = client.updateAndGet(jsonHomeUri);
         // then
         assertNotNull(jsonHome);
         assertTrue(jsonHome.hasResourceFor(RELATION_TYPE_URI));
+        client.shutdown();
     }
 
-    // TODO: implement and use harness server
-    @Test(enabled = false, expectedExceptions = NotFoundException.class)
+    @Test(expectedExceptions = NotFoundException.class)
     public void shouldThrowNotFoundExceptionForUnknownResource() {
         // given
         final JsonHomeClient client = new HttpJsonHomeClient();
         // when
-        final JsonHome jsonHome = client.get(URI.create("http://localhost:8080/foo"));
+        final JsonHome jsonHome = client.get(server.uriOf("/foo"));
         // then
         assertNull(jsonHome);
     }
@@ -75,4 +100,525 @@ public class HttpJsonHomeClientTest {
     public void shouldGetApplicationJsonFormatIncludingDescription() {
         fail();
     }
+
+    @Test
+    public void shouldReturnSameInstanceIfDocumentIsNotModified() {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        final URI uri = server.serve("/etag/json-home", JSON_HOME, "\"42\"", "no-cache");
+        // when
+        final JsonHome first = client.get(uri);
+        final JsonHome second = client.get(uri);
+        // then
+        assertSame(second, first);
+        assertEquals(client.getJsonHomeCache().getHits(), 1);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldParseModifiedDocument() {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        final URI uri = server.serve("/etag/json-home", JSON_HOME, "\"42\"", "no-cache");
+        final JsonHome first = client.get(uri);
+        // when
+        server.serve("/etag/json-home", JSON_HOME.replace("products", "widgets"), "\"43\"", "no-cache");
+        final JsonHome second = client.get(uri);
+        // then
+        assertNotSame(second, first);
+        assertTrue(second.hasResourceFor(create("http://example.org/rel/widgets")));
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldShareRequestOfConcurrentCalls() throws Exception {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        final ExecutorService callers = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        server.setDelayMillis(300);
+        // when
+        final List<Future<JsonHome>> results = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return client.get(jsonHomeUri);
+            }));
+        }
+        start.countDown();
+        // then
+        final JsonHome first = results.get(0).get(5, SECONDS);
+        for (final Future<JsonHome> result : results) {
+            assertSame(result.get(5, SECONDS), first);
+        }
+        assertEquals(server.getRequests(), 1);
+        callers.shutdown();
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldShareRequestOfConcurrentAsyncCalls() throws Exception {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        server.setDelayMillis(300);
+        // when
+        final CompletableFuture<JsonHome> first = client.updateAndGetAsync(jsonHomeUri);
+        final CompletableFuture<JsonHome> second = client.updateAndGetAsync(jsonHomeUri);
+        // then
+        assertSame(second.get(5, SECONDS), first.get(5, SECONDS));
+        assertEquals(server.getRequests(), 1);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldNotAbortSharedRequestIfOneCallerCancels() throws Exception {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        server.setDelayMillis(300);
+        final CompletableFuture<JsonHome> first = client.getAsync(jsonHomeUri);
+        final CompletableFuture<JsonHome> second = client.getAsync(jsonHomeUri);
+        // when
+        first.cancel(true);
+        // then
+        assertTrue(second.get(5, SECONDS).hasResourceFor(RELATION_TYPE_URI));
+        assertEquals(server.getRequests(), 1);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldNotAbortRequestOfBlockingCallerIfAsyncCallerTimesOut() throws Exception {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        server.setDelayMillis(500);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<JsonHome> blocking = executor.submit(() -> client.get(jsonHomeUri));
+        Thread.sleep(100);
+        // when
+        final CompletableFuture<JsonHome> async = client.getAsync(jsonHomeUri, 50, MILLISECONDS);
+        // then
+        try {
+            async.get(5, SECONDS);
+            fail("expected timeout");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(blocking.get(5, SECONDS).hasResourceFor(RELATION_TYPE_URI));
+        assertEquals(server.getRequests(), 1);
+        executor.shutdown();
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldRefreshDocumentInBackgroundAndNotifyListeners() throws Exception {
+        // given
+        final URI uri = server.serve("/refreshed/json-home", JSON_HOME, "\"1\"", "no-cache");
+        final CountDownLatch changed = new CountDownLatch(1);
+        final List<JsonHome> changes = new CopyOnWriteArrayList<>();
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withBackgroundRefresh(1, 60, SECONDS)
+                .withChangeListener((changedUri, previous, current) -> {
+                    changes.add(current);
+                    changed.countDown();
+                })
+                .build();
+        final JsonHome first = client.get(uri);
+        // when
+        server.serve("/refreshed/json-home", JSON_HOME.replace("products", "widgets"), "\"2\"", "no-cache");
+        // then
+        assertTrue(changed.await(5, SECONDS));
+        assertTrue(first.hasResourceFor(RELATION_TYPE_URI));
+        assertSame(client.get(uri), changes.get(0));
+        assertTrue(client.get(uri).hasResourceFor(create("http://example.org/rel/widgets")));
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldNotNotifyListenersIfDocumentIsUnchanged() throws Exception {
+        // given
+        final URI uri = server.serve("/refreshed/json-home", JSON_HOME, "\"1\"", "no-cache");
+        final List<JsonHome> changes = new CopyOnWriteArrayList<>();
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withBackgroundRefresh(1, 60, SECONDS)
+                .withChangeListener((changedUri, previous, current) -> changes.add(current))
+                .build();
+        // when
+        client.get(uri);
+        Thread.sleep(2500);
+        // then
+        assertTrue(server.getRequests() > 1);
+        assertTrue(changes.isEmpty());
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldNotWaitForNetworkWithBackgroundRefresh() throws Exception {
+        // given
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withBackgroundRefresh(1, 60, SECONDS)
+                .build();
+        final JsonHome first = client.get(jsonHomeUri);
+        server.setDelayMillis(3000);
+        Thread.sleep(1500);
+        // when
+        final long started = System.nanoTime();
+        final JsonHome jsonHome = client.get(jsonHomeUri);
+        // then
+        assertTrue(System.nanoTime() - started < MILLISECONDS.toNanos(500));
+        assertSame(jsonHome, first);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldRevalidateUnchangedDocumentOnUpdate() {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        final URI uri = server.serve("/etag/json-home", JSON_HOME, "\"42\"", "max-age=3600");
+        final JsonHome first = client.get(uri);
+        // when
+        final JsonHomeUpdate update = client.update(uri);
+        // then
+        assertFalse(update.isChanged());
+        assertSame(update.getJsonHome(), first);
+        assertEquals(server.getRequests(), 2);
+        assertEquals(server.getNotModified(), 1);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldReportChangedDocumentOnUpdate() {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        final URI uri = server.serve("/etag/json-home", JSON_HOME, "\"42\"", "max-age=3600");
+        client.get(uri);
+        server.serve("/etag/json-home", JSON_HOME.replace("products", "widgets"), "\"43\"", "max-age=3600");
+        // when
+        final JsonHomeUpdate update = client.update(uri);
+        // then
+        assertTrue(update.isChanged());
+        assertTrue(update.getJsonHome().hasResourceFor(create("http://example.org/rel/widgets")));
+        assertSame(client.get(uri), update.getJsonHome());
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldUseMultipleConnectionsPerRoute() throws Exception {
+        // given
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withMaxConnections(20, 4)
+                .build();
+        final List<CompletableFuture<JsonHome>> results = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            server.serve("/service" + i + "/json-home", JSON_HOME);
+        }
+        server.setDelayMillis(300);
+        // when
+        for (int i = 0; i < 4; ++i) {
+            results.add(client.getAsync(server.uriOf("/service" + i + "/json-home")));
+        }
+        for (final CompletableFuture<JsonHome> result : results) {
+            result.get(5, SECONDS);
+        }
+        // then
+        assertEquals(server.getMaxConcurrentRequests(), 4);
+        assertEquals(client.getConnectionPoolStats().getMax(), 20);
+        assertEquals(client.getConnectionPoolStats().getLeased(), 0);
+        assertTrue(client.getConnectionPoolStats().getAvailable() > 0);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldGetAllDocumentsWithBoundedParallelism() {
+        // given
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withMaxConnections(20, 10)
+                .build();
+        final List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < 6; ++i) {
+            uris.add(server.serve("/service" + i + "/json-home", JSON_HOME));
+        }
+        uris.add(server.fail("/broken/json-home", 404));
+        server.setDelayMillis(200);
+        // when
+        final JsonHomeResults results = client.getAll(uris, 2, 10, SECONDS);
+        // then
+        assertEquals(results.getJsonHomes().keySet(), new HashSet<>(uris.subList(0, 6)));
+        assertEquals(results.getFailures().size(), 1);
+        assertTrue(results.getFailures().get(uris.get(6)) instanceof NotFoundException);
+        assertEquals(server.getMaxConcurrentRequests(), 2);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldReportDocumentsNotRetrievedBeforeDeadlineAsFailures() {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        final URI first = server.serve("/first/json-home", JSON_HOME);
+        final URI second = server.serve("/second/json-home", JSON_HOME);
+        server.setDelayMillis(2000);
+        // when
+        final long started = System.nanoTime();
+        final JsonHomeResults results = client.getAll(asList(first, second), 1, 300, MILLISECONDS);
+        // then
+        assertTrue(System.nanoTime() - started < MILLISECONDS.toNanos(1500));
+        assertTrue(results.getJsonHomes().isEmpty());
+        assertEquals(results.getFailures().keySet(), new HashSet<>(asList(first, second)));
+        assertTrue(results.getFailures().get(second).getCause() instanceof TimeoutException);
+        server.setDelayMillis(0);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldFailFastIfCircuitIsOpen() {
+        // given
+        final URI uri = server.fail("/unavailable/json-home", 503);
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withCircuitBreaker(2, 1, 10, TimeUnit.MINUTES)
+                .build();
+        for (int i = 0; i < 2; ++i) {
+            try {
+                client.get(uri);
+                fail("HttpStatusException expected");
+            } catch (final HttpStatusException expected) {
+                // expected
+            }
+        }
+        // when
+        try {
+            client.get(uri);
+            fail("CircuitOpenException expected");
+        } catch (final CircuitOpenException expected) {
+            // then
+            assertTrue(expected.getRetryAfterMillis() > 0);
+        }
+        assertTrue(client.isCircuitOpen(uri));
+        assertEquals(server.getRequests(), 2);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldReturnLastRetrievedDocumentIfCircuitIsOpen() {
+        // given
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withCircuitBreaker(1, 1, 10, TimeUnit.MINUTES)
+                .build();
+        final JsonHome lastRetrieved = client.get(jsonHomeUri);
+        server.fail("/json-home", 500);
+        try {
+            client.updateAndGet(jsonHomeUri);
+            fail("HttpStatusException expected");
+        } catch (final HttpStatusException expected) {
+            // expected
+        }
+        // when
+        final JsonHome jsonHome = client.get(jsonHomeUri);
+        // then
+        assertSame(jsonHome, lastRetrieved);
+        assertEquals(server.getRequests(), 2);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldCloseCircuitAfterSuccessfulProbe() throws Exception {
+        // given
+        final URI uri = server.fail("/recovering/json-home", 503);
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withCircuitBreaker(1, 100, 1000, MILLISECONDS)
+                .build();
+        try {
+            client.get(uri);
+        } catch (final HttpStatusException expected) {
+            // expected
+        }
+        assertTrue(client.isCircuitOpen(uri));
+        server.serve("/recovering/json-home", JSON_HOME);
+        // when
+        Thread.sleep(150);
+        final JsonHome jsonHome = client.get(uri);
+        // then
+        assertTrue(jsonHome.hasResourceFor(RELATION_TYPE_URI));
+        assertFalse(client.isCircuitOpen(uri));
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldKeepRefreshingInBackgroundWhileCircuitIsOpen() throws Exception {
+        // given
+        final URI uri = server.serve("/recovering/json-home", JSON_HOME, "\"1\"", "no-cache");
+        final CountDownLatch changed = new CountDownLatch(1);
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withBackgroundRefresh(1, 3600, SECONDS)
+                .withCircuitBreaker(1, 2, 2, SECONDS)
+                .withChangeListener((changedUri, previous, current) -> changed.countDown())
+                .build();
+        client.get(uri);
+        server.fail("/recovering/json-home", 503);
+        final long started = System.nanoTime();
+        while (!client.isCircuitOpen(uri) && System.nanoTime() - started < SECONDS.toNanos(5)) {
+            Thread.sleep(50);
+        }
+        assertTrue(client.isCircuitOpen(uri));
+        // when
+        server.serve("/recovering/json-home", JSON_HOME.replace("products", "widgets"), "\"2\"", "no-cache");
+        // then
+        assertTrue(changed.await(8, SECONDS));
+        assertTrue(client.get(uri).hasResourceFor(create("http://example.org/rel/widgets")));
+        // the circuit is closed after the listeners are notified:
+        final long recovered = System.nanoTime();
+        while (client.isCircuitOpen(uri) && System.nanoTime() - recovered < SECONDS.toNanos(1)) {
+            Thread.sleep(10);
+        }
+        assertFalse(client.isCircuitOpen(uri));
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldCollectMetrics() {
+        // given
+        final JsonHomeClientStatistics statistics = JsonHomeClientStatistics.jsonHomeClientStatistics();
+        final URI uri = server.serve("/metrics/json-home", JSON_HOME, "\"42\"", "no-cache");
+        final URI unknownUri = server.uriOf("/unknown/json-home");
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withMetrics(statistics)
+                .build();
+        // when
+        client.get(uri);
+        client.updateAndGet(uri);
+        try {
+            client.get(unknownUri);
+        } catch (final NotFoundException expected) {
+            // expected
+        }
+        // then
+        final DocumentStatistics documentStatistics = statistics.getStatistics(uri);
+        assertEquals(documentStatistics.getFetches(), 2);
+        assertEquals(documentStatistics.getRevalidations(), 1);
+        assertEquals(documentStatistics.getNotModified(), 1);
+        assertEquals(documentStatistics.getParses(), 1);
+        assertEquals(documentStatistics.getBytesParsed(), JSON_HOME.length());
+        assertEquals(documentStatistics.getCacheHits(), 1);
+        assertEquals(statistics.getStatistics(unknownUri).getFailures(), 1);
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldIgnoreFailingMetrics() {
+        // given
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withMetrics(new JsonHomeClientMetrics() {
+                    @Override
+                    public void onParse(final URI uri, final long bytes, final long durationNanos) {
+                        throw new IllegalStateException("failing metrics");
+                    }
+                })
+                .build();
+        // when
+        final JsonHome jsonHome = client.get(jsonHomeUri);
+        // then
+        assertTrue(jsonHome.hasResourceFor(RELATION_TYPE_URI));
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldDecompressGzipCompressedDocument() {
+        // given
+        server.setGzip(true);
+        final JsonHomeClient client = new HttpJsonHomeClient();
+        // when
+        final JsonHome jsonHome = client.get(jsonHomeUri);
+        // then
+        assertEquals(server.getCompressedResponses(), 1);
+        assertTrue(jsonHome.hasResourceFor(RELATION_TYPE_URI));
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldDecompressDocumentIfHttpClientDoesNotSupportCompression() {
+        // given
+        server.setGzip(true);
+        final JsonHomeClient client = httpJsonHomeClientBuilder()
+                .withHttpClient(HttpClientBuilder.create().disableContentCompression().build())
+                .build();
+        // when
+        final JsonHome jsonHome = client.get(jsonHomeUri);
+        // then
+        assertEquals(server.getCompressedResponses(), 1);
+        assertTrue(jsonHome.hasResourceFor(RELATION_TYPE_URI));
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldGetDocumentAsync() throws Exception {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        // when
+        final JsonHome jsonHome = client.getAsync(jsonHomeUri).get(5, SECONDS);
+        // then
+        assertTrue(jsonHome.hasResourceFor(RELATION_TYPE_URI));
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldCompleteAsyncGetWithNotFoundException() throws Exception {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        // when
+        final CompletableFuture<JsonHome> future = client.getAsync(server.uriOf("/foo"));
+        // then
+        try {
+            future.get(5, SECONDS);
+            fail("NotFoundException expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof NotFoundException);
+        }
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldCompleteAsyncGetOnExecutor() throws Exception {
+        // given
+        final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "test-executor"));
+        final HttpJsonHomeClient client = httpJsonHomeClientBuilder()
+                .withExecutor(executor)
+                .build();
+        // when
+        final String threadName = client.getAsync(jsonHomeUri)
+                .thenApply(jsonHome -> Thread.currentThread().getName())
+                .get(5, SECONDS);
+        // then
+        assertEquals(threadName, "test-executor");
+        client.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldTimeoutAsyncGet() throws Exception {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        server.setDelayMillis(2000);
+        // when
+        final CompletableFuture<JsonHome> future = client.getAsync(jsonHomeUri, 100, MILLISECONDS);
+        // then
+        try {
+            future.get(1, SECONDS);
+            fail("TimeoutException expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        client.shutdown();
+    }
+
+    @Test
+    public void shouldCancelAsyncGet() throws Exception {
+        // given
+        final HttpJsonHomeClient client = new HttpJsonHomeClient();
+        server.setDelayMillis(500);
+        final CompletableFuture<JsonHome> future = client.getAsync(jsonHomeUri);
+        // when
+        future.cancel(true);
+        server.setDelayMillis(0);
+        // then
+        assertTrue(future.isCancelled());
+        assertTrue(client.getAsync(jsonHomeUri).get(5, SECONDS).hasResourceFor(RELATION_TYPE_URI));
+        client.shutdown();
+    }
 }
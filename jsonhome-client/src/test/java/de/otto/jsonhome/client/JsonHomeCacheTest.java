@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static de.otto.jsonhome.client.JsonHomeCache.jsonHomeCache;
+import static de.otto.jsonhome.model.JsonHome.emptyJsonHome;
+import static java.net.URI.create;
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class JsonHomeCacheTest {
+
+    private static final URI FIRST_URI = create("http://example.org/first/json-home");
+    private static final URI SECOND_URI = create("http://example.org/second/json-home");
+
+    @Test
+    public void shouldReturnCachedDocumentWithSameValidators() {
+        // given
+        final JsonHomeCache cache = jsonHomeCache(10);
+        final JsonHome jsonHome = emptyJsonHome();
+        cache.put(FIRST_URI, "\"42\"", "Sun, 18 Oct 2026 10:00:00 GMT", jsonHome);
+        // when
+        final JsonHome cached = cache.get(FIRST_URI, "\"42\"", "Sun, 18 Oct 2026 10:00:00 GMT");
+        // then
+        assertSame(cached, jsonHome);
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getMisses(), 0);
+    }
+
+    @Test
+    public void shouldMissDocumentWithDifferentValidators() {
+        // given
+        final JsonHomeCache cache = jsonHomeCache(10);
+        cache.put(FIRST_URI, "\"42\"", null, emptyJsonHome());
+        // then
+        assertNull(cache.get(FIRST_URI, "\"43\"", null));
+        assertNull(cache.get(FIRST_URI, "\"42\"", "Sun, 18 Oct 2026 10:00:00 GMT"));
+        assertNull(cache.get(SECOND_URI, "\"42\"", null));
+        assertEquals(cache.getMisses(), 3);
+    }
+
+    @Test
+    public void shouldNotCacheDocumentsWithoutValidators() {
+        // given
+        final JsonHomeCache cache = jsonHomeCache(10);
+        // when
+        cache.put(FIRST_URI, null, null, emptyJsonHome());
+        // then
+        assertEquals(cache.size(), 0);
+        assertNull(cache.get(FIRST_URI, null, null));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedDocument() {
+        // given
+        final JsonHomeCache cache = jsonHomeCache(1);
+        cache.put(FIRST_URI, "\"1\"", null, emptyJsonHome());
+        // when
+        cache.put(SECOND_URI, "\"2\"", null, emptyJsonHome());
+        // then
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.getEvictions(), 1);
+        assertNull(cache.get(FIRST_URI, "\"1\"", null));
+        assertNotNull(cache.get(SECOND_URI, "\"2\"", null));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+
+import static de.otto.jsonhome.client.JsonHomeClientStatistics.jsonHomeClientStatistics;
+import static java.net.URI.create;
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class JsonHomeClientStatisticsTest {
+
+    private static final URI JSON_HOME_URI = create("http://example.org/json-home");
+
+    @Test
+    public void shouldCollectStatisticsPerUri() {
+        // given
+        final JsonHomeClientStatistics statistics = jsonHomeClientStatistics();
+        // when
+        statistics.onFetch(JSON_HOME_URI, 200, 2000000);
+        statistics.onCacheLookup(JSON_HOME_URI, false);
+        statistics.onParse(JSON_HOME_URI, 4711, 1000000);
+        statistics.onFetch(JSON_HOME_URI, 304, 1000000);
+        statistics.onRevalidation(JSON_HOME_URI, false, 1000000);
+        statistics.onCacheLookup(JSON_HOME_URI, true);
+        statistics.onFailure(create("http://example.org/other"), new JsonHomeClientException("failed"));
+        // then
+        final DocumentStatistics documentStatistics = statistics.getStatistics(JSON_HOME_URI);
+        assertEquals(documentStatistics.getFetches(), 2);
+        assertEquals(documentStatistics.getFetchMeanMillis(), 1.5);
+        assertEquals(documentStatistics.getRevalidations(), 1);
+        assertEquals(documentStatistics.getNotModified(), 1);
+        assertEquals(documentStatistics.getParses(), 1);
+        assertEquals(documentStatistics.getBytesParsed(), 4711);
+        assertEquals(documentStatistics.getCacheHitRatio(), 0.5);
+        assertEquals(documentStatistics.getFailures(), 0);
+        assertEquals(statistics.getStatistics(create("http://example.org/other")).getFailures(), 1);
+        assertEquals(statistics.getAll().size(), 2);
+    }
+
+    @Test
+    public void shouldExposeStatisticsViaJmx() throws Exception {
+        // given
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = new ObjectName(
+                "de.otto.jsonhome:type=JsonHomeClient,name=\"test\",uri=\"" + JSON_HOME_URI + "\"");
+        final JsonHomeClientStatistics statistics = jsonHomeClientStatistics("test");
+        // when
+        statistics.onFetch(JSON_HOME_URI, 200, 1000000);
+        // then
+        try {
+            assertEquals(server.getAttribute(objectName, "Fetches"), 1L);
+            assertEquals(server.getAttribute(objectName, "Uri"), JSON_HOME_URI.toString());
+        } finally {
+            statistics.close();
+        }
+        assertFalse(server.isRegistered(objectName));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import de.otto.jsonhome.model.JsonHome;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static de.otto.jsonhome.client.JsonHomeNavigator.jsonHomeNavigator;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.Hints.emptyHints;
+import static de.otto.jsonhome.model.HrefVar.hrefVar;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static de.otto.jsonhome.model.TemplatedLink.templatedLink;
+import static java.net.URI.create;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class JsonHomeNavigatorTest {
+
+    private static final URI JSONHOME_URI = create("http://example.org/json-home");
+    private static final URI PRODUCTS_REL = create("http://example.org/rel/products");
+    private static final URI PRODUCT_REL = create("http://example.org/rel/product");
+    private static final URI PRODUCT_ID = create("http://example.org/vartype/productId");
+    private static final URI PAGE = create("http://example.org/vartype/page");
+    private static final JsonHome JSON_HOME = jsonHome(
+            directLink(PRODUCTS_REL, create("http://example.org/products"), emptyHints()),
+            templatedLink(PRODUCT_REL, "http://example.org/products/{productId}{?page}",
+                    asList(hrefVar("productId", PRODUCT_ID), hrefVar("page", PAGE)), emptyHints())
+    );
+
+    @Test
+    public void shouldResolveDirectLink() {
+        // given
+        final JsonHomeNavigator navigator = jsonHomeNavigator(clientFor(JSON_HOME), JSONHOME_URI);
+        // when
+        final URI uri = navigator.resolve(PRODUCTS_REL);
+        // then
+        assertEquals(uri, create("http://example.org/products"));
+    }
+
+    @Test
+    public void shouldExpandTemplatedLink() {
+        // given
+        final JsonHomeNavigator navigator = jsonHomeNavigator(clientFor(JSON_HOME), JSONHOME_URI);
+        final Map<URI, Object> values = new LinkedHashMap<>();
+        values.put(PAGE, 2);
+        values.put(PRODUCT_ID, "4 2");
+        // then
+        assertEquals(navigator.resolve(PRODUCT_REL), create("http://example.org/products/"));
+        assertEquals(navigator.resolve(PRODUCT_REL, PRODUCT_ID, 42), create("http://example.org/products/42"));
+        assertEquals(navigator.resolve(PRODUCT_REL, PRODUCT_ID, 42, PAGE, 2), create("http://example.org/products/42?page=2"));
+        assertEquals(navigator.resolve(PRODUCT_REL, PAGE, 3, PRODUCT_ID, 43), create("http://example.org/products/43?page=3"));
+        assertEquals(navigator.resolve(PRODUCT_REL, values), create("http://example.org/products/4%202?page=2"));
+    }
+
+    @Test
+    public void shouldResolveLinksOfChangedDocument() {
+        // given
+        final SimpleJsonHomeClient client = clientFor(JSON_HOME);
+        final JsonHomeNavigator navigator = jsonHomeNavigator(client, JSONHOME_URI);
+        navigator.resolve(PRODUCTS_REL);
+        navigator.resolve(PRODUCT_REL, PRODUCT_ID, 42);
+        // when
+        final JsonHome changed = jsonHome(
+                directLink(PRODUCTS_REL, create("http://example.com/products"), emptyHints()),
+                templatedLink(PRODUCT_REL, "http://example.com/products/{productId}",
+                        asList(hrefVar("productId", PRODUCT_ID)), emptyHints())
+        );
+        client.register(JSONHOME_URI, changed);
+        // then
+        assertSame(navigator.getJsonHome(), changed);
+        assertEquals(navigator.resolve(PRODUCTS_REL), create("http://example.com/products"));
+        assertEquals(navigator.resolve(PRODUCT_REL, PRODUCT_ID, 42), create("http://example.com/products/42"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailToResolveUnknownRelationType() {
+        // given
+        final JsonHomeNavigator navigator = jsonHomeNavigator(clientFor(JSON_HOME), JSONHOME_URI);
+        // when
+        navigator.resolve(create("http://example.org/rel/unknown"));
+        // then an exception is thrown
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailToExpandUnknownVarType() {
+        // given
+        final JsonHomeNavigator navigator = jsonHomeNavigator(clientFor(JSON_HOME), JSONHOME_URI);
+        // when
+        navigator.resolve(PRODUCT_REL, create("http://example.org/vartype/unknown"), 42);
+        // then an exception is thrown
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void shouldPropagateClientExceptions() {
+        // given
+        final JsonHomeNavigator navigator = jsonHomeNavigator(new SimpleJsonHomeClient(), JSONHOME_URI);
+        // when
+        navigator.resolve(PRODUCTS_REL);
+        // then an exception is thrown
+    }
+
+    private static SimpleJsonHomeClient clientFor(final JsonHome jsonHome) {
+        final SimpleJsonHomeClient client = new SimpleJsonHomeClient();
+        client.register(JSONHOME_URI, jsonHome);
+        return client;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A minimal HTTP server used to test the HttpJsonHomeClient, serving json-home documents from memory.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class JsonHomeTestServer {
+
+    private final HttpServer server;
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+    private final AtomicInteger compressedResponses = new AtomicInteger();
+    private volatile long delayMillis;
+    private volatile boolean gzip;
+
+    private JsonHomeTestServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public static JsonHomeTestServer jsonHomeTestServer() throws IOException {
+        return new JsonHomeTestServer();
+    }
+
+    /**
+     * Serves a json-home document with the given ETag and Cache-Control headers at the specified path.
+     *
+     * @param path the path of the document, starting with '/'.
+     * @param json the document.
+     * @param eTag ETag of the document, or null.
+     * @param cacheControl value of the Cache-Control header, or null.
+     * @return URI of the document.
+     */
+    public URI serve(final String path, final String json, final String eTag, final String cacheControl) {
+        documents.put(path, new Document(200, json.getBytes(UTF_8), eTag, cacheControl));
+        return uriOf(path);
+    }
+
+    public URI serve(final String path, final String json) {
+        return serve(path, json, null, "no-cache");
+    }
+
+    /**
+     * Responds to requests of the path with an empty response with the specified status code.
+     */
+    public URI fail(final String path, final int status) {
+        documents.put(path, new Document(status, new byte[0], null, null));
+        return uriOf(path);
+    }
+
+    public URI uriOf(final String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    public void setDelayMillis(final long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Enables gzip compression of documents requested by clients accepting gzip content coding.
+     */
+    public void setGzip(final boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    /**
+     * @return number of responses that were compressed using gzip.
+     */
+    public int getCompressedResponses() {
+        return compressedResponses.get();
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return maximum number of requests that were processed at the same time.
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests.get();
+    }
+
+    /**
+     * @return number of requests answered with 304 NOT MODIFIED.
+     */
+    public int getNotModified() {
+        return notModified.get();
+    }
+
+    public void stop() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+        try {
+            respond(exchange);
+        } finally {
+            concurrentRequests.decrementAndGet();
+        }
+    }
+
+    private void respond(final HttpExchange exchange) throws IOException {
+        try {
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final Document document = documents.get(exchange.getRequestURI().getPath());
+        if (document == null) {
+            exchange.sendResponseHeaders(404, -1);
+        } else {
+            if (document.eTag != null) {
+                exchange.getResponseHeaders().set("ETag", document.eTag);
+            }
+            if (document.cacheControl != null) {
+                exchange.getResponseHeaders().set("Cache-Control", document.cacheControl);
+            }
+            final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (document.eTag != null && document.eTag.equals(ifNoneMatch)) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else if (document.status != 200) {
+                exchange.sendResponseHeaders(document.status, -1);
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                final byte[] content;
+                if (gzip && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                    compressedResponses.incrementAndGet();
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                    content = gzipped(document.content);
+                } else {
+                    content = document.content;
+                }
+                exchange.sendResponseHeaders(200, content.length);
+                try (final OutputStream body = exchange.getResponseBody()) {
+                    body.write(content);
+                }
+            }
+        }
+        exchange.close();
+    }
+
+    private static byte[] gzipped(final byte[] content) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (final OutputStream gzip = new GZIPOutputStream(stream)) {
+            gzip.write(content);
+        }
+        return stream.toByteArray();
+    }
+
+    private static final class Document {
+        private final int status;
+        private final byte[] content;
+        private final String eTag;
+        private final String cacheControl;
+
+        private Document(final int status, final byte[] content, final String eTag, final String cacheControl) {
+            this.status = status;
+            this.content = content;
+            this.eTag = eTag;
+            this.cacheControl = cacheControl;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getCount(), 0);
+        assertEquals(histogram.getMeanNanos(), 0.0);
+        assertEquals(histogram.getPercentileNanos(99), 0);
+    }
+
+    @Test
+    public void shouldRecordDurations() {
+        // given
+        final LatencyHistogram histogram = new LatencyHistogram();
+        // when
+        for (long i = 1; i <= 100; ++i) {
+            histogram.record(i * 1000000L);
+        }
+        // then
+        assertEquals(histogram.getCount(), 100);
+        assertEquals(histogram.getMeanNanos(), 50500000.0);
+        assertEquals(histogram.getMaxNanos(), 100000000L);
+        assertWithinBucketPrecision(histogram.getPercentileNanos(50), 50000000L);
+        assertWithinBucketPrecision(histogram.getPercentileNanos(99), 99000000L);
+        assertEquals(histogram.getPercentileNanos(100), 100000000L);
+    }
+
+    @Test
+    public void shouldMapEveryValueIntoBucketContainingIt() {
+        for (final long value : new long[] {0, 1, 7, 8, 9, 15, 16, 1000, 123456789L, Long.MAX_VALUE}) {
+            final int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= value, "value " + value);
+            assertTrue(index == 0 || LatencyHistogram.upperBoundOf(index - 1) < value, "value " + value);
+        }
+    }
+
+    private void assertWithinBucketPrecision(final long actual, final long expected) {
+        assertTrue(actual >= expected && actual <= expected * 1.125, actual + " is not close to " + expected);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.client;
+
+import org.apache.http.Header;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.HeapResource;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicStatusLine;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Date;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class MappedFileHttpCacheStorageTest {
+
+    private static final CacheConfig CACHE_CONFIG = CacheConfig.custom().setMaxCacheEntries(10).build();
+
+    private File directory;
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jsonhome-cache").toFile();
+        file = new File(directory, "json-home.cache");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        for (final File f : directory.listFiles()) {
+            f.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void shouldReturnStoredEntry() throws Exception {
+        // given
+        try (final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, 100000, CACHE_CONFIG)) {
+            // when
+            storage.putEntry("foo", cacheEntry("{\"resources\":{}}"));
+            // then
+            assertEquals(bodyOf(storage.getEntry("foo")), "{\"resources\":{}}");
+            assertEquals(storage.getEntry("foo").getFirstHeader("ETag").getValue(), "\"42\"");
+            assertNull(storage.getEntry("bar"));
+        }
+    }
+
+    @Test
+    public void shouldSurviveRestart() throws Exception {
+        // given
+        try (final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, 100000, CACHE_CONFIG)) {
+            storage.putEntry("foo", cacheEntry("first"));
+            storage.putEntry("bar", cacheEntry("second"));
+            storage.putEntry("foo", cacheEntry("updated"));
+            storage.removeEntry("bar");
+        }
+        // when
+        try (final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, 100000, CACHE_CONFIG)) {
+            // then
+            assertEquals(storage.size(), 1);
+            assertEquals(bodyOf(storage.getEntry("foo")), "updated");
+            assertNull(storage.getEntry("bar"));
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldNotOpenFileTwice() throws Exception {
+        // given
+        final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, 100000, CACHE_CONFIG);
+        try {
+            // when
+            final MappedFileHttpCacheStorage second = new MappedFileHttpCacheStorage(file, 100000, CACHE_CONFIG);
+            second.close();
+        } finally {
+            storage.close();
+        }
+        // then an exception is thrown
+    }
+
+    @Test
+    public void shouldUpdateEntryUsingCallback() throws Exception {
+        // given
+        try (final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, 100000, CACHE_CONFIG)) {
+            storage.putEntry("foo", cacheEntry("first"));
+            // when
+            storage.updateEntry("foo", existing -> cacheEntry(bodyOf(existing) + " second"));
+            storage.updateEntry("bar", existing -> null);
+            // then
+            assertEquals(bodyOf(storage.getEntry("foo")), "first second");
+            assertNull(storage.getEntry("bar"));
+        }
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() throws Exception {
+        // given
+        final CacheConfig cacheConfig = CacheConfig.custom().setMaxCacheEntries(2).build();
+        try (final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, 100000, cacheConfig)) {
+            storage.putEntry("first", cacheEntry("first"));
+            storage.putEntry("second", cacheEntry("second"));
+            storage.getEntry("first");
+            // when
+            storage.putEntry("third", cacheEntry("third"));
+            // then
+            assertEquals(storage.size(), 2);
+            assertNotNull(storage.getEntry("first"));
+            assertNull(storage.getEntry("second"));
+            assertEquals(storage.getEvictions(), 1);
+        }
+        try (final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, 100000, cacheConfig)) {
+            assertNull(storage.getEntry("second"));
+        }
+    }
+
+    @Test
+    public void shouldCompactFullFile() throws Exception {
+        // given
+        final long maxBytes = 20000;
+        try (final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, maxBytes, CACHE_CONFIG)) {
+            // when
+            for (int i = 0; i < 100; ++i) {
+                storage.putEntry("foo", cacheEntry("version " + i));
+                storage.putEntry("bar", cacheEntry("bar"));
+            }
+            // then
+            assertTrue(storage.getBytesUsed() <= maxBytes);
+            assertEquals(storage.size(), 2);
+            assertEquals(bodyOf(storage.getEntry("foo")), "version 99");
+        }
+        assertEquals(file.length(), maxBytes);
+        try (final MappedFileHttpCacheStorage storage = new MappedFileHttpCacheStorage(file, maxBytes, CACHE_CONFIG)) {
+            assertEquals(bodyOf(storage.getEntry("foo")), "version 99");
+            assertEquals(bodyOf(storage.getEntry("bar")), "bar");
+        }
+    }
+
+    private HttpCacheEntry cacheEntry(final String body) {
+        final Date now = new Date();
+        return new HttpCacheEntry(
+                now, now,
+                new BasicStatusLine(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK"),
+                new Header[] {new BasicHeader("ETag", "\"42\""), new BasicHeader("Content-Type", "application/json-home")},
+                new HeapResource(body.getBytes(UTF_8)));
+    }
+
+    private String bodyOf(final HttpCacheEntry entry) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (final InputStream in = entry.getResource().getInputStream()) {
+            int b;
+            while ((b = in.read()) != -1) {
+                stream.write(b);
+            }
+        }
+        return stream.toString("UTF-8");
+    }
+}
@@ -25,8 +25,7 @@ import static de.otto.jsonhome.model.DirectLink.directLink;
 import static de.otto.jsonhome.model.JsonHome.jsonHome;
 import static java.net.URI.create;
 import static java.util.Arrays.asList;
-import static org.testng.Assert.assertNotNull;
-import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.*;
 
 /**
  * @author Guido Steinacker
@@ -60,4 +59,19 @@ public class SimpleJsonHomeClientTest {
         simpleJsonHomeClient.get(JSONHOME_URI);
         // then an exception is thrown
     }
+
+    @Test
+    public void shouldSeparateFoundAndMissingDocumentsInGetAll() {
+        // given
+        final SimpleJsonHomeClient simpleJsonHomeClient = new SimpleJsonHomeClient();
+        simpleJsonHomeClient.register(JSONHOME_URI, JSON_HOME);
+        final URI unknownUri = create("http://example.org/unknown/json-home");
+        // when
+        final JsonHomeResults results = simpleJsonHomeClient.getAll(asList(JSONHOME_URI, unknownUri));
+        // then
+        assertEquals(results.getJsonHomes().size(), 1);
+        assertSame(results.get(JSONHOME_URI), JSON_HOME);
+        assertTrue(results.hasFailures());
+        assertTrue(results.getFailures().get(unknownUri) instanceof NotFoundException);
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.converter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content codings supported to transfer json-home documents.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public enum ContentCoding {
+
+    IDENTITY("identity"),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String name;
+
+    private ContentCoding(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the coding, usable as value of the Content-Encoding header.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Selects the content coding preferred by the client, using the value of an Accept-Encoding request header.
+     *
+     * The quality values of the codings are respected, gzip is preferred over deflate if both are equally
+     * acceptable. Identity is returned, if the header is missing, or if neither gzip nor deflate are acceptable.
+     *
+     * @param acceptEncoding value of the Accept-Encoding header. May be null.
+     * @return ContentCoding
+     */
+    public static ContentCoding negotiate(final String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return IDENTITY;
+        }
+        float gzip = -1;
+        float deflate = -1;
+        float identity = -1;
+        float any = -1;
+        for (final String element : acceptEncoding.split(",")) {
+            final String[] parts = element.split(";");
+            final String coding = parts[0].trim().toLowerCase();
+            final float quality = qualityOf(parts);
+            switch (coding) {
+                case "gzip":
+                case "x-gzip":
+                    gzip = Math.max(gzip, quality);
+                    break;
+                case "deflate":
+                    deflate = quality;
+                    break;
+                case "identity":
+                    identity = quality;
+                    break;
+                case "*":
+                    any = quality;
+                    break;
+                default:
+                    break;
+            }
+        }
+        gzip = gzip >= 0 ? gzip : Math.max(any, 0);
+        deflate = deflate >= 0 ? deflate : Math.max(any, 0);
+        // identity is always acceptable, unless explicitly excluded:
+        identity = identity >= 0 ? identity : (any >= 0 ? Math.max(any, 0.001f) : 1);
+        if (gzip > 0 && gzip >= deflate && gzip >= identity) {
+            return GZIP;
+        } else if (deflate > 0 && deflate >= identity) {
+            return DEFLATE;
+        } else {
+            return IDENTITY;
+        }
+    }
+
+    /**
+     * Encodes the bytes using this coding.
+     *
+     * @param bytes the unencoded bytes.
+     * @return encoded bytes.
+     */
+    public byte[] encode(final byte[] bytes) {
+        if (this == IDENTITY) {
+            return bytes;
+        }
+        try {
+            final ByteArrayOutputStream encoded = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (final OutputStream stream = this == GZIP ? new GZIPOutputStream(encoded) : new DeflaterOutputStream(encoded)) {
+                stream.write(bytes);
+            }
+            return encoded.toByteArray();
+        } catch (final IOException e) {
+            // not possible when writing to a ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static float qualityOf(final String[] parts) {
+        for (int i = 1; i < parts.length; ++i) {
+            final String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2));
+                } catch (final NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
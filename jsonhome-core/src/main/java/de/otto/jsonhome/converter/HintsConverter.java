@@ -79,7 +79,7 @@ public final class HintsConverter {
         if (!hints.getAuthReq().isEmpty()) {
             final List<Map<String,?>> authReq = new ArrayList<>();
             for (final Authentication authentication : hints.getAuthReq()) {
-                final Map<String, Object> authMap = new HashMap<>();
+                final Map<String, Object> authMap = new LinkedHashMap<>();
                 authMap.put("scheme", authentication.getScheme());
                 if (!authentication.getRealms().isEmpty()) {
                     authMap.put("realms", authentication.getRealms());
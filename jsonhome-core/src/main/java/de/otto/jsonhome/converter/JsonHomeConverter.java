@@ -19,7 +19,7 @@ package de.otto.jsonhome.converter;
 import de.otto.jsonhome.model.JsonHome;
 import de.otto.jsonhome.model.ResourceLink;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSONHOME;
@@ -57,7 +57,7 @@ public final class JsonHomeConverter {
      */
     public static Map<String, Map<String,Object>> toRepresentation(final JsonHome jsonHome,
                                                                    final JsonHomeMediaType mediaType) {
-        final Map<String, Object> jsonResources = new HashMap<>();
+        final Map<String, Object> jsonResources = new LinkedHashMap<>();
         for (final ResourceLink resource : jsonHome.getResources().values()) {
             jsonResources.putAll(ResourceLinkConverter.toRepresentation(resource, mediaType));
         }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.converter;
+
+import de.otto.jsonhome.model.*;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * A writer used to serialize JsonHome documents directly into a stream of JSON tokens.
+ *
+ * In contrast to {@link JsonHomeConverter}, no intermediate tree of maps and lists is created, so the memory
+ * needed to write a document does not grow with the number of resources. The generated document is the same
+ * as the serialized result of {@link JsonHomeConverter#toRepresentation(JsonHome, JsonHomeMediaType)}.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class JsonHomeWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonHomeWriter() {}
+
+    /**
+     * Writes the UTF-8 encoded representation of a JsonHome to a stream. The stream is flushed, but not closed.
+     *
+     * @param jsonHome the JsonHome
+     * @param mediaType the media type of the representation
+     * @param stream the stream the document is written to.
+     * @throws IOException if writing to the stream fails.
+     */
+    public static void writeJsonHome(final JsonHome jsonHome,
+                                     final JsonHomeMediaType mediaType,
+                                     final OutputStream stream) throws IOException {
+        final JsonGenerator generator = JSON_FACTORY.createJsonGenerator(stream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            writeJsonHome(jsonHome, mediaType, generator);
+        } finally {
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes the representation of a JsonHome as a JSON object to the generator.
+     *
+     * @param jsonHome the JsonHome
+     * @param mediaType the media type of the representation
+     * @param generator the JsonGenerator used to write the document.
+     * @throws IOException if writing the document fails.
+     */
+    public static void writeJsonHome(final JsonHome jsonHome,
+                                     final JsonHomeMediaType mediaType,
+                                     final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("resources");
+        for (final ResourceLink resource : jsonHome.getResources().values()) {
+            writeResourceLink(resource, mediaType, generator);
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the representation of a ResourceLink as a field of the enclosing resources object. The name of the
+     * field is the link-relation type of the resource.
+     *
+     * @param resourceLink the ResourceLink
+     * @param mediaType the media type of the representation
+     * @param generator the JsonGenerator used to write the resource.
+     * @throws IOException if writing the resource fails.
+     */
+    public static void writeResourceLink(final ResourceLink resourceLink,
+                                         final JsonHomeMediaType mediaType,
+                                         final JsonGenerator generator) throws IOException {
+        generator.writeObjectFieldStart(resourceLink.getLinkRelationType().toString());
+        if (resourceLink.isDirectLink()) {
+            generator.writeStringField("href", resourceLink.asDirectLink().getHref().toString());
+        } else {
+            final TemplatedLink templatedLink = resourceLink.asTemplatedLink();
+            generator.writeStringField("href-template", templatedLink.getHrefTemplate());
+            generator.writeObjectFieldStart("href-vars");
+            for (final HrefVar hrefVar : templatedLink.getHrefVars()) {
+                generator.writeStringField(hrefVar.getVar(), hrefVar.getVarType().toString());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeFieldName("hints");
+        writeHints(resourceLink.getHints(), mediaType, generator);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the representation of Hints as a JSON object to the generator.
+     *
+     * Depending on the media type, different data is included in the representation.
+     *
+     * @param hints the Hints
+     * @param mediaType the media type of the representation
+     * @param generator the JsonGenerator used to write the hints.
+     * @throws IOException if writing the hints fails.
+     */
+    public static void writeHints(final Hints hints,
+                                  final JsonHomeMediaType mediaType,
+                                  final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("allow");
+        for (final Allow allow : hints.getAllows()) {
+            generator.writeString(allow.name());
+        }
+        generator.writeEndArray();
+        writeStrings("representations", hints.getRepresentations(), generator);
+        writeNonEmptyStrings("accept-put", hints.getAcceptPut(), generator);
+        writeNonEmptyStrings("accept-post", hints.getAcceptPost(), generator);
+        writeNonEmptyStrings("accept-patch", hints.getAcceptPatch(), generator);
+        writeNonEmptyStrings("accept-ranges", hints.getAcceptRanges(), generator);
+        writeNonEmptyStrings("prefer", hints.getPreferences(), generator);
+        if (!hints.getPreconditionReq().isEmpty()) {
+            generator.writeArrayFieldStart("precondition-req");
+            for (final Precondition precondition : hints.getPreconditionReq()) {
+                generator.writeString(precondition.toString());
+            }
+            generator.writeEndArray();
+        }
+        if (!hints.getAuthReq().isEmpty()) {
+            generator.writeArrayFieldStart("auth-req");
+            for (final Authentication authentication : hints.getAuthReq()) {
+                generator.writeStartObject();
+                generator.writeStringField("scheme", authentication.getScheme());
+                writeNonEmptyStrings("realms", authentication.getRealms(), generator);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        if (!hints.getStatus().equals(Status.OK)) {
+            generator.writeStringField("status", hints.getStatus().name().toLowerCase());
+        }
+        final Documentation docs = hints.getDocs();
+        if (docs.hasLink()) {
+            generator.writeStringField("docs", docs.getLink().toString());
+        }
+        if (mediaType.equals(JsonHomeMediaType.APPLICATION_JSON)) {
+            if (docs.hasDescription()) {
+                writeStrings("description", docs.getDescription(), generator);
+            }
+            if (docs.hasDetailedDescription()) {
+                generator.writeStringField("detailedDescription", docs.getDetailedDescription());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeNonEmptyStrings(final String fieldName,
+                                             final Collection<String> values,
+                                             final JsonGenerator generator) throws IOException {
+        if (!values.isEmpty()) {
+            writeStrings(fieldName, values, generator);
+        }
+    }
+
+    private static void writeStrings(final String fieldName,
+                                     final Collection<String> values,
+                                     final JsonGenerator generator) throws IOException {
+        generator.writeArrayFieldStart(fieldName);
+        for (final String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+
+}
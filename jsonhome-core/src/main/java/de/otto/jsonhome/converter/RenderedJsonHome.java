@@ -0,0 +1,284 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.converter;
+
+import de.otto.jsonhome.model.JsonHome;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static de.otto.jsonhome.converter.JsonHomeWriter.writeJsonHome;
+
+/**
+ * A JsonHome document, rendered once into the UTF-8 encoded bytes of all supported {@link JsonHomeMediaType media types}.
+ *
+ * Because JsonHome instances are immutable, the rendered representations can be served over and over again without
+ * converting and serializing the document on every request. Every representation has a strong entity tag that is
+ * derived from its bytes, so conditional requests using If-None-Match can be answered with 304 NOT MODIFIED.
+ *
+ * Representations may be transferred using a {@link ContentCoding}. The encoded variants are compressed on first use
+ * and cached, so every variant is only compressed once. Encoded variants have entity tags that are different
+ * from the entity tag of the unencoded representation.
+ *
+ * The class is independent of any web framework. It is used by the Spring and Jersey controllers serving json-home.
+ *
+ * This implementation is immutable and thread-safe.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class RenderedJsonHome {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Representations smaller than this number of bytes are not compressed, as compression would hardly reduce
+     * the size of the response.
+     */
+    public static final int MIN_COMPRESSIBLE_LENGTH = 1024;
+
+    private final JsonHome jsonHome;
+    private final Map<JsonHomeMediaType, byte[]> representations = new EnumMap<>(JsonHomeMediaType.class);
+    private final Map<JsonHomeMediaType, String> eTags = new EnumMap<>(JsonHomeMediaType.class);
+    private final Map<JsonHomeMediaType, ConcurrentMap<ContentCoding, byte[]>> encoded = new EnumMap<>(JsonHomeMediaType.class);
+
+    private RenderedJsonHome(final JsonHome jsonHome) {
+        this.jsonHome = jsonHome;
+        for (final JsonHomeMediaType mediaType : JsonHomeMediaType.values()) {
+            final byte[] bytes = render(jsonHome, mediaType);
+            representations.put(mediaType, bytes);
+            eTags.put(mediaType, eTagOf(bytes));
+            encoded.put(mediaType, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Renders all representations of a JsonHome document.
+     *
+     * @param jsonHome the rendered JsonHome.
+     * @return RenderedJsonHome
+     */
+    public static RenderedJsonHome renderedJsonHome(final JsonHome jsonHome) {
+        return new RenderedJsonHome(jsonHome);
+    }
+
+    /**
+     * Returns the JsonHome instance that was rendered.
+     *
+     * Callers may compare this instance by identity to the current JsonHome of a source in order to
+     * find out whether the rendered representation is still up to date.
+     *
+     * @return JsonHome
+     */
+    public JsonHome getJsonHome() {
+        return jsonHome;
+    }
+
+    /**
+     * Returns the quoted, strong entity tag of the representation, for example <code>"1a2b3c..."</code>.
+     *
+     * @param mediaType the media type of the representation.
+     * @return entity tag, usable as value of an ETag header.
+     */
+    public String getETag(final JsonHomeMediaType mediaType) {
+        return eTags.get(mediaType);
+    }
+
+    /**
+     * Returns the quoted, strong entity tag of the encoded representation. The entity tag of an encoded
+     * representation is the entity tag of the unencoded representation, suffixed by the name of the coding, for
+     * example <code>"1a2b3c...-gzip"</code>.
+     *
+     * @param mediaType the media type of the representation.
+     * @param coding the content coding of the representation.
+     * @return entity tag, usable as value of an ETag header.
+     */
+    public String getETag(final JsonHomeMediaType mediaType, final ContentCoding coding) {
+        final String eTag = eTags.get(mediaType);
+        return coding == ContentCoding.IDENTITY
+                ? eTag
+                : eTag.substring(0, eTag.length() - 1) + "-" + coding.getName() + "\"";
+    }
+
+    /**
+     * Selects the content coding used to transfer the representation to a client.
+     *
+     * The coding is negotiated using the Accept-Encoding header of the request. Representations smaller than
+     * {@link #MIN_COMPRESSIBLE_LENGTH} are always transferred unencoded.
+     *
+     * @param mediaType the media type of the representation.
+     * @param acceptEncoding value of the Accept-Encoding header. May be null.
+     * @return ContentCoding
+     */
+    public ContentCoding contentCodingFor(final JsonHomeMediaType mediaType, final String acceptEncoding) {
+        return representations.get(mediaType).length < MIN_COMPRESSIBLE_LENGTH
+                ? ContentCoding.IDENTITY
+                : ContentCoding.negotiate(acceptEncoding);
+    }
+
+    /**
+     * Returns the number of bytes of the representation.
+     *
+     * @param mediaType the media type of the representation.
+     * @return length in bytes, usable as value of a Content-Length header.
+     */
+    public int getContentLength(final JsonHomeMediaType mediaType) {
+        return representations.get(mediaType).length;
+    }
+
+    /**
+     * Returns the number of bytes of the encoded representation.
+     *
+     * @param mediaType the media type of the representation.
+     * @param coding the content coding of the representation.
+     * @return length in bytes, usable as value of a Content-Length header.
+     */
+    public int getContentLength(final JsonHomeMediaType mediaType, final ContentCoding coding) {
+        return bytesOf(mediaType, coding).length;
+    }
+
+    /**
+     * Returns a copy of the UTF-8 encoded bytes of the representation.
+     *
+     * Use {@link #writeTo(JsonHomeMediaType, java.io.OutputStream)} if you only want to send the representation
+     * to a client, as this will not copy the bytes.
+     *
+     * @param mediaType the media type of the representation.
+     * @return UTF-8 encoded json document.
+     */
+    public byte[] getBytes(final JsonHomeMediaType mediaType) {
+        return representations.get(mediaType).clone();
+    }
+
+    /**
+     * Returns a copy of the encoded bytes of the representation.
+     *
+     * @param mediaType the media type of the representation.
+     * @param coding the content coding of the representation.
+     * @return encoded json document.
+     */
+    public byte[] getBytes(final JsonHomeMediaType mediaType, final ContentCoding coding) {
+        return bytesOf(mediaType, coding).clone();
+    }
+
+    /**
+     * Writes the UTF-8 encoded bytes of the representation to the stream. The stream is neither flushed nor closed.
+     *
+     * @param mediaType the media type of the representation.
+     * @param stream the stream the representation is written to.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void writeTo(final JsonHomeMediaType mediaType, final OutputStream stream) throws IOException {
+        stream.write(representations.get(mediaType));
+    }
+
+    /**
+     * Writes the encoded bytes of the representation to the stream. The stream is neither flushed nor closed.
+     *
+     * @param mediaType the media type of the representation.
+     * @param coding the content coding of the representation.
+     * @param stream the stream the representation is written to.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void writeTo(final JsonHomeMediaType mediaType,
+                        final ContentCoding coding,
+                        final OutputStream stream) throws IOException {
+        stream.write(bytesOf(mediaType, coding));
+    }
+
+    /**
+     * Returns true, if the value of an If-None-Match request header matches the entity tag of the representation.
+     *
+     * The header may contain a single entity tag, a comma-separated list of entity tags or "*". As specified for
+     * If-None-Match, weak entity tags are compared using the weak comparison function.
+     *
+     * @param mediaType the media type of the representation.
+     * @param ifNoneMatch value of the If-None-Match header. May be null.
+     * @return true if the client already has the current representation, so 304 NOT MODIFIED can be returned.
+     */
+    public boolean isNotModified(final JsonHomeMediaType mediaType, final String ifNoneMatch) {
+        return isNotModified(mediaType, ContentCoding.IDENTITY, ifNoneMatch);
+    }
+
+    /**
+     * Returns true, if the value of an If-None-Match request header matches the entity tag of the encoded
+     * representation.
+     *
+     * @param mediaType the media type of the representation.
+     * @param coding the content coding of the representation.
+     * @param ifNoneMatch value of the If-None-Match header. May be null.
+     * @return true if the client already has the current representation, so 304 NOT MODIFIED can be returned.
+     * @see #isNotModified(JsonHomeMediaType, String)
+     */
+    public boolean isNotModified(final JsonHomeMediaType mediaType,
+                                 final ContentCoding coding,
+                                 final String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        final String eTag = getETag(mediaType, coding);
+        for (final String candidate : ifNoneMatch.split(",")) {
+            final String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(eTag) || (tag.startsWith("W/") && tag.substring(2).equals(eTag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] bytesOf(final JsonHomeMediaType mediaType, final ContentCoding coding) {
+        final byte[] bytes = representations.get(mediaType);
+        return coding == ContentCoding.IDENTITY
+                ? bytes
+                : encoded.get(mediaType).computeIfAbsent(coding, c -> c.encode(bytes));
+    }
+
+    private static byte[] render(final JsonHome jsonHome, final JsonHomeMediaType mediaType) {
+        try {
+            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            writeJsonHome(jsonHome, mediaType, stream);
+            return stream.toByteArray();
+        } catch (final IOException e) {
+            throw new IllegalStateException("Unable to render json-home document as " + mediaType + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String eTagOf(final byte[] bytes) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            final char[] eTag = new char[digest.length * 2 + 2];
+            eTag[0] = '"';
+            for (int i = 0; i < digest.length; ++i) {
+                eTag[2 * i + 1] = HEX_DIGITS[(digest[i] >> 4) & 0x0f];
+                eTag[2 * i + 2] = HEX_DIGITS[digest[i] & 0x0f];
+            }
+            eTag[eTag.length - 1] = '"';
+            return new String(eTag);
+        } catch (final NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -16,10 +16,10 @@
 
 package de.otto.jsonhome.model;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import static de.otto.jsonhome.model.InternPool.strings;
 import static java.util.Collections.unmodifiableList;
 
 /**
@@ -34,8 +34,8 @@ public final class Authentication {
 
 
     private Authentication(final String scheme, final List<String> realms) {
-        this.scheme = scheme;
-        this.realms = unmodifiableList(new ArrayList<String>(realms));
+        this.scheme = strings().intern(scheme);
+        this.realms = unmodifiableList(strings().internAll(realms));
     }
 
     public static Authentication authReq(final String scheme, final List<String> realms) {
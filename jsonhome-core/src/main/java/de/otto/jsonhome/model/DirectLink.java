@@ -17,6 +17,7 @@ package de.otto.jsonhome.model;
 
 import java.net.URI;
 
+import static de.otto.jsonhome.model.InternPool.uris;
 import static java.lang.String.format;
 
 /**
@@ -47,8 +48,8 @@ public final class DirectLink implements ResourceLink {
     private DirectLink(final URI relationType,
                        final URI href,
                        final Hints hints) {
-        this.relationType = relationType;
-        this.href = href;
+        this.relationType = uris().intern(relationType);
+        this.href = uris().intern(href);
         this.hints = hints;
     }
 
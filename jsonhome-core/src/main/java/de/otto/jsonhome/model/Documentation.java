@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import static de.otto.jsonhome.model.InternPool.uris;
 import static java.util.Collections.unmodifiableList;
 
 /**
@@ -42,7 +43,7 @@ public final class Documentation {
                 ? unmodifiableList(new ArrayList<>(description))
                 : Collections.<String>emptyList();
         this.detailedDescription = detailedDescription != null ? detailedDescription : "";
-        this.link = link;
+        this.link = uris().intern(link);
     }
 
     public static Documentation emptyDocs() {
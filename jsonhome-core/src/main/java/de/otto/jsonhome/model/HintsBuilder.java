@@ -19,11 +19,14 @@ import java.util.*;
 
 import static de.otto.jsonhome.model.Documentation.emptyDocs;
 import static de.otto.jsonhome.model.Hints.hints;
+import static de.otto.jsonhome.model.InternPool.strings;
 import static java.util.Arrays.asList;
 
 /**
  * A builder used to build Hints instances.
  *
+ * Media types, ranges and preferences are replaced by their canonical instances from {@link InternPool#strings()}.
+ *
  * @author Guido Steinacker
  * @since 30.09.12
  */
@@ -59,62 +62,62 @@ public class HintsBuilder {
     }
 
     public HintsBuilder representedAs(final String... representations) {
-        this.representations.addAll(asList(representations));
+        this.representations.addAll(strings().internAll(asList(representations)));
         return this;
     }
 
     public HintsBuilder representedAs(final List<String> representations) {
-        this.representations.addAll(representations);
+        this.representations.addAll(strings().internAll(representations));
         return this;
     }
 
     public HintsBuilder acceptingForPut(final String... representations) {
-        this.acceptPut.addAll(asList(representations));
+        this.acceptPut.addAll(strings().internAll(asList(representations)));
         return this;
     }
 
     public HintsBuilder acceptingForPut(final List<String> representations) {
-        this.acceptPut.addAll(representations);
+        this.acceptPut.addAll(strings().internAll(representations));
         return this;
     }
 
     public HintsBuilder acceptingForPost(final String... representations) {
-        acceptPost.addAll(asList(representations));
+        acceptPost.addAll(strings().internAll(asList(representations)));
         return this;
     }
 
     public HintsBuilder acceptingForPost(final List<String> representations) {
-        acceptPost.addAll(representations);
+        acceptPost.addAll(strings().internAll(representations));
         return this;
     }
 
     public HintsBuilder acceptingForPatch(final String... representations) {
-        acceptPatch.addAll(asList(representations));
+        acceptPatch.addAll(strings().internAll(asList(representations)));
         return this;
     }
 
     public HintsBuilder acceptingForPatch(final List<String> representations) {
-        acceptPatch.addAll(representations);
+        acceptPatch.addAll(strings().internAll(representations));
         return this;
     }
 
     public HintsBuilder acceptingRanges(final String... ranges) {
-        this.acceptRanges.addAll(asList(ranges));
+        this.acceptRanges.addAll(strings().internAll(asList(ranges)));
         return this;
     }
 
     public HintsBuilder acceptingRanges(final List<String> ranges) {
-        this.acceptRanges.addAll(ranges);
+        this.acceptRanges.addAll(strings().internAll(ranges));
         return this;
     }
 
     public HintsBuilder preferring(final String... preferences) {
-        this.preferences.addAll(asList(preferences));
+        this.preferences.addAll(strings().internAll(asList(preferences)));
         return this;
     }
 
     public HintsBuilder preferring(final List<String> preferences) {
-        this.preferences.addAll(preferences);
+        this.preferences.addAll(strings().internAll(preferences));
         return this;
     }
 
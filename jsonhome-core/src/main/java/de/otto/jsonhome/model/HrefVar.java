@@ -18,6 +18,8 @@ package de.otto.jsonhome.model;
 import java.net.URI;
 
 import static de.otto.jsonhome.model.Documentation.emptyDocs;
+import static de.otto.jsonhome.model.InternPool.strings;
+import static de.otto.jsonhome.model.InternPool.uris;
 
 /**
  * A single href-var used to describe the href-vars of templated resource links.
@@ -36,8 +38,8 @@ public final class HrefVar {
 
 
     private HrefVar(final String var, final URI varType, final Documentation docs) {
-        this.var = var;
-        this.varType = varType;
+        this.var = strings().intern(var);
+        this.varType = uris().intern(varType);
         this.docs = docs;
     }
 
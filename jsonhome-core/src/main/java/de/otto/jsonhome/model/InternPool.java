@@ -0,0 +1,242 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.model;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A pool of canonical instances of immutable values, similar to {@link String#intern()}.
+ *
+ * Json-home documents repeat the same values many times: media types like "application/json", var-type URIs,
+ * authentication schemes and, in aggregated registry documents, relation types and hrefs of every snapshot. The
+ * factory methods and builders of the json-home model use the shared pools {@link #strings()} and {@link #uris()},
+ * so equal values read by the parser or created by the generators share a single instance.
+ *
+ * URIs are pooled by their string representation: URI.equals() ignores the case of the scheme, the host and of
+ * escaped octets, so two equal URIs may be spelled differently, and interning must not replace one spelling by the
+ * other.
+ *
+ * The pool only holds weak references to the canonical instances: values that are not referenced anymore are
+ * removed from the pool by the garbage collector.
+ *
+ * This implementation is thread-safe. The pool is split into a number of independently locked segments, so
+ * concurrent threads are rarely blocked.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class InternPool<T> {
+
+    private static final int SEGMENTS = 16;
+
+    private static final InternPool<String> STRINGS = internPool(InternPool::estimatedSizeOf);
+    private static final InternPool<URI> URIS = internPool(InternPool::estimatedSizeOf, URI::toString);
+
+    private final List<Map<Object, WeakReference<T>>> segments;
+    private final ToLongFunction<T> sizeEstimator;
+    private final Function<T, ?> keyFunction;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    private InternPool(final ToLongFunction<T> sizeEstimator, final Function<T, ?> keyFunction) {
+        this.sizeEstimator = sizeEstimator;
+        this.keyFunction = keyFunction;
+        this.segments = new ArrayList<>(SEGMENTS);
+        for (int i = 0; i < SEGMENTS; ++i) {
+            segments.add(new WeakHashMap<>());
+        }
+    }
+
+    /**
+     * Creates a new, empty InternPool.
+     *
+     * @param sizeEstimator function used to estimate the number of bytes of the heap occupied by a value.
+     * @param <T> the type of the pooled values. Values must be immutable and implement equals() and hashCode().
+     * @return InternPool
+     */
+    public static <T> InternPool<T> internPool(final ToLongFunction<T> sizeEstimator) {
+        return new InternPool<>(sizeEstimator, Function.identity());
+    }
+
+    /**
+     * Creates a new, empty InternPool that identifies values by a key, instead of the values themselves. Only
+     * values having equal keys are replaced by a canonical instance.
+     *
+     * @param sizeEstimator function used to estimate the number of bytes of the heap occupied by a value.
+     * @param keyFunction function returning the key of a value. Keys must implement equals() and hashCode().
+     * @param <T> the type of the pooled values. Values must be immutable.
+     * @return InternPool
+     */
+    public static <T> InternPool<T> internPool(final ToLongFunction<T> sizeEstimator,
+                                               final Function<T, ?> keyFunction) {
+        return new InternPool<>(sizeEstimator, keyFunction);
+    }
+
+    /**
+     * The pool of Strings shared by the json-home model.
+     *
+     * @return InternPool of Strings
+     */
+    public static InternPool<String> strings() {
+        return STRINGS;
+    }
+
+    /**
+     * The pool of URIs shared by the json-home model.
+     *
+     * @return InternPool of URIs
+     */
+    public static InternPool<URI> uris() {
+        return URIS;
+    }
+
+    /**
+     * Returns the canonical instance of the value. If the pool does not yet contain an equal value, the value
+     * becomes the canonical instance.
+     *
+     * @param value the value. May be null.
+     * @return canonical instance equal to value, or null if value is null.
+     */
+    public T intern(final T value) {
+        if (value == null) {
+            return null;
+        }
+        lookups.incrementAndGet();
+        final Object key = keyFunction.apply(value);
+        final Map<Object, WeakReference<T>> segment = segments.get((key.hashCode() & 0x7fffffff) % SEGMENTS);
+        synchronized (segment) {
+            final WeakReference<T> reference = segment.get(key);
+            final T canonical = reference != null ? reference.get() : null;
+            if (canonical != null) {
+                if (canonical != value) {
+                    hits.incrementAndGet();
+                    bytesSaved.addAndGet(sizeEstimator.applyAsLong(value));
+                }
+                return canonical;
+            }
+            segment.put(key, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    /**
+     * Returns the canonical instances of the values.
+     *
+     * @param values the values. The collection is not modified.
+     * @return list of canonical instances, in the order of the values.
+     */
+    public List<T> internAll(final Collection<? extends T> values) {
+        final List<T> result = new ArrayList<>(values.size());
+        for (final T value : values) {
+            result.add(intern(value));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the current statistics of the pool.
+     *
+     * @return Statistics
+     */
+    public Statistics getStatistics() {
+        int size = 0;
+        for (final Map<Object, WeakReference<T>> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new Statistics(lookups.get(), hits.get(), size, bytesSaved.get());
+    }
+
+    static long estimatedSizeOf(final String s) {
+        // object header and fields of the String, plus the header of the char array; aligned to 8 bytes:
+        return 24 + ((16 + 2L * s.length() + 7) & ~7L);
+    }
+
+    static long estimatedSizeOf(final URI uri) {
+        // the URI object itself, plus the full string and, roughly, the parsed components of the same length:
+        return 80 + 2 * estimatedSizeOf(uri.toString());
+    }
+
+    /**
+     * Statistics of an InternPool.
+     */
+    public static final class Statistics {
+        private final long lookups;
+        private final long hits;
+        private final int size;
+        private final long estimatedBytesSaved;
+
+        private Statistics(final long lookups, final long hits, final int size, final long estimatedBytesSaved) {
+            this.lookups = lookups;
+            this.hits = hits;
+            this.size = size;
+            this.estimatedBytesSaved = estimatedBytesSaved;
+        }
+
+        /**
+         * @return number of non-null values passed to {@link InternPool#intern(Object)}.
+         */
+        public long getLookups() {
+            return lookups;
+        }
+
+        /**
+         * @return number of values that were replaced by an equal canonical instance.
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return number of canonical instances currently contained in the pool.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * The estimated number of bytes of all values that were replaced by their canonical instances. The
+         * duplicates are not referenced by the json-home model and may be garbage collected.
+         *
+         * @return estimated bytes
+         */
+        public long getEstimatedBytesSaved() {
+            return estimatedBytesSaved;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{" +
+                    "lookups=" + lookups +
+                    ", hits=" + hits +
+                    ", size=" + size +
+                    ", estimatedBytesSaved=" + estimatedBytesSaved +
+                    '}';
+        }
+    }
+}
@@ -15,11 +15,9 @@
  */
 package de.otto.jsonhome.model;
 
-import java.net.URI;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+
+import static de.otto.jsonhome.model.ResourceLinkMerger.resourceLinkMerger;
 
 /**
  * A helper class used to handle ResourceLink instances.
@@ -29,43 +27,39 @@ public final class ResourceLinkHelper {
     private ResourceLinkHelper() {
     }
 
+    /**
+     * Merges two lists of ResourceLinks into one list of {@link ResourceLink#mergeWith(de.otto.jsonhome.model.ResourceLink) merged} instances.
+     *
+     * @param resourceLinks the list of resource links. This list will not be modified.
+     * @param other the other list of resource links. This list will not be modified.
+     * @return a list of merged resource links.
+     * @see ResourceLinkMerger
+     */
     public static List<? extends ResourceLink> mergeResources(final List<? extends ResourceLink> resourceLinks,
                                                     final List<? extends ResourceLink> other) {
         if (other.isEmpty()) {
             return resourceLinks;
         } else {
-            List<? extends ResourceLink> result = resourceLinks;
-            for (final ResourceLink resourceLink : other) {
-                result = mergeResources(result, resourceLink);
-            }
-            return result;
+            return resourceLinkMerger()
+                    .mergeAll(resourceLinks)
+                    .mergeAll(other)
+                    .getResourceLinks();
         }
     }
 
     /**
-     * Merges two lists of ResourceLinks into one list of {@link ResourceLink#mergeWith(de.otto.jsonhome.model.ResourceLink) merged} instances.
+     * Merges a ResourceLink into a list of ResourceLinks, returning a list of {@link ResourceLink#mergeWith(de.otto.jsonhome.model.ResourceLink) merged} instances.
      *
      * @param resourceLinks the list of resource links. This list will not be modified.
-     * @param other the other list of resource links. This list will not be modified.
+     * @param other the other resource link. May be null.
      * @return a list of merged resource links.
+     * @see ResourceLinkMerger
      */
     public static List<? extends ResourceLink> mergeResources(final List<? extends ResourceLink> resourceLinks,
                                                     final ResourceLink other) {
-        final List<ResourceLink> allCandidates = new ArrayList<ResourceLink>(resourceLinks);
-        if (other != null) {
-            allCandidates.add(other);
-        }
-        final Map<URI, ResourceLink> resourceLinkCandidates = new LinkedHashMap<URI, ResourceLink>();
-        for (final ResourceLink candidate : allCandidates) {
-            final URI linkRelationType = candidate.getLinkRelationType();
-            final ResourceLink existingCandidate = resourceLinkCandidates.get(linkRelationType);
-            if (existingCandidate != null) {
-                // merge the candidates, they are belonging to the same resource link
-                resourceLinkCandidates.put(linkRelationType, existingCandidate.mergeWith(candidate));
-            } else {
-                resourceLinkCandidates.put(linkRelationType, candidate);
-            }
-        }
-        return new ArrayList<ResourceLink>(resourceLinkCandidates.values());
+        return resourceLinkMerger()
+                .mergeAll(resourceLinks)
+                .merge(other)
+                .getResourceLinks();
     }
-}
\ No newline at end of file
+}
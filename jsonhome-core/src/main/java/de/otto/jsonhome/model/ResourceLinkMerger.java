@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.model;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mutable accumulator used to merge ResourceLinks having the same link-relation type.
+ *
+ * ResourceLinks are {@link ResourceLink#mergeWith(ResourceLink) merged} with the previously added link of the same
+ * link-relation type, if any. Merging a link does not copy the links added before, so merging n links is O(n)
+ * instead of the O(n^2) of repeatedly calling
+ * {@link ResourceLinkHelper#mergeResources(java.util.List, ResourceLink)}.
+ *
+ * The merged links are returned in the order of the first occurrence of their link-relation types.
+ *
+ * This implementation is not thread-safe.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class ResourceLinkMerger {
+
+    private final Map<URI, ResourceLink> resourceLinks = new LinkedHashMap<>();
+
+    private ResourceLinkMerger() {
+    }
+
+    public static ResourceLinkMerger resourceLinkMerger() {
+        return new ResourceLinkMerger();
+    }
+
+    /**
+     * Merges a ResourceLink into the accumulated links.
+     *
+     * @param resourceLink the link to merge. null is ignored.
+     * @return this
+     * @throws IllegalArgumentException if the link can not be merged with the link of the same relation type.
+     */
+    public ResourceLinkMerger merge(final ResourceLink resourceLink) {
+        if (resourceLink != null) {
+            final URI linkRelationType = resourceLink.getLinkRelationType();
+            final ResourceLink existing = resourceLinks.get(linkRelationType);
+            resourceLinks.put(linkRelationType, existing != null ? existing.mergeWith(resourceLink) : resourceLink);
+        }
+        return this;
+    }
+
+    /**
+     * Merges a number of ResourceLinks into the accumulated links.
+     *
+     * @param resourceLinks the links to merge. The collection is not modified.
+     * @return this
+     * @throws IllegalArgumentException if a link can not be merged with the link of the same relation type.
+     */
+    public ResourceLinkMerger mergeAll(final Collection<? extends ResourceLink> resourceLinks) {
+        for (final ResourceLink resourceLink : resourceLinks) {
+            merge(resourceLink);
+        }
+        return this;
+    }
+
+    /**
+     * @return true if no link was merged so far.
+     */
+    public boolean isEmpty() {
+        return resourceLinks.isEmpty();
+    }
+
+    /**
+     * Returns a new list containing the merged ResourceLinks.
+     *
+     * @return list of merged resource links.
+     */
+    public List<ResourceLink> getResourceLinks() {
+        return new ArrayList<>(resourceLinks.values());
+    }
+
+}
@@ -18,19 +18,21 @@ package de.otto.jsonhome.model;
 import java.net.URI;
 import java.util.*;
 
-import static com.damnhandy.uri.template.UriTemplate.fromTemplate;
+import static de.otto.jsonhome.model.InternPool.strings;
+import static de.otto.jsonhome.model.InternPool.uris;
+import static de.otto.jsonhome.model.UriTemplate.uriTemplate;
 import static java.lang.String.format;
 import static java.net.URI.create;
-import static java.util.Collections.singletonMap;
+import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
 
 /**
  * A templated resource link, referring to a REST resource using <a href="http://tools.ietf.org/html/rfc6570">RFC6570 URI Templates</a>
  *
  * The template processor supports <a href="http://tools.ietf.org/html/rfc6570#section-1.2">levels
- * 1 through 4</a> as well as supports composite types. In addition to supporting {@link Map}
- * and {@link List} values as composite types, the library also supports the use of Java objects
- * as well.
+ * 1 through 4</a> as well as composite types: {@link Map} values are expanded as associative arrays,
+ * {@link Collection} and array values as lists. Other objects are expanded using their toString() method.
+ * The template is {@link UriTemplate compiled} on first expansion and reused afterwards.
  *
  * In order to access the resource, you can expand the URI template to an URI like this:
  * <pre>
@@ -52,7 +54,6 @@ import static java.util.Collections.unmodifiableList;
  *
  * This implementation is immutable.
  *
- * @see <a href="ryan@damnhandy.com">Ryan J. McDonough</a>
  * @see <a href="http://tools.ietf.org/html/draft-nottingham-json-home-02#section-4.1">http://tools.ietf.org/html/draft-nottingham-json-home-02#section-4.1</a>
  * @author Guido Steinacker
  * @since 15.09.12
@@ -63,13 +64,18 @@ public final class TemplatedLink implements ResourceLink {
     private final String hrefTemplate;
     private final List<HrefVar> hrefVars;
     private final Hints hints;
+    /**
+     * The compiled template, created on first expansion. CompiledTemplate is immutable, so it is safe to
+     * publish it without synchronization: in the worst case, the template is compiled more than once.
+     */
+    private volatile CompiledTemplate compiledTemplate;
 
     private TemplatedLink(final URI relationType,
                           final String hrefTemplate,
                           final Collection<HrefVar> hrefVars,
                           final Hints hints) {
-        this.relationType = relationType;
-        this.hrefTemplate = hrefTemplate;
+        this.relationType = uris().intern(relationType);
+        this.hrefTemplate = strings().intern(hrefTemplate);
         this.hrefVars = unmodifiableList(new ArrayList<>(hrefVars));
         this.hints = hints;
     }
@@ -129,50 +135,60 @@ public final class TemplatedLink implements ResourceLink {
         throw new IllegalStateException("not a direct link");
     }
 
+    /**
+     * Expands the URI template using the values of the href-vars.
+     *
+     * @param values a map of var-type URIs to the values of the href-vars.
+     * @return expanded URI
+     * @throws IllegalArgumentException if a var-type is not used in this templated link, or if the template is malformed.
+     */
     public URI expandToUri(final Map<URI, Object> values) {
-        final Map<String, Object> varNameToValueMap = new HashMap<>();
-        for (Map.Entry<URI, Object> entry : values.entrySet()) {
-            final HrefVar hrefVar = getHrefVar(entry.getKey());
-            if (hrefVar == null) {
-                throw new IllegalArgumentException("TemplatedLink does not define a HrefVar for " + entry.getKey());
-            }
-            varNameToValueMap.put(hrefVar.getVar(), entry.getValue());
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] positionalValues = compiled.newValues();
+        for (final Map.Entry<URI, Object> entry : values.entrySet()) {
+            compiled.set(positionalValues, entry.getKey(), entry.getValue());
         }
-        return create(fromTemplate(hrefTemplate).expand(varNameToValueMap));
+        return compiled.expandToUri(positionalValues);
     }
 
     public URI expandToUri(final URI hrefVarBarUri, final Object value) {
-        return expandToUri(singletonMap(hrefVarBarUri, value));
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri, value);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
                            final URI hrefVarBarUri1, final Object value1) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
                            final URI hrefVarBarUri1, final Object value1,
                            final URI hrefVarBarUri2, final Object value2) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        values.put(hrefVarBarUri2, value2);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        compiled.set(values, hrefVarBarUri2, value2);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
                            final URI hrefVarBarUri1, final Object value1,
                            final URI hrefVarBarUri2, final Object value2,
                            final URI hrefVarBarUri3, final Object value3) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        values.put(hrefVarBarUri2, value2);
-        values.put(hrefVarBarUri3, value3);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        compiled.set(values, hrefVarBarUri2, value2);
+        compiled.set(values, hrefVarBarUri3, value3);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
@@ -180,13 +196,14 @@ public final class TemplatedLink implements ResourceLink {
                            final URI hrefVarBarUri2, final Object value2,
                            final URI hrefVarBarUri3, final Object value3,
                            final URI hrefVarBarUri4, final Object value4) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        values.put(hrefVarBarUri2, value2);
-        values.put(hrefVarBarUri3, value3);
-        values.put(hrefVarBarUri4, value4);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        compiled.set(values, hrefVarBarUri2, value2);
+        compiled.set(values, hrefVarBarUri3, value3);
+        compiled.set(values, hrefVarBarUri4, value4);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
@@ -195,14 +212,15 @@ public final class TemplatedLink implements ResourceLink {
                            final URI hrefVarBarUri3, final Object value3,
                            final URI hrefVarBarUri4, final Object value4,
                            final URI hrefVarBarUri5, final Object value5) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        values.put(hrefVarBarUri2, value2);
-        values.put(hrefVarBarUri3, value3);
-        values.put(hrefVarBarUri4, value4);
-        values.put(hrefVarBarUri5, value5);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        compiled.set(values, hrefVarBarUri2, value2);
+        compiled.set(values, hrefVarBarUri3, value3);
+        compiled.set(values, hrefVarBarUri4, value4);
+        compiled.set(values, hrefVarBarUri5, value5);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
@@ -212,15 +230,16 @@ public final class TemplatedLink implements ResourceLink {
                            final URI hrefVarBarUri4, final Object value4,
                            final URI hrefVarBarUri5, final Object value5,
                            final URI hrefVarBarUri6, final Object value6) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        values.put(hrefVarBarUri2, value2);
-        values.put(hrefVarBarUri3, value3);
-        values.put(hrefVarBarUri4, value4);
-        values.put(hrefVarBarUri5, value5);
-        values.put(hrefVarBarUri6, value6);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        compiled.set(values, hrefVarBarUri2, value2);
+        compiled.set(values, hrefVarBarUri3, value3);
+        compiled.set(values, hrefVarBarUri4, value4);
+        compiled.set(values, hrefVarBarUri5, value5);
+        compiled.set(values, hrefVarBarUri6, value6);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
@@ -231,16 +250,17 @@ public final class TemplatedLink implements ResourceLink {
                            final URI hrefVarBarUri5, final Object value5,
                            final URI hrefVarBarUri6, final Object value6,
                            final URI hrefVarBarUri7, final Object value7) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        values.put(hrefVarBarUri2, value2);
-        values.put(hrefVarBarUri3, value3);
-        values.put(hrefVarBarUri4, value4);
-        values.put(hrefVarBarUri5, value5);
-        values.put(hrefVarBarUri6, value6);
-        values.put(hrefVarBarUri7, value7);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        compiled.set(values, hrefVarBarUri2, value2);
+        compiled.set(values, hrefVarBarUri3, value3);
+        compiled.set(values, hrefVarBarUri4, value4);
+        compiled.set(values, hrefVarBarUri5, value5);
+        compiled.set(values, hrefVarBarUri6, value6);
+        compiled.set(values, hrefVarBarUri7, value7);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
@@ -252,17 +272,18 @@ public final class TemplatedLink implements ResourceLink {
                            final URI hrefVarBarUri6, final Object value6,
                            final URI hrefVarBarUri7, final Object value7,
                            final URI hrefVarBarUri8, final Object value8) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        values.put(hrefVarBarUri2, value2);
-        values.put(hrefVarBarUri3, value3);
-        values.put(hrefVarBarUri4, value4);
-        values.put(hrefVarBarUri5, value5);
-        values.put(hrefVarBarUri6, value6);
-        values.put(hrefVarBarUri7, value7);
-        values.put(hrefVarBarUri8, value8);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        compiled.set(values, hrefVarBarUri2, value2);
+        compiled.set(values, hrefVarBarUri3, value3);
+        compiled.set(values, hrefVarBarUri4, value4);
+        compiled.set(values, hrefVarBarUri5, value5);
+        compiled.set(values, hrefVarBarUri6, value6);
+        compiled.set(values, hrefVarBarUri7, value7);
+        compiled.set(values, hrefVarBarUri8, value8);
+        return compiled.expandToUri(values);
     }
 
     public URI expandToUri(final URI hrefVarBarUri0, final Object value0,
@@ -275,18 +296,59 @@ public final class TemplatedLink implements ResourceLink {
                            final URI hrefVarBarUri7, final Object value7,
                            final URI hrefVarBarUri8, final Object value8,
                            final URI hrefVarBarUri9, final Object value9) {
-        final Map<URI, Object> values = new HashMap<>();
-        values.put(hrefVarBarUri0, value0);
-        values.put(hrefVarBarUri1, value1);
-        values.put(hrefVarBarUri2, value2);
-        values.put(hrefVarBarUri3, value3);
-        values.put(hrefVarBarUri4, value4);
-        values.put(hrefVarBarUri5, value5);
-        values.put(hrefVarBarUri6, value6);
-        values.put(hrefVarBarUri7, value7);
-        values.put(hrefVarBarUri8, value8);
-        values.put(hrefVarBarUri9, value9);
-        return expandToUri(values);
+        final CompiledTemplate compiled = compiledTemplate();
+        final Object[] values = compiled.newValues();
+        compiled.set(values, hrefVarBarUri0, value0);
+        compiled.set(values, hrefVarBarUri1, value1);
+        compiled.set(values, hrefVarBarUri2, value2);
+        compiled.set(values, hrefVarBarUri3, value3);
+        compiled.set(values, hrefVarBarUri4, value4);
+        compiled.set(values, hrefVarBarUri5, value5);
+        compiled.set(values, hrefVarBarUri6, value6);
+        compiled.set(values, hrefVarBarUri7, value7);
+        compiled.set(values, hrefVarBarUri8, value8);
+        compiled.set(values, hrefVarBarUri9, value9);
+        return compiled.expandToUri(values);
+    }
+
+    /**
+     * Returns an expander that expands the URI template using positional values for the specified var-types.
+     *
+     * @param varTypes the var-types of the values, in the order used to call the expander.
+     * @return TemplatedLinkExpander
+     * @throws IllegalArgumentException if a var-type is not used in this templated link, or if the template is malformed.
+     */
+    public TemplatedLinkExpander expanderFor(final URI... varTypes) {
+        return expanderFor(asList(varTypes));
+    }
+
+    /**
+     * Returns an expander that expands the URI template using positional values for the specified var-types.
+     *
+     * @param varTypes the var-types of the values, in the order used to call the expander.
+     * @return TemplatedLinkExpander
+     * @throws IllegalArgumentException if a var-type is not used in this templated link, or if the template is malformed.
+     */
+    public TemplatedLinkExpander expanderFor(final List<URI> varTypes) {
+        final CompiledTemplate compiled = compiledTemplate();
+        final int[] positions = new int[compiled.uriTemplate.getVariableNames().size()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < varTypes.size(); ++i) {
+            final int index = compiled.indexOf(varTypes.get(i));
+            if (index >= 0) {
+                positions[index] = i;
+            }
+        }
+        return new TemplatedLinkExpander(compiled.uriTemplate, new ArrayList<>(varTypes), positions);
+    }
+
+    private CompiledTemplate compiledTemplate() {
+        CompiledTemplate compiled = compiledTemplate;
+        if (compiled == null) {
+            compiled = new CompiledTemplate(uriTemplate(hrefTemplate), hrefVars);
+            compiledTemplate = compiled;
+        }
+        return compiled;
     }
 
     @Override
@@ -358,4 +420,45 @@ public final class TemplatedLink implements ResourceLink {
                 '}';
     }
 
+    /**
+     * The compiled URI template, together with the positions of the href-vars in the template's variables.
+     */
+    private static final class CompiledTemplate {
+        private final UriTemplate uriTemplate;
+        private final Map<URI, Integer> variableIndexes;
+
+        CompiledTemplate(final UriTemplate uriTemplate, final List<HrefVar> hrefVars) {
+            this.uriTemplate = uriTemplate;
+            this.variableIndexes = new HashMap<>();
+            for (final HrefVar hrefVar : hrefVars) {
+                if (!variableIndexes.containsKey(hrefVar.getVarType())) {
+                    variableIndexes.put(hrefVar.getVarType(), uriTemplate.indexOf(hrefVar.getVar()));
+                }
+            }
+        }
+
+        Object[] newValues() {
+            return new Object[uriTemplate.getVariableNames().size()];
+        }
+
+        void set(final Object[] values, final URI varType, final Object value) {
+            final int index = indexOf(varType);
+            if (index >= 0) {
+                values[index] = value;
+            }
+        }
+
+        int indexOf(final URI varType) {
+            final Integer index = variableIndexes.get(varType);
+            if (index == null) {
+                throw new IllegalArgumentException("TemplatedLink does not define a HrefVar for " + varType);
+            }
+            return index;
+        }
+
+        URI expandToUri(final Object[] values) {
+            return create(uriTemplate.expand(values));
+        }
+    }
+
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.model;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+import static java.net.URI.create;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Expands the URI template of a {@link TemplatedLink} using positional values for a fixed list of var-types.
+ *
+ * Expanders are intended for situations where the same templated link is expanded many times, for example
+ * when rendering the links of all products in a list:
+ * <pre>
+ * {@code
+ *     TemplatedLinkExpander expander = productLink.expanderFor(productIdVarType, variationIdVarType);
+ *     StringBuilder sb = new StringBuilder();
+ *     Object[] values = new Object[2];
+ *     for (Product product : products) {
+ *         values[0] = product.getId();
+ *         values[1] = product.getVariationId();
+ *         sb.setLength(0);
+ *         expander.expandTo(sb, values);
+ *         // use sb...
+ *     }
+ * }
+ * </pre>
+ * The expansion itself does not allocate any objects: values are encoded directly into the StringBuilder or
+ * Appendable, CharSequences are not converted to Strings, and Integer, Long, Short and Byte values are appended
+ * without creating Strings. Callers who want to avoid the allocation of varargs arrays should reuse an
+ * Object[], as shown above, or use {@link #expandAllTo(Appendable, Object[], CharSequence)} to expand many
+ * tuples of values in one call.
+ *
+ * Var-types that are defined by the templated link, but not used in the template, are ignored. Variables of
+ * the template that are not bound to one of the var-types are undefined.
+ *
+ * This implementation is immutable and thread-safe.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class TemplatedLinkExpander {
+
+    private final UriTemplate uriTemplate;
+    private final List<URI> varTypes;
+    private final int[] positions;
+
+    TemplatedLinkExpander(final UriTemplate uriTemplate, final List<URI> varTypes, final int[] positions) {
+        this.uriTemplate = uriTemplate;
+        this.varTypes = unmodifiableList(varTypes);
+        this.positions = positions;
+    }
+
+    /**
+     * @return the var-types bound to the positional values, in the order of the values.
+     */
+    public List<URI> getVarTypes() {
+        return varTypes;
+    }
+
+    /**
+     * Expands the template and appends the result to the StringBuilder.
+     *
+     * @param sb the target of the expanded template.
+     * @param values one value per var-type, in the order of {@link #getVarTypes()}.
+     * @throws IllegalArgumentException if the number of values does not match the number of var-types.
+     */
+    public void expandTo(final StringBuilder sb, final Object... values) {
+        try {
+            expandTo((Appendable) sb, values);
+        } catch (final IOException e) {
+            // not thrown by StringBuilder
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Expands the template and appends the result to the Appendable.
+     *
+     * @param appendable the target of the expanded template.
+     * @param values one value per var-type, in the order of {@link #getVarTypes()}.
+     * @throws IllegalArgumentException if the number of values does not match the number of var-types.
+     * @throws IOException if appending to the Appendable fails.
+     */
+    public void expandTo(final Appendable appendable, final Object... values) throws IOException {
+        if (values.length != varTypes.size()) {
+            throw new IllegalArgumentException(
+                    "Expected " + varTypes.size() + " values for var-types " + varTypes + ", got " + values.length);
+        }
+        uriTemplate.expandTo(appendable, values, 0, positions);
+    }
+
+    /**
+     * Expands the template once for every tuple of values and appends the results to the Appendable.
+     *
+     * The tuples are stored one after another in a single array: the values of the n-th expansion are
+     * tuples[n * k] to tuples[n * k + k - 1], where k is the number of var-types.
+     *
+     * @param appendable the target of the expanded templates.
+     * @param tuples the values of all expansions.
+     * @param separator appended between two expanded templates.
+     * @throws IllegalArgumentException if the length of the array is not a multiple of the number of var-types.
+     * @throws IOException if appending to the Appendable fails.
+     */
+    public void expandAllTo(final Appendable appendable,
+                            final Object[] tuples,
+                            final CharSequence separator) throws IOException {
+        final int arity = varTypes.size();
+        if (arity == 0 || tuples.length % arity != 0) {
+            throw new IllegalArgumentException(
+                    "Expected a multiple of " + arity + " values for var-types " + varTypes + ", got " + tuples.length);
+        }
+        for (int offset = 0; offset < tuples.length; offset += arity) {
+            if (offset > 0) {
+                appendable.append(separator);
+            }
+            uriTemplate.expandTo(appendable, tuples, offset, positions);
+        }
+    }
+
+    /**
+     * Expands the template once for every tuple of values and appends the results to the Appendable.
+     *
+     * @param appendable the target of the expanded templates.
+     * @param tuples the values of all expansions, one array per expansion.
+     * @param separator appended between two expanded templates.
+     * @throws IllegalArgumentException if the length of a tuple does not match the number of var-types.
+     * @throws IOException if appending to the Appendable fails.
+     */
+    public void expandAllTo(final Appendable appendable,
+                            final Iterable<Object[]> tuples,
+                            final CharSequence separator) throws IOException {
+        boolean first = true;
+        for (final Object[] tuple : tuples) {
+            if (!first) {
+                appendable.append(separator);
+            }
+            first = false;
+            expandTo(appendable, tuple);
+        }
+    }
+
+    /**
+     * Expands the template to a String.
+     *
+     * @param values one value per var-type, in the order of {@link #getVarTypes()}.
+     * @return expanded template
+     */
+    public String expand(final Object... values) {
+        final StringBuilder sb = new StringBuilder(uriTemplate.getTemplate().length() + 16 * values.length);
+        expandTo(sb, values);
+        return sb.toString();
+    }
+
+    /**
+     * Expands the template to an URI.
+     *
+     * @param values one value per var-type, in the order of {@link #getVarTypes()}.
+     * @return expanded URI
+     */
+    public URI expandToUri(final Object... values) {
+        return create(expand(values));
+    }
+
+    @Override
+    public String toString() {
+        return "TemplatedLinkExpander{" +
+                "uriTemplate=" + uriTemplate +
+                ", varTypes=" + varTypes +
+                '}';
+    }
+}
@@ -0,0 +1,623 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.model;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.*;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A compiled <a href="http://tools.ietf.org/html/rfc6570">RFC 6570 URI Template</a>.
+ *
+ * The template is parsed once into a sequence of literal and expression segments. Expanding the template is a
+ * single walk over these segments, without parsing the template again. All four levels of RFC 6570 are supported,
+ * including the operators +, #, ., /, ;, ? and &amp;, prefix modifiers and exploded variables.
+ *
+ * Values of variables may be
+ * <ul>
+ *     <li>null, meaning that the variable is undefined,</li>
+ *     <li>a {@link Collection} or an array, used as a list value,</li>
+ *     <li>a {@link Map}, used as an associative array,</li>
+ *     <li>any other object. The value is the String returned by toString().</li>
+ * </ul>
+ * Empty lists and maps are treated as undefined, as specified in RFC 6570.
+ *
+ * This implementation is immutable and thread-safe.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class UriTemplate {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final String template;
+    private final List<String> variableNames;
+    private final Segment[] segments;
+
+    private UriTemplate(final String template) {
+        this.template = template;
+        final List<String> names = new ArrayList<>();
+        final List<Segment> parsedSegments = new ArrayList<>();
+        int pos = 0;
+        while (pos < template.length()) {
+            final int start = template.indexOf('{', pos);
+            if (start < 0) {
+                parsedSegments.add(new Literal(template.substring(pos)));
+                break;
+            }
+            if (start > pos) {
+                parsedSegments.add(new Literal(template.substring(pos, start)));
+            }
+            final int end = template.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Malformed uri template " + template + ": missing '}'");
+            }
+            parsedSegments.add(expressionFrom(template.substring(start + 1, end), names));
+            pos = end + 1;
+        }
+        this.variableNames = unmodifiableList(names);
+        this.segments = parsedSegments.toArray(new Segment[parsedSegments.size()]);
+    }
+
+    /**
+     * Compiles an URI template.
+     *
+     * @param template the URI template, for example http://example.org/products/{productId}{?page,pageSize}
+     * @return compiled UriTemplate
+     * @throws IllegalArgumentException if the template is malformed.
+     */
+    public static UriTemplate uriTemplate(final String template) {
+        return new UriTemplate(template);
+    }
+
+    /**
+     * @return the uncompiled URI template.
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Returns the names of the variables used in the template, in the order of their first appearance.
+     *
+     * @return unmodifiable list of variable names.
+     */
+    public List<String> getVariableNames() {
+        return variableNames;
+    }
+
+    /**
+     * Returns the position of a variable in {@link #getVariableNames()}, or -1 if the variable is not used in
+     * the template.
+     *
+     * @param variableName the name of the variable
+     * @return index of the variable
+     */
+    public int indexOf(final String variableName) {
+        return variableNames.indexOf(variableName);
+    }
+
+    /**
+     * Expands the template using the values of a map of variable names to values.
+     *
+     * @param values the values of the variables, accessed by name.
+     * @return expanded template
+     */
+    public String expand(final Map<String, ?> values) {
+        final Object[] positionalValues = new Object[variableNames.size()];
+        for (int i = 0; i < positionalValues.length; ++i) {
+            positionalValues[i] = values.get(variableNames.get(i));
+        }
+        return expand(positionalValues);
+    }
+
+    /**
+     * Expands the template using positional values. The value of the variable at position i in
+     * {@link #getVariableNames()} is the i-th value of the array.
+     *
+     * @param values the values of the variables. Missing values at the end of the array are undefined.
+     * @return expanded template
+     */
+    public String expand(final Object... values) {
+        final StringBuilder sb = new StringBuilder(template.length() + 16 * variableNames.size());
+        try {
+            expandTo(sb, values);
+        } catch (final IOException e) {
+            // not thrown by StringBuilder
+            throw new IllegalStateException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Expands the template using positional values and appends the result to the Appendable.
+     *
+     * @param appendable the target of the expanded template.
+     * @param values the values of the variables, as described in {@link #expand(Object...)}
+     * @throws IOException if appending to the Appendable fails.
+     */
+    public void expandTo(final Appendable appendable, final Object[] values) throws IOException {
+        expandTo(appendable, values, 0, null);
+    }
+
+    /**
+     * Expands the template using values taken from a slice of an array, and appends the result to the Appendable.
+     *
+     * The value of the variable at position i in {@link #getVariableNames()} is values[offset + positions[i]].
+     * Variables with a negative position are undefined. If positions is null, the variable at position i has
+     * the value values[offset + i].
+     *
+     * No objects are allocated, except by the Appendable or by the toString() methods of the values. Integral
+     * numbers are appended without converting them to Strings.
+     *
+     * @param appendable the target of the expanded template.
+     * @param values the values of the variables.
+     * @param offset the offset of the first value in the array.
+     * @param positions the positions of the template's variables in the slice, or null.
+     * @throws IOException if appending to the Appendable fails.
+     */
+    void expandTo(final Appendable appendable,
+                  final Object[] values,
+                  final int offset,
+                  final int[] positions) throws IOException {
+        for (final Segment segment : segments) {
+            segment.expandTo(appendable, values, offset, positions);
+        }
+    }
+
+    private static Expression expressionFrom(final String expression, final List<String> names) {
+        if (expression.isEmpty()) {
+            throw new IllegalArgumentException("Malformed uri template: empty expression");
+        }
+        final Operator operator = Operator.of(expression.charAt(0));
+        final String varList = operator == Operator.SIMPLE ? expression : expression.substring(1);
+        final List<VarSpec> varSpecs = new ArrayList<>();
+        for (final String varSpec : varList.split(",", -1)) {
+            varSpecs.add(varSpecFrom(varSpec, names));
+        }
+        return new Expression(operator, varSpecs.toArray(new VarSpec[varSpecs.size()]));
+    }
+
+    private static VarSpec varSpecFrom(final String varSpec, final List<String> names) {
+        String name = varSpec;
+        boolean explode = false;
+        int maxLength = 0;
+        if (varSpec.endsWith("*")) {
+            explode = true;
+            name = varSpec.substring(0, varSpec.length() - 1);
+        } else {
+            final int colon = varSpec.indexOf(':');
+            if (colon >= 0) {
+                name = varSpec.substring(0, colon);
+                try {
+                    maxLength = Integer.parseInt(varSpec.substring(colon + 1));
+                } catch (final NumberFormatException e) {
+                    maxLength = -1;
+                }
+                if (maxLength <= 0 || maxLength >= 10000) {
+                    throw new IllegalArgumentException("Malformed uri template: illegal prefix modifier in " + varSpec);
+                }
+            }
+        }
+        if (!isVarName(name)) {
+            throw new IllegalArgumentException("Malformed uri template: illegal variable name '" + name + "'");
+        }
+        int index = names.indexOf(name);
+        if (index < 0) {
+            index = names.size();
+            names.add(name);
+        }
+        return new VarSpec(name, index, maxLength, explode);
+    }
+
+    private static boolean isVarName(final String name) {
+        if (name.isEmpty() || name.startsWith(".") || name.endsWith(".")) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); ++i) {
+            final char c = name.charAt(i);
+            if (!(isAlphaOrDigit(c) || c == '_' || c == '.' || c == '%')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends a value to the appendable, percent-encoding all characters that are not allowed.
+     *
+     * @param appendable target
+     * @param value the value to encode
+     * @param maxLength the maximum number of characters (code points) to append. 0 appends the whole value.
+     * @param allowReserved true, if reserved characters and percent-encoded triplets are passed unchanged.
+     */
+    static void appendEncoded(final Appendable appendable,
+                              final CharSequence value,
+                              final int maxLength,
+                              final boolean allowReserved) throws IOException {
+        final int length = value.length();
+        int codePoints = 0;
+        for (int i = 0; i < length; ++i) {
+            if (maxLength > 0 && codePoints++ == maxLength) {
+                return;
+            }
+            final char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                appendable.append(c);
+            } else if (allowReserved && (isReserved(c) || isPctEncoded(value, i))) {
+                appendable.append(c);
+            } else if (c < 0x80) {
+                appendPctEncoded(appendable, c);
+            } else {
+                int codePoint = c;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    codePoint = Character.toCodePoint(c, value.charAt(++i));
+                }
+                appendUtf8PctEncoded(appendable, codePoint);
+            }
+        }
+    }
+
+    private static void appendUtf8PctEncoded(final Appendable appendable, final int codePoint) throws IOException {
+        if (codePoint < 0x800) {
+            appendPctEncoded(appendable, 0xC0 | (codePoint >> 6));
+            appendPctEncoded(appendable, 0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            appendPctEncoded(appendable, 0xE0 | (codePoint >> 12));
+            appendPctEncoded(appendable, 0x80 | ((codePoint >> 6) & 0x3F));
+            appendPctEncoded(appendable, 0x80 | (codePoint & 0x3F));
+        } else {
+            appendPctEncoded(appendable, 0xF0 | (codePoint >> 18));
+            appendPctEncoded(appendable, 0x80 | ((codePoint >> 12) & 0x3F));
+            appendPctEncoded(appendable, 0x80 | ((codePoint >> 6) & 0x3F));
+            appendPctEncoded(appendable, 0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    /**
+     * Appends the decimal digits of an integral number, without creating a String.
+     */
+    static void appendDigits(final Appendable appendable, final long number) throws IOException {
+        if (number == Long.MIN_VALUE) {
+            appendable.append("-9223372036854775808");
+            return;
+        }
+        long value = number;
+        if (value < 0) {
+            appendable.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            appendable.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private static void appendPctEncoded(final Appendable appendable, final int b) throws IOException {
+        appendable.append('%').append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+    }
+
+    private static boolean isAlphaOrDigit(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isUnreserved(final char c) {
+        return isAlphaOrDigit(c) || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    private static boolean isReserved(final char c) {
+        return ":/?#[]@!$&'()*+,;=".indexOf(c) >= 0;
+    }
+
+    private static boolean isPctEncoded(final CharSequence value, final int i) {
+        return value.charAt(i) == '%'
+                && i + 2 < value.length()
+                && isHexDigit(value.charAt(i + 1))
+                && isHexDigit(value.charAt(i + 2));
+    }
+
+    private static boolean isHexDigit(final char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return template.equals(((UriTemplate) o).template);
+    }
+
+    @Override
+    public int hashCode() {
+        return template.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * The operators of RFC 6570 expressions, together with their expansion rules.
+     *
+     * @see <a href="http://tools.ietf.org/html/rfc6570#appendix-A">RFC 6570, Appendix A</a>
+     */
+    private enum Operator {
+        SIMPLE("", ",", false, "", false),
+        RESERVED("", ",", false, "", true),
+        FRAGMENT("#", ",", false, "", true),
+        LABEL(".", ".", false, "", false),
+        PATH_SEGMENT("/", "/", false, "", false),
+        PATH_PARAMETER(";", ";", true, "", false),
+        QUERY("?", "&", true, "=", false),
+        QUERY_CONTINUATION("&", "&", true, "=", false);
+
+        final String first;
+        final String separator;
+        final boolean named;
+        final String ifEmpty;
+        final boolean allowReserved;
+
+        Operator(final String first,
+                 final String separator,
+                 final boolean named,
+                 final String ifEmpty,
+                 final boolean allowReserved) {
+            this.first = first;
+            this.separator = separator;
+            this.named = named;
+            this.ifEmpty = ifEmpty;
+            this.allowReserved = allowReserved;
+        }
+
+        static Operator of(final char c) {
+            switch (c) {
+                case '+': return RESERVED;
+                case '#': return FRAGMENT;
+                case '.': return LABEL;
+                case '/': return PATH_SEGMENT;
+                case ';': return PATH_PARAMETER;
+                case '?': return QUERY;
+                case '&': return QUERY_CONTINUATION;
+                case '=': case ',': case '!': case '@': case '|':
+                    throw new IllegalArgumentException("Malformed uri template: reserved operator " + c);
+                default: return SIMPLE;
+            }
+        }
+    }
+
+    private static abstract class Segment {
+        abstract void expandTo(Appendable appendable, Object[] values, int offset, int[] positions) throws IOException;
+    }
+
+    private static final class Literal extends Segment {
+        private final String encoded;
+
+        Literal(final String literal) {
+            final StringBuilder sb = new StringBuilder(literal.length());
+            try {
+                appendEncoded(sb, literal, 0, true);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+            this.encoded = sb.toString();
+        }
+
+        @Override
+        void expandTo(final Appendable appendable,
+                      final Object[] values,
+                      final int offset,
+                      final int[] positions) throws IOException {
+            appendable.append(encoded);
+        }
+    }
+
+    private static final class VarSpec {
+        final String name;
+        final int index;
+        final int maxLength;
+        final boolean explode;
+
+        VarSpec(final String name, final int index, final int maxLength, final boolean explode) {
+            this.name = name;
+            this.index = index;
+            this.maxLength = maxLength;
+            this.explode = explode;
+        }
+    }
+
+    private static final class Expression extends Segment {
+        private final Operator op;
+        private final VarSpec[] varSpecs;
+
+        Expression(final Operator op, final VarSpec[] varSpecs) {
+            this.op = op;
+            this.varSpecs = varSpecs;
+        }
+
+        @Override
+        void expandTo(final Appendable appendable,
+                      final Object[] values,
+                      final int offset,
+                      final int[] positions) throws IOException {
+            boolean first = true;
+            for (final VarSpec varSpec : varSpecs) {
+                final int position = positions != null ? positions[varSpec.index] : varSpec.index;
+                final Object value = position >= 0 && offset + position < values.length
+                        ? values[offset + position]
+                        : null;
+                if (isUndefined(value)) {
+                    continue;
+                }
+                appendable.append(first ? op.first : op.separator);
+                first = false;
+                if (value instanceof Map) {
+                    appendMap(appendable, varSpec, (Map<?, ?>) value);
+                } else if (value instanceof Collection) {
+                    appendList(appendable, varSpec, (Collection<?>) value);
+                } else if (value.getClass().isArray()) {
+                    appendList(appendable, varSpec, arrayAsList(value));
+                } else if (isIntegral(value) && varSpec.maxLength == 0) {
+                    if (op.named) {
+                        appendable.append(varSpec.name).append('=');
+                    }
+                    appendDigits(appendable, ((Number) value).longValue());
+                } else {
+                    appendScalar(appendable, varSpec, stringOf(value));
+                }
+            }
+        }
+
+        private void appendScalar(final Appendable appendable,
+                                  final VarSpec varSpec,
+                                  final CharSequence value) throws IOException {
+            if (op.named) {
+                appendable.append(varSpec.name);
+                if (value.length() == 0) {
+                    appendable.append(op.ifEmpty);
+                    return;
+                }
+                appendable.append('=');
+            }
+            appendEncoded(appendable, value, varSpec.maxLength, op.allowReserved);
+        }
+
+        private void appendList(final Appendable appendable,
+                                final VarSpec varSpec,
+                                final Collection<?> list) throws IOException {
+            boolean first = true;
+            if (!varSpec.explode) {
+                if (op.named) {
+                    appendable.append(varSpec.name).append('=');
+                }
+                for (final Object item : list) {
+                    if (item != null) {
+                        if (!first) {
+                            appendable.append(',');
+                        }
+                        first = false;
+                        appendEncoded(appendable, stringOf(item), 0, op.allowReserved);
+                    }
+                }
+            } else {
+                for (final Object item : list) {
+                    if (item != null) {
+                        if (!first) {
+                            appendable.append(op.separator);
+                        }
+                        first = false;
+                        final CharSequence value = stringOf(item);
+                        if (op.named) {
+                            appendable.append(varSpec.name);
+                            if (value.length() == 0) {
+                                appendable.append(op.ifEmpty);
+                                continue;
+                            }
+                            appendable.append('=');
+                        }
+                        appendEncoded(appendable, value, 0, op.allowReserved);
+                    }
+                }
+            }
+        }
+
+        private void appendMap(final Appendable appendable,
+                               final VarSpec varSpec,
+                               final Map<?, ?> map) throws IOException {
+            boolean first = true;
+            if (!varSpec.explode) {
+                if (op.named) {
+                    appendable.append(varSpec.name).append('=');
+                }
+                for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getValue() != null) {
+                        if (!first) {
+                            appendable.append(',');
+                        }
+                        first = false;
+                        appendEncoded(appendable, stringOf(entry.getKey()), 0, op.allowReserved);
+                        appendable.append(',');
+                        appendEncoded(appendable, stringOf(entry.getValue()), 0, op.allowReserved);
+                    }
+                }
+            } else {
+                for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getValue() != null) {
+                        if (!first) {
+                            appendable.append(op.separator);
+                        }
+                        first = false;
+                        appendEncoded(appendable, stringOf(entry.getKey()), 0, op.allowReserved);
+                        final CharSequence value = stringOf(entry.getValue());
+                        if (op.named && value.length() == 0) {
+                            appendable.append(op.ifEmpty);
+                        } else {
+                            appendable.append('=');
+                            appendEncoded(appendable, value, 0, op.allowReserved);
+                        }
+                    }
+                }
+            }
+        }
+
+        private static boolean isUndefined(final Object value) {
+            if (value == null) {
+                return true;
+            } else if (value instanceof Collection) {
+                for (final Object item : (Collection<?>) value) {
+                    if (item != null) {
+                        return false;
+                    }
+                }
+                return true;
+            } else if (value instanceof Map) {
+                for (final Object item : ((Map<?, ?>) value).values()) {
+                    if (item != null) {
+                        return false;
+                    }
+                }
+                return true;
+            } else if (value.getClass().isArray()) {
+                return isUndefined(arrayAsList(value));
+            }
+            return false;
+        }
+
+        private static boolean isIntegral(final Object value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+        }
+
+        private static List<Object> arrayAsList(final Object array) {
+            final int length = Array.getLength(array);
+            final List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; ++i) {
+                list.add(Array.get(array, i));
+            }
+            return list;
+        }
+
+        private static CharSequence stringOf(final Object value) {
+            return value instanceof CharSequence ? (CharSequence) value : value.toString();
+        }
+    }
+}
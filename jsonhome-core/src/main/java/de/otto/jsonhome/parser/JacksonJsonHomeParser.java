@@ -18,11 +18,14 @@ package de.otto.jsonhome.parser;
 
 import de.otto.jsonhome.model.*;
 import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -39,33 +42,60 @@ import static de.otto.jsonhome.model.HrefVar.hrefVar;
 import static de.otto.jsonhome.model.JsonHomeBuilder.jsonHomeBuilder;
 import static de.otto.jsonhome.model.Precondition.preconditionOf;
 import static de.otto.jsonhome.model.TemplatedLink.templatedLink;
+import static org.codehaus.jackson.JsonToken.*;
 
 /**
  * A JsonHomeParser that is implemented using Jackson.
  *
+ * The parser supports two {@link Mode modes}: by default, the document is read in a single pass from the token
+ * stream of a Jackson JsonParser, without creating a tree of JsonNodes first. The TREE mode reads the document
+ * into a tree of JsonNodes before the JsonHome is created. Both modes create the same JsonHome instances.
+ *
  * @author Guido Steinacker
  * @since 26.10.12
  */
 public class JacksonJsonHomeParser implements JsonHomeParser {
 
+    /**
+     * The different ways a document is parsed.
+     */
+    public enum Mode {
+        /** The document is parsed into a tree of JsonNodes first. */
+        TREE,
+        /** The document is parsed in a single pass from the stream of JSON tokens. */
+        STREAMING
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(JacksonJsonHomeParser.class);
 
     public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    private final Mode mode;
+
+    /**
+     * Creates a JacksonJsonHomeParser using the STREAMING mode.
+     */
+    public JacksonJsonHomeParser() {
+        this(Mode.STREAMING);
+    }
+
+    /**
+     * Creates a JacksonJsonHomeParser using the specified mode.
+     *
+     * @param mode the Mode used to parse documents.
+     */
+    public JacksonJsonHomeParser(final Mode mode) {
+        this.mode = mode;
+    }
+
     @Override
     public JsonHome parse(final InputStream stream) {
         try {
-            final JsonNode jsonNode = OBJECT_MAPPER.readTree(stream);
-            if (jsonNode != null && jsonNode.has("resources")) {
-                final JsonHomeBuilder builder = jsonHomeBuilder();
-                final JsonNode resourcesNode = jsonNode.get("resources");
-                final Iterator<String> fieldNames = resourcesNode.getFieldNames();
-                while (fieldNames.hasNext()) {
-                    final String fieldName = fieldNames.next();
-                    final JsonNode resourceNode = resourcesNode.get(fieldName);
-                    builder.addResource(resourceLinkFrom(URI.create(fieldName), resourceNode));
-                }
-                return builder.build();
+            final JsonHome jsonHome = mode == Mode.STREAMING
+                    ? jsonHomeFrom(OBJECT_MAPPER.getJsonFactory().createJsonParser(stream))
+                    : jsonHomeFrom(OBJECT_MAPPER.readTree(stream));
+            if (jsonHome != null) {
+                return jsonHome;
             }
         } catch (final JsonProcessingException e) {
             LOG.error("Unable to parse json-home document: {}", e.getMessage());
@@ -78,6 +108,21 @@ public class JacksonJsonHomeParser implements JsonHomeParser {
         throw new IllegalArgumentException("Unable to parse json-home document: no resources defined.");
     }
 
+    private JsonHome jsonHomeFrom(final JsonNode jsonNode) {
+        if (jsonNode != null && jsonNode.has("resources")) {
+            final JsonHomeBuilder builder = jsonHomeBuilder();
+            final JsonNode resourcesNode = jsonNode.get("resources");
+            final Iterator<String> fieldNames = resourcesNode.getFieldNames();
+            while (fieldNames.hasNext()) {
+                final String fieldName = fieldNames.next();
+                final JsonNode resourceNode = resourcesNode.get(fieldName);
+                builder.addResource(resourceLinkFrom(URI.create(fieldName), resourceNode));
+            }
+            return builder.build();
+        }
+        return null;
+    }
+
     private ResourceLink resourceLinkFrom(final URI relationTypeUri, final JsonNode resourceLinkNode) {
         if (resourceLinkNode.has("href")) {
             return directLink(
@@ -199,4 +244,239 @@ public class JacksonJsonHomeParser implements JsonHomeParser {
         }
         return builder.build();
     }
+
+    private JsonHome jsonHomeFrom(final JsonParser parser) throws IOException {
+        try {
+            final JsonToken firstToken = parser.nextToken();
+            if (firstToken == null) {
+                // same as ObjectMapper.readTree(), used by the TREE mode:
+                throw new EOFException("No content to map to Object due to end of input");
+            }
+            JsonHome jsonHome = null;
+            if (firstToken == START_OBJECT) {
+                while (parser.nextToken() == FIELD_NAME) {
+                    final String fieldName = parser.getCurrentName();
+                    final JsonToken token = parser.nextToken();
+                    if (fieldName.equals("resources")) {
+                        jsonHome = resourcesFrom(parser, token);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            return jsonHome;
+        } finally {
+            parser.close();
+        }
+    }
+
+    private JsonHome resourcesFrom(final JsonParser parser, final JsonToken token) throws IOException {
+        final JsonHomeBuilder builder = jsonHomeBuilder();
+        if (token == START_OBJECT) {
+            while (parser.nextToken() == FIELD_NAME) {
+                final URI relationTypeUri = URI.create(parser.getCurrentName());
+                builder.addResource(resourceLinkFrom(relationTypeUri, parser, parser.nextToken()));
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return builder.build();
+    }
+
+    private ResourceLink resourceLinkFrom(final URI relationTypeUri,
+                                          final JsonParser parser,
+                                          final JsonToken token) throws IOException {
+        if (token != START_OBJECT) {
+            parser.skipChildren();
+            throw new IllegalArgumentException("Unable to parse json-home document: resource " + relationTypeUri + " is not an object.");
+        }
+        boolean hasHref = false;
+        String href = null;
+        String hrefTemplate = null;
+        List<HrefVar> hrefVars = null;
+        Hints hints = null;
+        while (parser.nextToken() == FIELD_NAME) {
+            final String fieldName = parser.getCurrentName();
+            final JsonToken valueToken = parser.nextToken();
+            switch (fieldName) {
+                case "href":
+                    hasHref = true;
+                    href = textFrom(parser, valueToken);
+                    break;
+                case "href-template":
+                    hrefTemplate = textFrom(parser, valueToken);
+                    break;
+                case "href-vars":
+                    hrefVars = hrefVarsFrom(parser, valueToken);
+                    break;
+                case "hints":
+                    hints = hintsFrom(parser, valueToken);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (hints == null) {
+            hints = hintsBuilder().build();
+        }
+        if (hasHref) {
+            return directLink(relationTypeUri, URI.create(href), hints);
+        } else {
+            if (hrefVars == null) {
+                throw new IllegalStateException("Unable to construct a TemplatedLink without href-vars.");
+            }
+            return templatedLink(relationTypeUri, hrefTemplate, hrefVars, hints);
+        }
+    }
+
+    private List<HrefVar> hrefVarsFrom(final JsonParser parser, final JsonToken token) throws IOException {
+        if (token == START_OBJECT) {
+            final List<HrefVar> hrefVars = new ArrayList<HrefVar>();
+            while (parser.nextToken() == FIELD_NAME) {
+                final String varName = parser.getCurrentName();
+                hrefVars.add(hrefVar(varName, URI.create(textFrom(parser, parser.nextToken()))));
+            }
+            return hrefVars;
+        } else if (token == START_ARRAY) {
+            parser.skipChildren();
+            return new ArrayList<HrefVar>();
+        } else {
+            throw new IllegalStateException("Unable to construct a TemplatedLink without href-vars.");
+        }
+    }
+
+    private Hints hintsFrom(final JsonParser parser, final JsonToken token) throws IOException {
+        final HintsBuilder builder = hintsBuilder();
+        if (token != START_OBJECT) {
+            parser.skipChildren();
+            return builder.build();
+        }
+        boolean hasDocs = false;
+        URI docUri = null;
+        List<String> description = new ArrayList<String>();
+        String detailedDescription = null;
+        while (parser.nextToken() == FIELD_NAME) {
+            final String fieldName = parser.getCurrentName();
+            final JsonToken valueToken = parser.nextToken();
+            switch (fieldName) {
+                case "allow":
+                    for (final String allow : textsFrom(parser, valueToken)) {
+                        builder.allowing(Allow.valueOf(allow));
+                    }
+                    break;
+                case "representations":
+                    builder.representedAs(textsFrom(parser, valueToken));
+                    break;
+                case "docs":
+                    hasDocs = true;
+                    docUri = URI.create(textFrom(parser, valueToken));
+                    break;
+                case "description":
+                    hasDocs = true;
+                    description = textsFrom(parser, valueToken);
+                    break;
+                case "detailedDescription":
+                    hasDocs = true;
+                    detailedDescription = textFrom(parser, valueToken);
+                    break;
+                case "accept-ranges":
+                    builder.acceptingRanges(nonEmpty(textsFrom(parser, valueToken)));
+                    break;
+                case "prefer":
+                    builder.preferring(nonEmpty(textsFrom(parser, valueToken)));
+                    break;
+                case "precondition-req":
+                    for (final String precondition : nonEmpty(textsFrom(parser, valueToken))) {
+                        builder.requiring(preconditionOf(precondition));
+                    }
+                    break;
+                case "auth-req":
+                    builder.withAuthRequired(authReqFrom(parser, valueToken));
+                    break;
+                case "accept-put":
+                    builder.acceptingForPut(textsFrom(parser, valueToken));
+                    break;
+                case "accept-post":
+                    builder.acceptingForPost(textsFrom(parser, valueToken));
+                    break;
+                case "status":
+                    builder.withStatus(Status.valueOf(textFrom(parser, valueToken).toUpperCase()));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (hasDocs) {
+            builder.with(documentation(description, detailedDescription, docUri));
+        }
+        return builder.build();
+    }
+
+    private List<Authentication> authReqFrom(final JsonParser parser, final JsonToken token) throws IOException {
+        final List<Authentication> authentications = new ArrayList<Authentication>();
+        if (token != START_ARRAY) {
+            parser.skipChildren();
+            return authentications;
+        }
+        JsonToken elementToken;
+        while ((elementToken = parser.nextToken()) != END_ARRAY) {
+            if (elementToken != START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String scheme = null;
+            List<String> realms = new ArrayList<String>();
+            while (parser.nextToken() == FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken valueToken = parser.nextToken();
+                if (fieldName.equals("scheme")) {
+                    scheme = textFrom(parser, valueToken);
+                } else if (fieldName.equals("realms")) {
+                    realms = textsFrom(parser, valueToken);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            authentications.add(authReq(scheme, realms));
+        }
+        return authentications;
+    }
+
+    /**
+     * Returns the text of the current VALUE_STRING token, or null if the current value is not a string.
+     */
+    private String textFrom(final JsonParser parser, final JsonToken token) throws IOException {
+        if (token == VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * Returns the texts of the elements of the current array value, or an empty list if the current value is not
+     * an array.
+     */
+    private List<String> textsFrom(final JsonParser parser, final JsonToken token) throws IOException {
+        final List<String> texts = new ArrayList<String>();
+        if (token == START_ARRAY) {
+            JsonToken elementToken;
+            while ((elementToken = parser.nextToken()) != END_ARRAY) {
+                texts.add(textFrom(parser, elementToken));
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return texts;
+    }
+
+    private List<String> nonEmpty(final List<String> texts) {
+        final List<String> nonEmptyTexts = new ArrayList<String>(texts.size());
+        for (final String text : texts) {
+            if (!text.isEmpty()) {
+                nonEmptyTexts.add(text);
+            }
+        }
+        return nonEmptyTexts;
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.converter;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static de.otto.jsonhome.converter.ContentCoding.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class ContentCodingTest {
+
+    @Test
+    public void shouldUseIdentityWithoutAcceptEncoding() {
+        assertEquals(negotiate(null), IDENTITY);
+        assertEquals(negotiate(""), IDENTITY);
+        assertEquals(negotiate("br"), IDENTITY);
+    }
+
+    @Test
+    public void shouldPreferGzip() {
+        assertEquals(negotiate("gzip, deflate"), GZIP);
+        assertEquals(negotiate("deflate, gzip"), GZIP);
+        assertEquals(negotiate("x-gzip"), GZIP);
+        assertEquals(negotiate("*"), GZIP);
+    }
+
+    @Test
+    public void shouldRespectQualityValues() {
+        assertEquals(negotiate("gzip;q=0.5, deflate"), DEFLATE);
+        assertEquals(negotiate("gzip;q=0, deflate;q=0"), IDENTITY);
+        assertEquals(negotiate("gzip;q=0.5, identity"), IDENTITY);
+        assertEquals(negotiate("*;q=0, deflate"), DEFLATE);
+    }
+
+    @Test
+    public void shouldEncodeBytes() throws Exception {
+        // given
+        final byte[] bytes = "{\"resources\":{}}".getBytes(UTF_8);
+        // then
+        assertEquals(IDENTITY.encode(bytes), bytes);
+        assertEquals(decoded(new GZIPInputStream(new ByteArrayInputStream(GZIP.encode(bytes)))), bytes);
+        assertEquals(decoded(new InflaterInputStream(new ByteArrayInputStream(DEFLATE.encode(bytes)))), bytes);
+    }
+
+    private byte[] decoded(final InputStream stream) throws Exception {
+        final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int b;
+        while ((b = stream.read()) != -1) {
+            decoded.write(b);
+        }
+        return decoded.toByteArray();
+    }
+}
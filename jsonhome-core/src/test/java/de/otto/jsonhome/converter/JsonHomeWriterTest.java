@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.converter;
+
+import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.model.ResourceLink;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import static de.otto.jsonhome.converter.JsonHomeConverter.toRepresentation;
+import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSON;
+import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSONHOME;
+import static de.otto.jsonhome.converter.JsonHomeWriter.writeJsonHome;
+import static de.otto.jsonhome.fixtures.LinkFixtures.*;
+import static de.otto.jsonhome.model.Allow.*;
+import static de.otto.jsonhome.model.Authentication.authReq;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.Documentation.documentation;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.JsonHome.emptyJsonHome;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static de.otto.jsonhome.model.Precondition.ETAG;
+import static de.otto.jsonhome.model.Precondition.LAST_MODIFIED;
+import static de.otto.jsonhome.model.Status.DEPRECATED;
+import static java.net.URI.create;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class JsonHomeWriterTest {
+
+    private static final ResourceLink FULLY_DOCUMENTED_LINK = directLink(
+            create("http://example.org/rel/documented"),
+            create("http://example.org/documented"),
+            hintsBuilder()
+                    .allowing(GET, PUT, POST, PATCH, DELETE)
+                    .representedAs("text/html", "application/json")
+                    .acceptingForPut("application/json")
+                    .acceptingForPost("application/x-www-form-urlencoded")
+                    .acceptingForPatch("application/json-patch")
+                    .acceptingRanges("bytes")
+                    .preferring("return=minimal")
+                    .requiring(ETAG, LAST_MODIFIED)
+                    .withAuthRequired(asList(authReq("Basic", asList("foo", "bar")), authReq("Digest", asList("baz"))))
+                    .withStatus(DEPRECATED)
+                    .with(documentation(
+                            asList("A fully documented resource", "with two lines of description"),
+                            "<p>Some detailed description</p>",
+                            create("http://example.org/docs")))
+                    .build());
+
+    @Test
+    public void shouldWriteEmptyJsonHome() throws Exception {
+        assertEquals(written(emptyJsonHome(), APPLICATION_JSONHOME), "{\"resources\":{}}");
+    }
+
+    @Test
+    public void shouldWriteSameDocumentAsConverter() throws Exception {
+        // given
+        final JsonHome jsonHome = jsonHome(asList(STOREFRONT_LINK, SHOPPAGES_LINK, ABOUTPAGE_LINK, FULLY_DOCUMENTED_LINK));
+        // then
+        for (final JsonHomeMediaType mediaType : JsonHomeMediaType.values()) {
+            assertEquals(written(jsonHome, mediaType), converted(jsonHome, mediaType));
+        }
+    }
+
+    @Test
+    public void shouldOnlyWriteDescriptionsForApplicationJson() throws Exception {
+        // given
+        final JsonHome jsonHome = jsonHome(FULLY_DOCUMENTED_LINK);
+        // then
+        assertFalse(written(jsonHome, APPLICATION_JSONHOME).contains("detailedDescription"));
+        assertEquals(written(jsonHome, APPLICATION_JSON), converted(jsonHome, APPLICATION_JSON));
+    }
+
+    @Test
+    public void shouldNotCloseStream() throws Exception {
+        // given
+        final boolean[] closed = {false};
+        final OutputStream stream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        // when
+        writeJsonHome(jsonHome(STOREFRONT_LINK), APPLICATION_JSONHOME, stream);
+        // then
+        assertFalse(closed[0]);
+    }
+
+    private String written(final JsonHome jsonHome, final JsonHomeMediaType mediaType) throws Exception {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writeJsonHome(jsonHome, mediaType, stream);
+        return stream.toString("UTF-8");
+    }
+
+    private String converted(final JsonHome jsonHome, final JsonHomeMediaType mediaType) throws Exception {
+        return new ObjectMapper().writeValueAsString(toRepresentation(jsonHome, mediaType));
+    }
+}
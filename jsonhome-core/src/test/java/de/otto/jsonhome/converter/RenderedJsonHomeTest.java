@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.converter;
+
+import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.model.ResourceLink;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static de.otto.jsonhome.converter.ContentCoding.DEFLATE;
+import static de.otto.jsonhome.converter.ContentCoding.GZIP;
+import static de.otto.jsonhome.converter.ContentCoding.IDENTITY;
+import static de.otto.jsonhome.converter.JsonHomeConverter.toRepresentation;
+import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSON;
+import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSONHOME;
+import static de.otto.jsonhome.converter.RenderedJsonHome.renderedJsonHome;
+import static de.otto.jsonhome.fixtures.LinkFixtures.ABOUTPAGE_LINK;
+import static de.otto.jsonhome.fixtures.LinkFixtures.STOREFRONT_LINK;
+import static de.otto.jsonhome.model.Allow.GET;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.Documentation.documentation;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static java.net.URI.create;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class RenderedJsonHomeTest {
+
+    private static final JsonHome JSON_HOME = jsonHome(asList(STOREFRONT_LINK, ABOUTPAGE_LINK, directLink(
+            create("http://example.org/rel/documented"),
+            create("http://example.org/documented"),
+            hintsBuilder().allowing(GET).with(documentation(asList("A documented resource"), null, null)).build())));
+
+    @Test
+    public void shouldRenderSameDocumentAsConverter() throws Exception {
+        // given
+        final ObjectMapper objectMapper = new ObjectMapper();
+        // when
+        final RenderedJsonHome rendered = renderedJsonHome(JSON_HOME);
+        // then
+        for (final JsonHomeMediaType mediaType : JsonHomeMediaType.values()) {
+            final Map<?, ?> expected = objectMapper.readValue(
+                    objectMapper.writeValueAsBytes(toRepresentation(JSON_HOME, mediaType)), Map.class);
+            assertEquals(objectMapper.readValue(rendered.getBytes(mediaType), Map.class), expected);
+        }
+    }
+
+    @Test
+    public void shouldWriteBytesToStream() throws Exception {
+        // given
+        final RenderedJsonHome rendered = renderedJsonHome(JSON_HOME);
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        // when
+        rendered.writeTo(APPLICATION_JSONHOME, stream);
+        // then
+        assertEquals(stream.toByteArray(), rendered.getBytes(APPLICATION_JSONHOME));
+        assertEquals(stream.size(), rendered.getContentLength(APPLICATION_JSONHOME));
+    }
+
+    @Test
+    public void shouldHaveQuotedETagsPerMediaType() {
+        // when
+        final RenderedJsonHome rendered = renderedJsonHome(JSON_HOME);
+        // then
+        final String eTag = rendered.getETag(APPLICATION_JSONHOME);
+        assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+        assertNotEquals(eTag, rendered.getETag(APPLICATION_JSON));
+    }
+
+    @Test
+    public void shouldHaveSameETagForEqualDocuments() {
+        // when
+        final RenderedJsonHome first = renderedJsonHome(JSON_HOME);
+        final RenderedJsonHome second = renderedJsonHome(jsonHome(JSON_HOME.getResources().values()));
+        // then
+        assertEquals(first.getETag(APPLICATION_JSONHOME), second.getETag(APPLICATION_JSONHOME));
+    }
+
+    @Test
+    public void shouldBeNotModifiedIfETagMatches() {
+        // given
+        final RenderedJsonHome rendered = renderedJsonHome(JSON_HOME);
+        final String eTag = rendered.getETag(APPLICATION_JSONHOME);
+        // then
+        assertTrue(rendered.isNotModified(APPLICATION_JSONHOME, eTag));
+        assertTrue(rendered.isNotModified(APPLICATION_JSONHOME, "W/" + eTag));
+        assertTrue(rendered.isNotModified(APPLICATION_JSONHOME, "\"foo\", " + eTag));
+        assertTrue(rendered.isNotModified(APPLICATION_JSONHOME, "*"));
+    }
+
+    @Test
+    public void shouldBeModifiedIfETagDoesNotMatch() {
+        // given
+        final RenderedJsonHome rendered = renderedJsonHome(JSON_HOME);
+        // then
+        assertFalse(rendered.isNotModified(APPLICATION_JSONHOME, null));
+        assertFalse(rendered.isNotModified(APPLICATION_JSONHOME, ""));
+        assertFalse(rendered.isNotModified(APPLICATION_JSONHOME, "\"foo\""));
+        assertFalse(rendered.isNotModified(APPLICATION_JSONHOME, rendered.getETag(APPLICATION_JSON)));
+    }
+
+    @Test
+    public void shouldNotCompressSmallDocuments() {
+        // when
+        final RenderedJsonHome rendered = renderedJsonHome(JSON_HOME);
+        // then
+        assertEquals(rendered.contentCodingFor(APPLICATION_JSONHOME, "gzip, deflate"), IDENTITY);
+    }
+
+    @Test
+    public void shouldCompressLargeDocuments() throws Exception {
+        // given
+        final RenderedJsonHome rendered = renderedJsonHome(largeJsonHome());
+        // when
+        final ContentCoding coding = rendered.contentCodingFor(APPLICATION_JSON, "gzip, deflate");
+        // then
+        assertEquals(coding, GZIP);
+        final byte[] compressed = rendered.getBytes(APPLICATION_JSON, GZIP);
+        assertTrue(compressed.length < rendered.getContentLength(APPLICATION_JSON));
+        assertEquals(rendered.getContentLength(APPLICATION_JSON, GZIP), compressed.length);
+        final Map<?, ?> decompressed = new ObjectMapper().readValue(
+                new GZIPInputStream(new ByteArrayInputStream(compressed)), Map.class);
+        assertEquals(decompressed, new ObjectMapper().readValue(rendered.getBytes(APPLICATION_JSON), Map.class));
+    }
+
+    @Test
+    public void shouldHaveDifferentETagsPerContentCoding() {
+        // given
+        final RenderedJsonHome rendered = renderedJsonHome(largeJsonHome());
+        // when
+        final String gzipETag = rendered.getETag(APPLICATION_JSONHOME, GZIP);
+        // then
+        assertEquals(rendered.getETag(APPLICATION_JSONHOME, IDENTITY), rendered.getETag(APPLICATION_JSONHOME));
+        assertNotEquals(gzipETag, rendered.getETag(APPLICATION_JSONHOME, DEFLATE));
+        assertTrue(gzipETag.startsWith("\"") && gzipETag.endsWith("-gzip\""));
+        assertTrue(rendered.isNotModified(APPLICATION_JSONHOME, GZIP, gzipETag));
+        assertFalse(rendered.isNotModified(APPLICATION_JSONHOME, IDENTITY, gzipETag));
+    }
+
+    private JsonHome largeJsonHome() {
+        final List<ResourceLink> resources = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            resources.add(directLink(
+                    create("http://example.org/rel/resource" + i),
+                    create("http://example.org/resource" + i),
+                    hintsBuilder().allowing(GET).representedAs("text/html", "application/json").build()));
+        }
+        return jsonHome(resources);
+    }
+}
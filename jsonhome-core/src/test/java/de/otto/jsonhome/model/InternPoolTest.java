@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.model;
+
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.InternPool.internPool;
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class InternPoolTest {
+
+    @Test
+    public void shouldReturnCanonicalInstance() {
+        // given
+        final InternPool<String> pool = internPool(InternPool::estimatedSizeOf);
+        final String first = new String("application/json");
+        final String second = new String("application/json");
+        // when
+        final String internedFirst = pool.intern(first);
+        final String internedSecond = pool.intern(second);
+        // then
+        assertSame(internedFirst, first);
+        assertSame(internedSecond, first);
+    }
+
+    @Test
+    public void shouldIgnoreNull() {
+        // given
+        final InternPool<String> pool = internPool(InternPool::estimatedSizeOf);
+        // then
+        assertNull(pool.intern(null));
+        assertEquals(pool.getStatistics().getLookups(), 0);
+    }
+
+    @Test
+    public void shouldCountHitsAndSavedBytes() {
+        // given
+        final InternPool<URI> pool = internPool(InternPool::estimatedSizeOf);
+        final URI uri = URI.create("http://example.org/rel/foo");
+        // when
+        pool.intern(uri);
+        pool.intern(uri);
+        pool.intern(URI.create("http://example.org/rel/foo"));
+        pool.intern(URI.create("http://example.org/rel/bar"));
+        // then
+        final InternPool.Statistics statistics = pool.getStatistics();
+        assertEquals(statistics.getLookups(), 4);
+        assertEquals(statistics.getHits(), 1);
+        assertEquals(statistics.getSize(), 2);
+        assertEquals(statistics.getEstimatedBytesSaved(), InternPool.estimatedSizeOf(uri));
+    }
+
+    @Test
+    public void shouldShareValuesOfModel() {
+        // given
+        final ResourceLink first = directLink(
+                URI.create("http://example.org/rel/foo"),
+                URI.create("http://example.org/foo"),
+                hintsBuilder().representedAs(new String("text/html")).build());
+        final ResourceLink second = directLink(
+                URI.create("http://example.org/rel/foo"),
+                URI.create("http://example.org/foo"),
+                hintsBuilder().representedAs(new String("text/html")).build());
+        // then
+        assertSame(second.getLinkRelationType(), first.getLinkRelationType());
+        assertSame(second.asDirectLink().getHref(), first.asDirectLink().getHref());
+        assertSame(second.getHints().getRepresentations().get(0), first.getHints().getRepresentations().get(0));
+    }
+
+    @Test
+    public void shouldKeepSpellingOfEqualUris() {
+        // given
+        final URI upperCase = URI.create("http://Example.COM/intern/a%2f");
+        final URI lowerCase = URI.create("http://example.com/intern/a%2F");
+        assertEquals(upperCase, lowerCase);
+        // when
+        final ResourceLink first = directLink(URI.create("http://example.org/rel/intern"), upperCase, null);
+        final ResourceLink second = directLink(URI.create("http://example.org/rel/intern"), lowerCase, null);
+        // then
+        assertEquals(first.asDirectLink().getHref().toString(), "http://Example.COM/intern/a%2f");
+        assertEquals(second.asDirectLink().getHref().toString(), "http://example.com/intern/a%2F");
+        assertSame(InternPool.uris().intern(URI.create("http://example.com/intern/a%2F")), lowerCase);
+    }
+}
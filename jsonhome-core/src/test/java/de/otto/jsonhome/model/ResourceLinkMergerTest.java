@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.model;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static de.otto.jsonhome.fixtures.LinkFixtures.*;
+import static de.otto.jsonhome.model.Allow.GET;
+import static de.otto.jsonhome.model.Allow.POST;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.ResourceLinkMerger.resourceLinkMerger;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class ResourceLinkMergerTest {
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        assertTrue(resourceLinkMerger().isEmpty());
+        assertTrue(resourceLinkMerger().merge(null).getResourceLinks().isEmpty());
+    }
+
+    @Test
+    public void shouldKeepOrderOfFirstOccurrence() {
+        // when
+        final List<ResourceLink> resourceLinks = resourceLinkMerger()
+                .merge(STOREFRONT_LINK)
+                .mergeAll(asList(ABOUTPAGE_LINK, STOREFRONT_LINK, FOO_LINK))
+                .merge(ABOUTPAGE_LINK)
+                .getResourceLinks();
+        // then
+        assertEquals(resourceLinks, asList(STOREFRONT_LINK, ABOUTPAGE_LINK, FOO_LINK));
+    }
+
+    @Test
+    public void shouldMergeLinksOfSameRelationType() {
+        // given
+        final ResourceLink getLink = directLink(RESOURCELINK_FOO, ABS_STOREFRONT_HREF,
+                hintsBuilder().allowing(GET).representedAs("text/html").build());
+        final ResourceLink postLink = directLink(RESOURCELINK_FOO, ABS_STOREFRONT_HREF,
+                hintsBuilder().allowing(POST).representedAs("text/html").acceptingForPost("application/json").build());
+        // when
+        final List<ResourceLink> resourceLinks = resourceLinkMerger()
+                .merge(getLink)
+                .merge(postLink)
+                .getResourceLinks();
+        // then
+        assertEquals(resourceLinks, asList(getLink.mergeWith(postLink)));
+    }
+
+    @Test
+    public void shouldReturnSameResultAsResourceLinkHelper() {
+        // given
+        final List<ResourceLink> first = asList(STOREFRONT_LINK, ABOUTPAGE_LINK, STOREFRONT_LINK);
+        final List<ResourceLink> second = asList(SHOPPAGES_LINK, ABOUTPAGE_LINK, FOO_LINK);
+        // then
+        assertEquals(
+                resourceLinkMerger().mergeAll(first).mergeAll(second).getResourceLinks(),
+                ResourceLinkHelper.mergeResources(ResourceLinkHelper.mergeResources(first, (ResourceLink) null), second));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailToMergeDirectLinkWithTemplatedLink() {
+        resourceLinkMerger()
+                .merge(directLink(RESOURCELINK_SHOP_PAGE, ABS_SHOPPAGES_HREF, ABOUTPAGE_LINK.getHints()))
+                .merge(TemplatedLink.templatedLink(RESOURCELINK_SHOP_PAGE, REL_PAGE_HREF,
+                        ABOUTPAGE_LINK.asTemplatedLink().getHrefVars(), ABOUTPAGE_LINK.getHints()));
+    }
+}
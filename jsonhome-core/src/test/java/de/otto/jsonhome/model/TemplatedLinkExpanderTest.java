@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.model;
+
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static de.otto.jsonhome.model.HrefVar.hrefVar;
+import static de.otto.jsonhome.model.TemplatedLink.templatedLink;
+import static java.net.URI.create;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class TemplatedLinkExpanderTest {
+
+    private static final URI ID = create("http://example.org/vars/id");
+    private static final URI PAGE = create("http://example.org/vars/page");
+    private static final URI UNUSED = create("http://example.org/vars/unused");
+    private static final TemplatedLink TEMPLATED_LINK = templatedLink(
+            create("http://example.org/rel/product"),
+            "http://example.org/products/{id}{?page}",
+            asList(hrefVar("id", ID), hrefVar("page", PAGE), hrefVar("unused", UNUSED)),
+            null
+    );
+
+    @Test
+    public void shouldExpandPositionalValuesInOrderOfVarTypes() {
+        // given
+        final TemplatedLinkExpander expander = TEMPLATED_LINK.expanderFor(PAGE, ID);
+        // when
+        final StringBuilder sb = new StringBuilder();
+        expander.expandTo(sb, 2, "4711");
+        // then
+        assertEquals(sb.toString(), "http://example.org/products/4711?page=2");
+    }
+
+    @Test
+    public void shouldAppendToExistingContent() {
+        // given
+        final TemplatedLinkExpander expander = TEMPLATED_LINK.expanderFor(ID);
+        final StringBuilder sb = new StringBuilder("<a href=\"");
+        // when
+        expander.expandTo(sb, 42L);
+        // then
+        assertEquals(sb.append("\">").toString(), "<a href=\"http://example.org/products/42\">");
+    }
+
+    @Test
+    public void shouldTreatUnboundVariablesAsUndefined() {
+        // given
+        final TemplatedLinkExpander expander = TEMPLATED_LINK.expanderFor(PAGE);
+        // then
+        assertEquals(expander.expand(3), "http://example.org/products/?page=3");
+    }
+
+    @Test
+    public void shouldIgnoreVarTypesNotUsedInTemplate() {
+        // given
+        final TemplatedLinkExpander expander = TEMPLATED_LINK.expanderFor(ID, UNUSED);
+        // then
+        assertEquals(expander.expandToUri("42", "foo"), create("http://example.org/products/42"));
+    }
+
+    @Test
+    public void shouldExpandAllTuplesOfFlatArray() throws Exception {
+        // given
+        final TemplatedLinkExpander expander = TEMPLATED_LINK.expanderFor(ID, PAGE);
+        final StringBuilder sb = new StringBuilder();
+        // when
+        expander.expandAllTo(sb, new Object[] {1, null, 2, 5, -3, "x y"}, "\n");
+        // then
+        assertEquals(sb.toString(),
+                "http://example.org/products/1\n" +
+                "http://example.org/products/2?page=5\n" +
+                "http://example.org/products/-3?page=x%20y");
+    }
+
+    @Test
+    public void shouldExpandAllTuples() throws Exception {
+        // given
+        final TemplatedLinkExpander expander = TEMPLATED_LINK.expanderFor(ID);
+        final StringBuilder sb = new StringBuilder();
+        // when
+        expander.expandAllTo(sb, asList(new Object[] {"a"}, new Object[] {"b"}), ",");
+        // then
+        assertEquals(sb.toString(), "http://example.org/products/a,http://example.org/products/b");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailForUnknownVarType() {
+        TEMPLATED_LINK.expanderFor(create("http://example.org/vars/foo"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailForWrongNumberOfValues() {
+        TEMPLATED_LINK.expanderFor(ID, PAGE).expand("42");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailForIncompleteTuples() throws Exception {
+        TEMPLATED_LINK.expanderFor(ID, PAGE).expandAllTo(new StringBuilder(), new Object[] {1, 2, 3}, ",");
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.model;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static de.otto.jsonhome.model.UriTemplate.uriTemplate;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the expansion of URI templates, using the examples of
+ * <a href="http://tools.ietf.org/html/rfc6570#section-3.2">RFC 6570, section 3.2</a>.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class UriTemplateTest {
+
+    private static final Map<String, Object> VARIABLES = new HashMap<>();
+    static {
+        final Map<String, String> keys = new LinkedHashMap<>();
+        keys.put("semi", ";");
+        keys.put("dot", ".");
+        keys.put("comma", ",");
+        VARIABLES.put("count", asList("one", "two", "three"));
+        VARIABLES.put("dom", asList("example", "com"));
+        VARIABLES.put("dub", "me/too");
+        VARIABLES.put("hello", "Hello World!");
+        VARIABLES.put("half", "50%");
+        VARIABLES.put("var", "value");
+        VARIABLES.put("who", "fred");
+        VARIABLES.put("base", "http://example.com/home/");
+        VARIABLES.put("path", "/foo/bar");
+        VARIABLES.put("list", asList("red", "green", "blue"));
+        VARIABLES.put("keys", keys);
+        VARIABLES.put("v", "6");
+        VARIABLES.put("x", "1024");
+        VARIABLES.put("y", "768");
+        VARIABLES.put("empty", "");
+        VARIABLES.put("empty_keys", Collections.emptyMap());
+    }
+
+    @DataProvider(name = "rfc6570Examples")
+    public Object[][] rfc6570Examples() {
+        return new Object[][] {
+                // 3.2.1 / 3.2.2 simple string expansion
+                {"{var}", "value"},
+                {"{hello}", "Hello%20World%21"},
+                {"{half}", "50%25"},
+                {"O{empty}X", "OX"},
+                {"O{undef}X", "OX"},
+                {"{x,y}", "1024,768"},
+                {"{x,hello,y}", "1024,Hello%20World%21,768"},
+                {"?{x,empty}", "?1024,"},
+                {"?{x,undef}", "?1024"},
+                {"?{undef,y}", "?768"},
+                {"{var:3}", "val"},
+                {"{var:30}", "value"},
+                {"{list}", "red,green,blue"},
+                {"{list*}", "red,green,blue"},
+                {"{keys}", "semi,%3B,dot,.,comma,%2C"},
+                {"{keys*}", "semi=%3B,dot=.,comma=%2C"},
+                // 3.2.3 reserved expansion
+                {"{+var}", "value"},
+                {"{+hello}", "Hello%20World!"},
+                {"{+half}", "50%25"},
+                {"{base}index", "http%3A%2F%2Fexample.com%2Fhome%2Findex"},
+                {"{+base}index", "http://example.com/home/index"},
+                {"O{+empty}X", "OX"},
+                {"O{+undef}X", "OX"},
+                {"{+path}/here", "/foo/bar/here"},
+                {"here?ref={+path}", "here?ref=/foo/bar"},
+                {"up{+path}{var}/here", "up/foo/barvalue/here"},
+                {"{+x,hello,y}", "1024,Hello%20World!,768"},
+                {"{+path,x}/here", "/foo/bar,1024/here"},
+                {"{+path:6}/here", "/foo/b/here"},
+                {"{+list}", "red,green,blue"},
+                {"{+list*}", "red,green,blue"},
+                {"{+keys}", "semi,;,dot,.,comma,,"},
+                {"{+keys*}", "semi=;,dot=.,comma=,"},
+                // 3.2.4 fragment expansion
+                {"{#var}", "#value"},
+                {"{#hello}", "#Hello%20World!"},
+                {"{#half}", "#50%25"},
+                {"foo{#empty}", "foo#"},
+                {"foo{#undef}", "foo"},
+                {"{#x,hello,y}", "#1024,Hello%20World!,768"},
+                {"{#path,x}/here", "#/foo/bar,1024/here"},
+                {"{#path:6}/here", "#/foo/b/here"},
+                {"{#list}", "#red,green,blue"},
+                {"{#list*}", "#red,green,blue"},
+                {"{#keys}", "#semi,;,dot,.,comma,,"},
+                {"{#keys*}", "#semi=;,dot=.,comma=,"},
+                // 3.2.5 label expansion with dot-prefix
+                {"{.who}", ".fred"},
+                {"{.who,who}", ".fred.fred"},
+                {"{.half,who}", ".50%25.fred"},
+                {"www{.dom*}", "www.example.com"},
+                {"X{.var}", "X.value"},
+                {"X{.empty}", "X."},
+                {"X{.undef}", "X"},
+                {"X{.var:3}", "X.val"},
+                {"X{.list}", "X.red,green,blue"},
+                {"X{.list*}", "X.red.green.blue"},
+                {"X{.keys}", "X.semi,%3B,dot,.,comma,%2C"},
+                {"X{.keys*}", "X.semi=%3B.dot=..comma=%2C"},
+                {"X{.empty_keys}", "X"},
+                {"X{.empty_keys*}", "X"},
+                // 3.2.6 path segment expansion
+                {"{/who}", "/fred"},
+                {"{/who,who}", "/fred/fred"},
+                {"{/half,who}", "/50%25/fred"},
+                {"{/who,dub}", "/fred/me%2Ftoo"},
+                {"{/var}", "/value"},
+                {"{/var,empty}", "/value/"},
+                {"{/var,undef}", "/value"},
+                {"{/var,x}/here", "/value/1024/here"},
+                {"{/var:1,var}", "/v/value"},
+                {"{/list}", "/red,green,blue"},
+                {"{/list*}", "/red/green/blue"},
+                {"{/list*,path:4}", "/red/green/blue/%2Ffoo"},
+                {"{/keys}", "/semi,%3B,dot,.,comma,%2C"},
+                {"{/keys*}", "/semi=%3B/dot=./comma=%2C"},
+                // 3.2.7 path-style parameter expansion
+                {"{;who}", ";who=fred"},
+                {"{;half}", ";half=50%25"},
+                {"{;empty}", ";empty"},
+                {"{;v,empty,who}", ";v=6;empty;who=fred"},
+                {"{;v,bar,who}", ";v=6;who=fred"},
+                {"{;x,y}", ";x=1024;y=768"},
+                {"{;x,y,empty}", ";x=1024;y=768;empty"},
+                {"{;x,y,undef}", ";x=1024;y=768"},
+                {"{;hello:5}", ";hello=Hello"},
+                {"{;list}", ";list=red,green,blue"},
+                {"{;list*}", ";list=red;list=green;list=blue"},
+                {"{;keys}", ";keys=semi,%3B,dot,.,comma,%2C"},
+                {"{;keys*}", ";semi=%3B;dot=.;comma=%2C"},
+                // 3.2.8 form-style query expansion
+                {"{?who}", "?who=fred"},
+                {"{?half}", "?half=50%25"},
+                {"{?x,y}", "?x=1024&y=768"},
+                {"{?x,y,empty}", "?x=1024&y=768&empty="},
+                {"{?x,y,undef}", "?x=1024&y=768"},
+                {"{?var:3}", "?var=val"},
+                {"{?list}", "?list=red,green,blue"},
+                {"{?list*}", "?list=red&list=green&list=blue"},
+                {"{?keys}", "?keys=semi,%3B,dot,.,comma,%2C"},
+                {"{?keys*}", "?semi=%3B&dot=.&comma=%2C"},
+                // 3.2.9 form-style query continuation
+                {"{&who}", "&who=fred"},
+                {"{&half}", "&half=50%25"},
+                {"?fixed=yes{&x}", "?fixed=yes&x=1024"},
+                {"{&x,y,empty}", "&x=1024&y=768&empty="},
+                {"{&var:3}", "&var=val"},
+                {"{&list}", "&list=red,green,blue"},
+                {"{&list*}", "&list=red&list=green&list=blue"},
+                {"{&keys}", "&keys=semi,%3B,dot,.,comma,%2C"},
+                {"{&keys*}", "&semi=%3B&dot=.&comma=%2C"},
+        };
+    }
+
+    @Test(dataProvider = "rfc6570Examples")
+    public void shouldExpandRfc6570Examples(final String template, final String expected) {
+        assertEquals(uriTemplate(template).expand(VARIABLES), expected);
+    }
+
+    @Test
+    public void shouldExpandPositionalValues() {
+        // given
+        final UriTemplate uriTemplate = uriTemplate("http://example.org/{foo}{?bar,foo}");
+        // when
+        final String uri = uriTemplate.expand("42", 4711);
+        // then
+        assertEquals(uriTemplate.getVariableNames(), asList("foo", "bar"));
+        assertEquals(uri, "http://example.org/42?bar=4711&foo=42");
+    }
+
+    @Test
+    public void shouldEncodeNonAsciiCharactersAsUtf8() {
+        assertEquals(uriTemplate("/{var}").expand("Gr\u00fc\u00dfe \ud83d\ude00"), "/Gr%C3%BC%C3%9Fe%20%F0%9F%98%80");
+    }
+
+    @Test
+    public void shouldTruncatePrefixByCodePoints() {
+        assertEquals(uriTemplate("/{var:2}").expand("\ud83d\ude00ab"), "/%F0%9F%98%80a");
+    }
+
+    @Test
+    public void shouldExpandArraysAsLists() {
+        assertEquals(uriTemplate("{?list*}").expand(new Object[] {new int[] {1, 2}}), "?list=1&list=2");
+    }
+
+    @Test
+    public void shouldExpandIntegralNumbers() {
+        assertEquals(uriTemplate("{a,b,c,d}").expand(0, -42, Long.MAX_VALUE, Long.MIN_VALUE),
+                "0,-42,9223372036854775807,-9223372036854775808");
+        assertEquals(uriTemplate("{?a,b}").expand((short) 7, (byte) -1), "?a=7&b=-1");
+        assertEquals(uriTemplate("{a:2}").expand(4711), "47");
+    }
+
+    @Test
+    public void shouldEncodeIllegalCharactersInLiterals() {
+        assertEquals(uriTemplate("/foo bar/%20{var}").expand("x"), "/foo%20bar/%20x");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailForUnclosedExpression() {
+        uriTemplate("/foo/{bar");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailForEmptyExpression() {
+        uriTemplate("/foo/{}");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailForIllegalVariableName() {
+        uriTemplate("/foo/{b-r}");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailForIllegalPrefix() {
+        uriTemplate("/foo/{bar:0}");
+    }
+}
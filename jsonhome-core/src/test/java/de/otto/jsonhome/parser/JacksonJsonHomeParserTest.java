@@ -18,12 +18,18 @@ package de.otto.jsonhome.parser;
 
 import de.otto.jsonhome.model.JsonHome;
 import de.otto.jsonhome.model.Status;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.EnumSet;
 
+import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSON;
+import static de.otto.jsonhome.converter.JsonHomeWriter.writeJsonHome;
 import static de.otto.jsonhome.model.Allow.*;
 import static de.otto.jsonhome.model.Authentication.authReq;
 import static de.otto.jsonhome.model.DirectLink.directLink;
@@ -35,6 +41,8 @@ import static de.otto.jsonhome.model.JsonHome.jsonHome;
 import static de.otto.jsonhome.model.Precondition.ETAG;
 import static de.otto.jsonhome.model.Precondition.LAST_MODIFIED;
 import static de.otto.jsonhome.model.TemplatedLink.templatedLink;
+import static de.otto.jsonhome.parser.JacksonJsonHomeParser.Mode.STREAMING;
+import static de.otto.jsonhome.parser.JacksonJsonHomeParser.Mode.TREE;
 import static java.net.URI.create;
 import static java.util.Arrays.asList;
 import static org.testng.Assert.assertEquals;
@@ -270,4 +278,109 @@ public class JacksonJsonHomeParserTest {
         ));
     }
 
+    @DataProvider(name = "modes")
+    public Object[][] modes() {
+        return new Object[][] {{TREE}, {STREAMING}};
+    }
+
+    @Test
+    public void shouldParseSameJsonHomeInAllModes() throws Exception {
+        // given
+        final String jsonDocument = "{\n" +
+                "  \"unknown\" : { \"resources\" : [ 1, 2, { \"foo\" : \"bar\" } ] },\n" +
+                "  \"resources\" : {\n" +
+                "    \"http://example.org/rel/storefront\" : {\n" +
+                "      \"hints\" : {\n" +
+                "        \"allow\" : [ \"GET\", \"PUT\", \"POST\" ],\n" +
+                "        \"representations\" : [ \"text/html\", \"application/json\" ],\n" +
+                "        \"accept-put\" : [ \"application/json\" ],\n" +
+                "        \"accept-post\" : [ \"application/x-www-form-urlencoded\" ],\n" +
+                "        \"accept-ranges\" : [ \"bytes\", \"\" ],\n" +
+                "        \"prefer\" : [ \"return=minimal\" ],\n" +
+                "        \"precondition-req\" : [ \"etag\", \"last-modified\" ],\n" +
+                "        \"auth-req\" : [ { \"scheme\" : \"Basic\", \"realms\" : [ \"foo\" ] }, { \"scheme\" : \"Digest\" } ],\n" +
+                "        \"status\" : \"deprecated\",\n" +
+                "        \"unknown\" : { \"nested\" : [ true, null ] },\n" +
+                "        \"description\" : [ \"a short description\" ],\n" +
+                "        \"detailedDescription\" : \"<p>A detailed description.</p>\"\n" +
+                "      },\n" +
+                "      \"href\" : \"http://example.org/storefront\"\n" +
+                "    },\n" +
+                "    \"http://example.org/rel/product\" : {\n" +
+                "      \"href-template\" : \"http://example.org/products/{productId}\",\n" +
+                "      \"href-vars\" : { \"productId\" : \"http://example.org/vartype/productId\" }\n" +
+                "    }\n" +
+                "  }\n" +
+                "}";
+        // when
+        final JsonHome treeJsonHome = new JacksonJsonHomeParser(TREE)
+                .parse(new ByteArrayInputStream(jsonDocument.getBytes()));
+        final JsonHome streamingJsonHome = new JacksonJsonHomeParser(STREAMING)
+                .parse(new ByteArrayInputStream(jsonDocument.getBytes()));
+        // then
+        assertEquals(streamingJsonHome, treeJsonHome);
+        assertEquals(streamingJsonHome.getResources().size(), 2);
+    }
+
+    @Test(dataProvider = "modes")
+    public void shouldParseWrittenJsonHome(final JacksonJsonHomeParser.Mode mode) throws Exception {
+        // given
+        final JsonHome expected = jsonHome(
+                directLink(
+                        create("http://example.org/rel/storefront"),
+                        create("http://example.org/storefront"),
+                        hintsBuilder()
+                                .allowing(GET, PUT)
+                                .representedAs("text/html")
+                                .acceptingForPut("application/json")
+                                .requiring(ETAG)
+                                .withAuthRequired(asList(authReq("Basic", asList("foo"))))
+                                .withStatus(Status.GONE)
+                                .with(documentation(asList("description"), "detailed", create("http://example.org/doc")))
+                                .build()),
+                templatedLink(
+                        create("http://example.org/rel/product"),
+                        "/products/{productId}",
+                        asList(hrefVar("productId", create("http://example.org/vartype/productId"))),
+                        hintsBuilder().allowing(GET).build()));
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writeJsonHome(expected, APPLICATION_JSON, stream);
+        // when
+        final JsonHome jsonHome = new JacksonJsonHomeParser(mode).parse(new ByteArrayInputStream(stream.toByteArray()));
+        // then
+        assertEquals(jsonHome, expected);
+    }
+
+    @Test(dataProvider = "modes", expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailToParseMalformedDocument(final JacksonJsonHomeParser.Mode mode) {
+        new JacksonJsonHomeParser(mode).parse(new ByteArrayInputStream("{\"resources\" : {\"foo\" ".getBytes()));
+    }
+
+    @Test(dataProvider = "modes", expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailToParseDocumentWithoutResources(final JacksonJsonHomeParser.Mode mode) {
+        new JacksonJsonHomeParser(mode).parse(new ByteArrayInputStream("{\"foo\" : {}}".getBytes()));
+    }
+
+    @Test(dataProvider = "modes", expectedExceptions = IllegalStateException.class)
+    public void shouldFailToParseEmptyDocument(final JacksonJsonHomeParser.Mode mode) {
+        new JacksonJsonHomeParser(mode).parse(new ByteArrayInputStream(new byte[0]));
+    }
+
+    @Test(dataProvider = "modes", expectedExceptions = IllegalStateException.class)
+    public void shouldFailToParseTemplatedLinkWithoutHrefVars(final JacksonJsonHomeParser.Mode mode) {
+        final String jsonDocument = "{\"resources\" : {\"http://example.org/rel/foo\" : " +
+                "{\"href-template\" : \"/foo/{bar}\", \"href-vars\" : \"bar\"}}}";
+        new JacksonJsonHomeParser(mode).parse(new ByteArrayInputStream(jsonDocument.getBytes()));
+    }
+
+    @Test(dataProvider = "modes", expectedExceptions = IllegalStateException.class)
+    public void shouldFailIfStreamIsNotReadable(final JacksonJsonHomeParser.Mode mode) {
+        new JacksonJsonHomeParser(mode).parse(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken stream");
+            }
+        });
+    }
+
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.generator;
+
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A cache of the annotations of controller methods and classes, shared by the generators of a
+ * {@link ResourceLinkGenerator}.
+ *
+ * Annotations are looked up using Spring's {@link AnnotationUtils#findAnnotation}
+ * semantics, so annotations of overridden methods, interfaces and meta-annotations are found as well. Every
+ * annotation type is resolved at most once per method or class, the result (including the absence of an annotation)
+ * is kept in an {@link AnnotationMetadata} record of the method or class.
+ *
+ * Methods are compared using equals(), so the copies returned by Class.getMethods() share the same record.
+ *
+ * This implementation is thread-safe.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class AnnotationCache {
+
+    private final ConcurrentMap<AnnotatedElement, AnnotationMetadata> metadata = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the annotation metadata of a method.
+     *
+     * @param method the method of a controller.
+     * @return AnnotationMetadata
+     */
+    public AnnotationMetadata metadataOf(final Method method) {
+        return metadata.computeIfAbsent(method, AnnotationMetadata::new);
+    }
+
+    /**
+     * Returns the annotation metadata of a class.
+     *
+     * @param type the class of a controller.
+     * @return AnnotationMetadata
+     */
+    public AnnotationMetadata metadataOf(final Class<?> type) {
+        return metadata.computeIfAbsent(type, AnnotationMetadata::new);
+    }
+
+    /**
+     * Finds a single annotation of a method, as specified in
+     * {@link AnnotationUtils#findAnnotation(java.lang.reflect.Method, Class)}.
+     *
+     * @param method the method.
+     * @param annotationType the type of the annotation.
+     * @param <A> annotation type
+     * @return the annotation, or null if not found.
+     */
+    public <A extends Annotation> A findAnnotation(final Method method, final Class<A> annotationType) {
+        return metadataOf(method).getAnnotation(annotationType);
+    }
+
+    /**
+     * Finds a single annotation of a class, as specified in
+     * {@link AnnotationUtils#findAnnotation(Class, Class)}.
+     *
+     * @param type the class.
+     * @param annotationType the type of the annotation.
+     * @param <A> annotation type
+     * @return the annotation, or null if not found.
+     */
+    public <A extends Annotation> A findAnnotation(final Class<?> type, final Class<A> annotationType) {
+        return metadataOf(type).getAnnotation(annotationType);
+    }
+
+    /**
+     * @return the number of methods and classes in the cache.
+     */
+    public int size() {
+        return metadata.size();
+    }
+
+    /**
+     * The annotations of a single method or class.
+     *
+     * The record is resolving annotations on demand, but it never changes an annotation once it was resolved:
+     * every call to {@link #getAnnotation(Class)} returns the same result for the same annotation type.
+     */
+    public static final class AnnotationMetadata {
+
+        private final AnnotatedElement element;
+        private final ConcurrentMap<Class<? extends Annotation>, Optional<Annotation>> annotations =
+                new ConcurrentHashMap<>(8);
+
+        private AnnotationMetadata(final AnnotatedElement element) {
+            this.element = element;
+        }
+
+        /**
+         * @return the annotated method or class.
+         */
+        public AnnotatedElement getElement() {
+            return element;
+        }
+
+        /**
+         * Returns the annotation of the requested type, or null if the method or class is not annotated.
+         *
+         * @param annotationType the type of the annotation.
+         * @param <A> annotation type
+         * @return annotation or null
+         */
+        public <A extends Annotation> A getAnnotation(final Class<A> annotationType) {
+            Optional<Annotation> annotation = annotations.get(annotationType);
+            if (annotation == null) {
+                annotation = annotations.computeIfAbsent(annotationType, this::resolve);
+            }
+            return annotationType.cast(annotation.orElse(null));
+        }
+
+        /**
+         * @param annotationType the type of the annotation.
+         * @return true, if the method or class is annotated with the requested annotation type.
+         */
+        public boolean hasAnnotation(final Class<? extends Annotation> annotationType) {
+            return getAnnotation(annotationType) != null;
+        }
+
+        private Optional<Annotation> resolve(final Class<? extends Annotation> annotationType) {
+            if (element instanceof Method) {
+                return Optional.ofNullable(AnnotationUtils.findAnnotation((Method) element, annotationType));
+            } else {
+                return Optional.ofNullable(AnnotationUtils.findAnnotation((Class<?>) element, annotationType));
+            }
+        }
+    }
+}
@@ -20,35 +20,51 @@ import de.otto.jsonhome.annotation.Doc;
 import de.otto.jsonhome.annotation.Docs;
 import de.otto.jsonhome.model.Documentation;
 import org.markdown4j.Markdown4jProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static de.otto.jsonhome.generator.UriBuilder.normalized;
 import static de.otto.jsonhome.model.Documentation.documentation;
 import static de.otto.jsonhome.model.Documentation.emptyDocs;
 import static java.net.URI.create;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
-import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 
 /**
  * A generator used to create {@link Documentation} for a link-relation type or href-var.
  *
+ * Markdown documents included using {@link Doc#include()} are rendered only once per DocsGenerator: the rendered
+ * HTML is cached by include path. A single DocsGenerator should therefore be shared by the generators of a
+ * {@link ResourceLinkGenerator}.
+ *
  * @author Guido Steinacker
  * @since 11.10.12
  */
 public class DocsGenerator {
 
+    private static Logger LOG = LoggerFactory.getLogger(DocsGenerator.class);
+
     private final URI relationTypeBaseUri;
-    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
     private Resource rootDir;
+    private final AnnotationCache annotationCache;
+    private final ConcurrentMap<String, Optional<String>> renderedMarkdown = new ConcurrentHashMap<>();
+    private final AtomicLong markdownRequests = new AtomicLong();
+    private final AtomicLong markdownMisses = new AtomicLong();
+    private final AtomicLong markdownRenderNanos = new AtomicLong();
 
     /**
      * Creates a DocsGenerator.
@@ -57,6 +73,18 @@ public class DocsGenerator {
      * @param docRootDir root of the Markdown documents. May be null if not used.
      */
     public DocsGenerator(final URI relationTypeBaseUri, final String docRootDir) {
+        this(relationTypeBaseUri, docRootDir, new AnnotationCache());
+    }
+
+    /**
+     * Creates a DocsGenerator.
+     *
+     * @param relationTypeBaseUri base URI of all relation types.
+     * @param docRootDir root of the Markdown documents. May be null if not used.
+     * @param annotationCache cache of the annotations of controller classes.
+     */
+    public DocsGenerator(final URI relationTypeBaseUri, final String docRootDir, final AnnotationCache annotationCache) {
+        this.annotationCache = annotationCache;
         this.rootDir = docRootDir != null ? new ClassPathResource(docRootDir) : null;
         this.relationTypeBaseUri = normalized(relationTypeBaseUri).toUri();
     }
@@ -71,7 +99,7 @@ public class DocsGenerator {
      * @return Documentation, possibly empty but never null.
      */
     public Documentation documentationFrom(final URI relationType, final Class<?> controller) {
-        Docs docs = findAnnotation(controller, Docs.class);
+        Docs docs = annotationCache.findAnnotation(controller, Docs.class);
         if (docs != null) {
             for (final Doc relDoc : docs.value()) {
                 if (!relDoc.rel().isEmpty() && absoluteUriOf(relDoc.rel()).equals(relationType)) {
@@ -79,7 +107,7 @@ public class DocsGenerator {
                 }
             }
         } else {
-            Doc relDoc = findAnnotation(controller, Doc.class);
+            Doc relDoc = annotationCache.findAnnotation(controller, Doc.class);
             if (relDoc != null && !relDoc.rel().isEmpty() && absoluteUriOf(relDoc.rel()).equals(relationType)) {
                 return documentationFrom(relDoc);
             }
@@ -148,29 +176,68 @@ public class DocsGenerator {
         }
     }
 
+    /**
+     * @return the number of Markdown includes requested so far, including cache hits.
+     */
+    public long getMarkdownRequests() {
+        return markdownRequests.get();
+    }
+
+    /**
+     * @return the number of Markdown includes that were not cached, and had to be read and rendered.
+     */
+    public long getMarkdownMisses() {
+        return markdownMisses.get();
+    }
+
+    /**
+     * @return the total time in nanoseconds spent reading and rendering Markdown includes.
+     */
+    public long getMarkdownRenderNanos() {
+        return markdownRenderNanos.get();
+    }
+
     private String htmlFromMarkdown(final String path) {
+        if (rootDir == null) {
+            return null;
+        }
+        markdownRequests.incrementAndGet();
+        return renderedMarkdown.computeIfAbsent(path, this::renderMarkdown).orElse(null);
+    }
+
+    private Optional<String> renderMarkdown(final String path) {
+        markdownMisses.incrementAndGet();
+        final long start = System.nanoTime();
         try {
-            if (rootDir != null) {
-                final InputStream file = rootDir.createRelative(path).getInputStream();
-                try {
-                    final BufferedReader reader = new BufferedReader( new InputStreamReader(file));
-                    String line;
-                    final StringBuilder  markdown = new StringBuilder();
-
-                    while((line = reader.readLine()) != null) {
-                        markdown.append(line);
-                        markdown.append(LINE_SEPARATOR);
-                    }
-                    return new Markdown4jProcessor().process(markdown.toString()).trim();
-                } finally {
-                    file.close();
+            final String markdown = contentOf(rootDir.createRelative(path));
+            return Optional.of(new Markdown4jProcessor().process(markdown).trim());
+        } catch (final IOException e) {
+            LOG.warn("Unable to render Markdown document {}: {}", path, e.getMessage());
+            return Optional.empty();
+        } finally {
+            final long nanos = System.nanoTime() - start;
+            markdownRenderNanos.addAndGet(nanos);
+            LOG.debug("Rendered Markdown document {} in {} ms", path, nanos / 1000000);
+        }
+    }
+
+    /**
+     * Reads the UTF-8 encoded content of a resource in a single pass, using a channel instead of reading the
+     * resource line by line.
+     */
+    private static String contentOf(final Resource resource) throws IOException {
+        try (final ReadableByteChannel channel = Channels.newChannel(resource.getInputStream())) {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            while (channel.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    final ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
                 }
-            } else {
-                return null;
             }
-        } catch (final IOException e) {
-            // TODO: log exception + proceed.
-            return null;
+            buffer.flip();
+            return UTF_8.decode(buffer).toString() + '\n';
         }
     }
 
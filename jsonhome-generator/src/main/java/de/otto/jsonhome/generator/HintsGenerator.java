@@ -29,7 +29,6 @@ import static de.otto.jsonhome.model.Allow.*;
 import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
-import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 
 /**
  * Abstract generator used to generate {@link Hints} for a resource.
@@ -40,6 +39,7 @@ import static org.springframework.core.annotation.AnnotationUtils.findAnnotation
 public abstract class HintsGenerator {
 
     private final DocsGenerator docsGenerator;
+    private final AnnotationCache annotationCache;
 
     /**
      * Creates a HintsGenerator.
@@ -48,7 +48,26 @@ public abstract class HintsGenerator {
      * @param docRootDir the root classpath directory containing Markdown documents. May be null.
      */
     protected HintsGenerator(final URI relationTypeBaseUri, final String docRootDir) {
-        this.docsGenerator = new DocsGenerator(relationTypeBaseUri, docRootDir);
+        this(new DocsGenerator(relationTypeBaseUri, docRootDir), new AnnotationCache());
+    }
+
+    /**
+     * Creates a HintsGenerator.
+     *
+     * @param docsGenerator the generator used to create the documentation of link-relation types. May be shared
+     *                      with other generators.
+     * @param annotationCache cache of the annotations of controller methods and classes.
+     */
+    protected HintsGenerator(final DocsGenerator docsGenerator, final AnnotationCache annotationCache) {
+        this.annotationCache = annotationCache;
+        this.docsGenerator = docsGenerator;
+    }
+
+    /**
+     * @return the cache used to look up the annotations of controller methods and classes.
+     */
+    protected final AnnotationCache getAnnotationCache() {
+        return annotationCache;
     }
 
     /**
@@ -112,7 +131,7 @@ public abstract class HintsGenerator {
      * @return List of Strings, or an empty list.
      */
     protected List<String> acceptedRangesFrom(final Method method) {
-        final de.otto.jsonhome.annotation.Hints annotation = findAnnotation(method, de.otto.jsonhome.annotation.Hints.class);
+        final de.otto.jsonhome.annotation.Hints annotation = hintsAnnotationOf(method);
         if (annotation != null && annotation.acceptRanges() != null) {
             return asList(annotation.acceptRanges());
         } else {
@@ -130,7 +149,7 @@ public abstract class HintsGenerator {
      * @return List of Strings, or an empty list.
      */
     protected List<String> preferencesFrom(final Method method) {
-        final de.otto.jsonhome.annotation.Hints annotation = findAnnotation(method, de.otto.jsonhome.annotation.Hints.class);
+        final de.otto.jsonhome.annotation.Hints annotation = hintsAnnotationOf(method);
         if (annotation != null && annotation.prefer() != null) {
             return asList(annotation.prefer());
         } else {
@@ -148,7 +167,7 @@ public abstract class HintsGenerator {
      * @return List of Preconditions, or an empty list.
      */
     protected List<Precondition> preconditionsFrom(final Method method) {
-        final de.otto.jsonhome.annotation.Hints annotation = findAnnotation(method, de.otto.jsonhome.annotation.Hints.class);
+        final de.otto.jsonhome.annotation.Hints annotation = hintsAnnotationOf(method);
         if (annotation != null && annotation.preconditionReq() != null) {
             return asList(annotation.preconditionReq());
         } else {
@@ -166,7 +185,7 @@ public abstract class HintsGenerator {
      * @return List of Authentication, or an empty list.
      */
     protected List<Authentication> requiredAuthenticationFrom(final Method method) {
-        final de.otto.jsonhome.annotation.Hints annotation = findAnnotation(method, de.otto.jsonhome.annotation.Hints.class);
+        final de.otto.jsonhome.annotation.Hints annotation = hintsAnnotationOf(method);
         if (annotation != null && annotation.authReq() != null && annotation.authReq().length > 0) {
             final List<Authentication> authReq = new ArrayList<>();
             for (final Auth auth : annotation.authReq()) {
@@ -188,7 +207,7 @@ public abstract class HintsGenerator {
      * @return Status (ok, deprecated or gone)
      */
     protected Status statusFrom(final Method method) {
-        final de.otto.jsonhome.annotation.Hints annotation = findAnnotation(method, de.otto.jsonhome.annotation.Hints.class);
+        final de.otto.jsonhome.annotation.Hints annotation = hintsAnnotationOf(method);
         if (annotation != null && annotation.status() != null) {
             return annotation.status();
         } else {
@@ -196,6 +215,10 @@ public abstract class HintsGenerator {
         }
     }
 
+    private de.otto.jsonhome.annotation.Hints hintsAnnotationOf(final Method method) {
+        return annotationCache.findAnnotation(method, de.otto.jsonhome.annotation.Hints.class);
+    }
+
     private List<String> join(final List<String> list, final List<String> other) {
         final List<String> result = new ArrayList<>(list);
         for (final String s : other) {
@@ -29,7 +29,6 @@ import static de.otto.jsonhome.generator.UriTemplateHelper.variableNamesFrom;
 import static de.otto.jsonhome.model.Documentation.emptyDocs;
 import static de.otto.jsonhome.model.HrefVar.hrefVar;
 import static java.net.URI.create;
-import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 
 /**
  * Abstract generator used to generate {@link de.otto.jsonhome.model.HrefVar}s for a templated resource.
@@ -39,6 +38,7 @@ import static org.springframework.core.annotation.AnnotationUtils.findAnnotation
 public abstract class HrefVarsGenerator {
 
     private final DocsGenerator docsGenerator;
+    private final AnnotationCache annotationCache;
 
     /**
      * Creates a HrefVarsGenerator.
@@ -47,7 +47,19 @@ public abstract class HrefVarsGenerator {
      * @param docRootDir the root classpath directory containing Markdown documents. May be null.
      */
     protected HrefVarsGenerator(final URI relationTypeBaseUri, final String docRootDir) {
-        docsGenerator = new DocsGenerator(relationTypeBaseUri, docRootDir);
+        this(new DocsGenerator(relationTypeBaseUri, docRootDir), new AnnotationCache());
+    }
+
+    /**
+     * Creates a HrefVarsGenerator.
+     *
+     * @param docsGenerator the generator used to create the documentation of href-vars. May be shared with
+     *                      other generators.
+     * @param annotationCache cache of the annotations of controller methods and classes.
+     */
+    protected HrefVarsGenerator(final DocsGenerator docsGenerator, final AnnotationCache annotationCache) {
+        this.annotationCache = annotationCache;
+        this.docsGenerator = docsGenerator;
     }
 
     /**
@@ -61,7 +73,7 @@ public abstract class HrefVarsGenerator {
      */
     public final List<HrefVar> hrefVarsFor(final URI varTypeBaseUri, final boolean varTypeUrisAsFragment, final Method method) {
         final List<HrefVar> hrefVars;
-        final HrefTemplate hrefTemplateAnnotation = findAnnotation(method, HrefTemplate.class);
+        final HrefTemplate hrefTemplateAnnotation = annotationCache.findAnnotation(method, HrefTemplate.class);
         if (hrefTemplateAnnotation != null) {
             hrefVars = new ArrayList<>();
             final String template = hrefTemplateAnnotation.value();
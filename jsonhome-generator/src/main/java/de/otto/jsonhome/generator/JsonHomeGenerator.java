@@ -17,16 +17,21 @@ package de.otto.jsonhome.generator;
 
 import de.otto.jsonhome.model.JsonHome;
 import de.otto.jsonhome.model.ResourceLink;
+import de.otto.jsonhome.model.ResourceLinkMerger;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import static de.otto.jsonhome.model.JsonHome.jsonHome;
-import static de.otto.jsonhome.model.ResourceLinkHelper.mergeResources;
-import static java.util.Collections.emptyList;
+import static de.otto.jsonhome.model.ResourceLinkMerger.resourceLinkMerger;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Abstract base class for JsonHome Generators.
@@ -39,6 +44,7 @@ public abstract class JsonHomeGenerator {
 
     private final Collection<Class<?>> controllers = new ArrayList<Class<?>>();
     private ResourceLinkGenerator resourceLinkGenerator;
+    private Executor executor;
 
     /**
      * Injects the generator implementation used to generate ResourceLink instances.
@@ -79,16 +85,66 @@ public abstract class JsonHomeGenerator {
         return this;
     }
 
+    /**
+     * Analyzes the controllers in parallel, using the common ForkJoinPool.
+     *
+     * @return this
+     * @see #inParallel(java.util.concurrent.Executor)
+     */
+    public final JsonHomeGenerator inParallel() {
+        return inParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Analyzes the controllers in parallel, using the specified executor.
+     *
+     * Every controller is analyzed in a separate task. The resource links of the controllers are merged in the
+     * order the controllers were added, after all tasks are completed, so the generated JsonHome is the same as
+     * the one generated sequentially.
+     *
+     * @param executor the executor used to analyze the controllers, or null to analyze them sequentially.
+     * @return this
+     */
+    public final JsonHomeGenerator inParallel(final Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
     /**
      * Runs the generator and returns the JsonHome instance describing the HTTP API implemented by the controllers.
      * @return JsonHome instance.
      */
     public final JsonHome generate() {
-        List<? extends ResourceLink> resources = new ArrayList<>();
-        for (final Class<?> controllerClass : controllers) {
-            resources = mergeResources(resources, resourceLinksFor(controllerClass));
+        final ResourceLinkMerger resources = resourceLinkMerger();
+        for (final List<? extends ResourceLink> resourceLinks : resourceLinksOfControllers()) {
+            resources.mergeAll(resourceLinks);
+        }
+        return jsonHome(resources.getResourceLinks());
+    }
+
+    private List<List<? extends ResourceLink>> resourceLinksOfControllers() {
+        if (executor == null || controllers.size() < 2) {
+            return controllers.stream()
+                    .map(this::resourceLinksFor)
+                    .collect(toList());
+        }
+        final List<CompletableFuture<List<? extends ResourceLink>>> futures = controllers.stream()
+                .map(controller -> CompletableFuture.<List<? extends ResourceLink>>supplyAsync(
+                        () -> resourceLinksFor(controller), executor))
+                .collect(toList());
+        try {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(toList());
+        } catch (final CompletionException e) {
+            // rethrow the exception thrown by the generator, as if the controller was analyzed sequentially:
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
         }
-        return jsonHome(resources);
     }
 
     /**
@@ -97,13 +153,11 @@ public abstract class JsonHomeGenerator {
      * @return list of ResourceLinks.
      */
     protected final List<? extends ResourceLink> resourceLinksFor(final Class<?> controller) {
-        List<? extends ResourceLink> resourceLinks = emptyList();
+        final ResourceLinkMerger resourceLinks = resourceLinkMerger();
         for (final Method method : controller.getMethods()) {
-            resourceLinks = mergeResources(
-                    resourceLinks,
-                    resourceLinkGenerator.resourceLinkFor(method));
+            resourceLinks.merge(resourceLinkGenerator.resourceLinkFor(method));
         }
-        return resourceLinks;
+        return resourceLinks.getResourceLinks();
     }
 
     /**
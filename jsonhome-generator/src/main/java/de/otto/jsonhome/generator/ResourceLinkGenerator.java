@@ -31,7 +31,6 @@ import static de.otto.jsonhome.generator.UriBuilder.normalized;
 import static de.otto.jsonhome.model.DirectLink.directLink;
 import static de.otto.jsonhome.model.TemplatedLink.templatedLink;
 import static java.net.URI.create;
-import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 
 /**
  * A generator used to generate the {@link ResourceLink resource links} of a method.
@@ -46,6 +45,7 @@ public abstract class ResourceLinkGenerator {
     private final URI varTypeBaseUri;
     private final HintsGenerator hintsGenerator;
     private final HrefVarsGenerator hrefVarsGenerator;
+    private final AnnotationCache annotationCache;
 
     /**
      * Generator used to generate {@link ResourceLink} instances.
@@ -61,6 +61,27 @@ public abstract class ResourceLinkGenerator {
                                     final URI varTypeBaseUri,
                                     final HintsGenerator hintsGenerator,
                                     final HrefVarsGenerator hrefVarsGenerator) {
+        this(applicationBaseUri, relationTypeBaseUri, varTypeBaseUri, hintsGenerator, hrefVarsGenerator, new AnnotationCache());
+    }
+
+    /**
+     * Generator used to generate {@link ResourceLink} instances.
+     *
+     * @param applicationBaseUri base URI of the application. This is used to generate HREFs and HREF-TEMPLATES.
+     * @param relationTypeBaseUri base URI of all link-relation types.
+     * @param varTypeBaseUri base URI used to generate var-types, identifying the semantics of variables used in href-templates.
+     * @param hintsGenerator generator used to create {@link Hints}
+     * @param hrefVarsGenerator generator used to create {@link de.otto.jsonhome.model.HrefVar HrefVars}.
+     * @param annotationCache cache of the annotations of controller methods and classes. Should be shared with
+     *                        the hintsGenerator and hrefVarsGenerator.
+     */
+    protected ResourceLinkGenerator(final URI applicationBaseUri,
+                                    final URI relationTypeBaseUri,
+                                    final URI varTypeBaseUri,
+                                    final HintsGenerator hintsGenerator,
+                                    final HrefVarsGenerator hrefVarsGenerator,
+                                    final AnnotationCache annotationCache) {
+        this.annotationCache = annotationCache;
         this.applicationBaseUri = normalized(applicationBaseUri).toUri();
         this.relationTypeBaseUri = normalized(relationTypeBaseUri).toUri();
         this.varTypeBaseUri = varTypeBaseUri != null ? normalized(varTypeBaseUri).toUri() : null;
@@ -68,6 +89,13 @@ public abstract class ResourceLinkGenerator {
         this.hrefVarsGenerator = hrefVarsGenerator;
     }
 
+    /**
+     * @return the cache used to look up the annotations of controller methods and classes.
+     */
+    protected final AnnotationCache getAnnotationCache() {
+        return annotationCache;
+    }
+
     /**
      * Analyzes a method of a controller and returns the list of ResourceLinks of this method.
      *
@@ -108,11 +136,11 @@ public abstract class ResourceLinkGenerator {
      * @return resource path or null.
      */
     protected String overriddenOrCalculatedResourcePathFor(final Method method) {
-        final Href methodHrefAnnotation = findAnnotation(method, Href.class);
+        final Href methodHrefAnnotation = annotationCache.findAnnotation(method, Href.class);
         if (methodHrefAnnotation != null) {
             return applicationBaseUri.resolve(methodHrefAnnotation.value()).toString();
         } else {
-            final HrefTemplate hrefTemplateAnnotation = findAnnotation(method, HrefTemplate.class);
+            final HrefTemplate hrefTemplateAnnotation = annotationCache.findAnnotation(method, HrefTemplate.class);
             if (hrefTemplateAnnotation != null) {
                 return hrefTemplateAnnotation.value().startsWith("http://")
                         ? hrefTemplateAnnotation.value()
@@ -159,8 +187,8 @@ public abstract class ResourceLinkGenerator {
      * @return URI of the link-relation type, or null
      */
     protected URI relationTypeFrom(final Method method) {
-        final Rel controllerRel = findAnnotation(method.getDeclaringClass(), Rel.class);
-        final Rel methodRel = findAnnotation(method, Rel.class);
+        final Rel controllerRel = annotationCache.findAnnotation(method.getDeclaringClass(), Rel.class);
+        final Rel methodRel = annotationCache.findAnnotation(method, Rel.class);
         if (controllerRel == null && methodRel == null) {
             return null;
         } else {
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.generator;
+
+import de.otto.jsonhome.annotation.Doc;
+import de.otto.jsonhome.annotation.Rel;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class AnnotationCacheTest {
+
+    @Rel("/rel/foo")
+    public static class Controller {
+        @Rel("/rel/bar")
+        public void bar() {}
+        public void foo() {}
+    }
+
+    public static class SubController extends Controller {
+        @Override
+        public void bar() {}
+    }
+
+    @Test
+    public void shouldFindAnnotationsOfMethodsAndClasses() throws Exception {
+        // given
+        final AnnotationCache cache = new AnnotationCache();
+        // then
+        assertEquals(cache.findAnnotation(Controller.class.getMethod("bar"), Rel.class).value(), "/rel/bar");
+        assertNull(cache.findAnnotation(Controller.class.getMethod("foo"), Rel.class));
+        assertEquals(cache.findAnnotation(Controller.class, Rel.class).value(), "/rel/foo");
+        assertNull(cache.findAnnotation(Controller.class, Doc.class));
+    }
+
+    @Test
+    public void shouldFindAnnotationsOfOverriddenMethods() throws Exception {
+        // given
+        final AnnotationCache cache = new AnnotationCache();
+        // then
+        assertEquals(cache.findAnnotation(SubController.class.getMethod("bar"), Rel.class).value(), "/rel/bar");
+    }
+
+    @Test
+    public void shouldShareMetadataOfEqualMethods() throws Exception {
+        // given
+        final AnnotationCache cache = new AnnotationCache();
+        final Method method = Controller.class.getMethod("bar");
+        final Method copy = Controller.class.getMethod("bar");
+        // when
+        final Rel rel = cache.findAnnotation(method, Rel.class);
+        // then
+        assertSame(cache.metadataOf(copy), cache.metadataOf(method));
+        assertSame(cache.findAnnotation(copy, Rel.class), rel);
+        assertTrue(cache.metadataOf(copy).hasAnnotation(Rel.class));
+        assertEquals(cache.size(), 1);
+    }
+}
@@ -131,6 +131,34 @@ public class DocsGeneratorTest {
         assertEquals(documentation.getDescription(), asList("foo", "bar"));
     }
 
+    @Test
+    public void markdownShouldOnlyBeRenderedOnce() {
+        // given
+        final DocsGenerator docsGenerator = docsGenerator();
+        // when
+        docsGenerator.documentationFrom(create("http://example.org/rel/foo"), ControllerWithMinimalMarkdownInclude.class);
+        final Documentation documentation = docsGenerator.documentationFrom(
+                create("http://example.org/rel/foo"),
+                ControllerWithMinimalMarkdownInclude.class
+        );
+        // then
+        assertEquals(documentation.getDetailedDescription(), "<h1>Hello World!</h1>");
+        assertEquals(docsGenerator.getMarkdownRequests(), 2);
+        assertEquals(docsGenerator.getMarkdownMisses(), 1);
+        assertTrue(docsGenerator.getMarkdownRenderNanos() > 0);
+    }
+
+    @Test
+    public void unresolvableMarkdownShouldOnlyBeReadOnce() {
+        // given
+        final DocsGenerator docsGenerator = docsGenerator();
+        // when
+        docsGenerator.documentationFrom(create("http://example.org/rel/foo"), ControllerWithUnresolvableMarkdown.class);
+        docsGenerator.documentationFrom(create("http://example.org/rel/foo"), ControllerWithUnresolvableMarkdown.class);
+        // then
+        assertEquals(docsGenerator.getMarkdownMisses(), 1);
+    }
+
     private DocsGenerator docsGenerator() {
         return new DocsGenerator(create("http://example.org"), "/docs/*");
     }
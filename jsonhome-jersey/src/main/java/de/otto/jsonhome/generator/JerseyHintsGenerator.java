@@ -35,6 +35,10 @@ public final class JerseyHintsGenerator extends HintsGenerator {
         super(relationTypeBaseUri, docRootDir);
     }
 
+    public JerseyHintsGenerator(final DocsGenerator docsGenerator, final AnnotationCache annotationCache) {
+        super(docsGenerator, annotationCache);
+    }
+
     @Override
     protected Set<Allow> allowedHttpMethodsOf(final Method method) {
         final Annotation[] annotations = method.getDeclaredAnnotations();
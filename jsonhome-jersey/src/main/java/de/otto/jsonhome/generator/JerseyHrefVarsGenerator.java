@@ -30,6 +30,10 @@ public final class JerseyHrefVarsGenerator extends HrefVarsGenerator {
         super(relationTypeBaseUri, docRootDir);
     }
 
+    public JerseyHrefVarsGenerator(final DocsGenerator docsGenerator, final AnnotationCache annotationCache) {
+        super(docsGenerator, annotationCache);
+    }
+
     /**
      * @param parameterInfo information about a method parameter.
      * @return true if the parameterInfo is describing a request parameter, false otherwise.
@@ -47,6 +47,9 @@ public final class JerseyJsonHomeGenerator extends JsonHomeGenerator {
                 create(relationTypeBaseUri),
                 varTypeBaseUri != null ? create(varTypeBaseUri) : null,
                 docRootDir));
+        if (Boolean.parseBoolean(properties.getProperty("parallelGeneration", "false"))) {
+            inParallel();
+        }
     }
 
     JerseyJsonHomeGenerator(URI applicationBaseUri, URI relationTypeBaseUri) {
@@ -38,11 +38,32 @@ public final class JerseyResourceLinkGenerator extends ResourceLinkGenerator {
                                        final URI relationTypeBaseUri,
                                        final URI varTypeBaseUri,
                                        final String docRootDir) {
+        this(applicationBaseUri, relationTypeBaseUri, varTypeBaseUri, docRootDir, new AnnotationCache());
+    }
+
+    private JerseyResourceLinkGenerator(final URI applicationBaseUri,
+                                        final URI relationTypeBaseUri,
+                                        final URI varTypeBaseUri,
+                                        final String docRootDir,
+                                        final AnnotationCache annotationCache) {
+        this(applicationBaseUri,
+                relationTypeBaseUri,
+                varTypeBaseUri,
+                new DocsGenerator(relationTypeBaseUri, docRootDir, annotationCache),
+                annotationCache);
+    }
+
+    private JerseyResourceLinkGenerator(final URI applicationBaseUri,
+                                        final URI relationTypeBaseUri,
+                                        final URI varTypeBaseUri,
+                                        final DocsGenerator docsGenerator,
+                                        final AnnotationCache annotationCache) {
         super(applicationBaseUri,
                 relationTypeBaseUri,
                 varTypeBaseUri,
-                new JerseyHintsGenerator(relationTypeBaseUri, docRootDir),
-                new JerseyHrefVarsGenerator(relationTypeBaseUri, docRootDir));
+                new JerseyHintsGenerator(docsGenerator, annotationCache),
+                new JerseyHrefVarsGenerator(docsGenerator, annotationCache),
+                annotationCache);
         this.applicationBaseUri = applicationBaseUri;
     }
 
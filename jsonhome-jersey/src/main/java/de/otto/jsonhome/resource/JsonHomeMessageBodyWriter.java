@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.resource;
+
+import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.model.JsonHome;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import static de.otto.jsonhome.converter.JsonHomeWriter.writeJsonHome;
+
+/**
+ * A MessageBodyWriter used to write JsonHome instances as application/json-home or application/json.
+ *
+ * The document is streamed to the response using {@link de.otto.jsonhome.converter.JsonHomeWriter}, so resources
+ * may return JsonHome instead of converting it into a Map or String first.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+@Provider
+@Produces({"application/json-home", "application/json"})
+public class JsonHomeMessageBodyWriter implements MessageBodyWriter<JsonHome> {
+
+    private static final MediaType APPLICATION_JSONHOME = new MediaType("application", "json-home");
+
+    @Override
+    public boolean isWriteable(final Class<?> type,
+                               final Type genericType,
+                               final Annotation[] annotations,
+                               final MediaType mediaType) {
+        return JsonHome.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(final JsonHome jsonHome,
+                        final Class<?> type,
+                        final Type genericType,
+                        final Annotation[] annotations,
+                        final MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(final JsonHome jsonHome,
+                        final Class<?> type,
+                        final Type genericType,
+                        final Annotation[] annotations,
+                        final MediaType mediaType,
+                        final MultivaluedMap<String, Object> httpHeaders,
+                        final OutputStream entityStream) throws IOException {
+        writeJsonHome(jsonHome, jsonHomeMediaTypeOf(mediaType), entityStream);
+    }
+
+    private JsonHomeMediaType jsonHomeMediaTypeOf(final MediaType mediaType) {
+        return mediaType != null && APPLICATION_JSONHOME.isCompatible(mediaType)
+                ? JsonHomeMediaType.APPLICATION_JSONHOME
+                : JsonHomeMediaType.APPLICATION_JSON;
+    }
+}
@@ -17,25 +17,28 @@
 package de.otto.jsonhome.resource;
 
 import com.sun.jersey.api.view.Viewable;
+import de.otto.jsonhome.converter.ContentCoding;
 import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.converter.RenderedJsonHome;
 import de.otto.jsonhome.generator.JerseyJsonHomeGenerator;
 import de.otto.jsonhome.generator.JsonHomeSource;
 import de.otto.jsonhome.model.JsonHome;
 import de.otto.jsonhome.resource.scanner.AnnotationScanner;
-import org.codehaus.jackson.map.ObjectMapper;
 
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import java.io.IOException;
+import javax.ws.rs.core.StreamingOutput;
 import java.util.HashMap;
 import java.util.Map;
 
-import static de.otto.jsonhome.converter.JsonHomeConverter.toRepresentation;
 import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSON;
 import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSONHOME;
+import static de.otto.jsonhome.converter.RenderedJsonHome.renderedJsonHome;
+import static de.otto.jsonhome.resource.Responses.VARY_ACCEPT_AND_ENCODING;
 import static de.otto.jsonhome.resource.Responses.addCacheControlHeaders;
 
 /**
@@ -47,6 +50,7 @@ public final class JsonHomeResource {
 
     private JsonHomeSource jsonHomeSource;
     private int maxAge = 3600;
+    private volatile RenderedJsonHome renderedJsonHome;
 
     public JsonHomeResource(JsonHomeSource jsonHomeSource) {
         this.jsonHomeSource = jsonHomeSource;
@@ -75,29 +79,55 @@ public final class JsonHomeResource {
 
     @GET
     @Produces("application/json-home")
-    public Response getAsApplicationJsonHome() {
-        final JsonHome jsonHome = jsonHomeSource.getJsonHome();
-        try {
-            return addCacheControlHeaders(Response.ok(toJsonString(jsonHome, APPLICATION_JSONHOME)), maxAge);
-        } catch (IOException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
-        }
+    public Response getAsApplicationJsonHome(@HeaderParam("If-None-Match") String ifNoneMatch,
+                                             @HeaderParam("Accept-Encoding") String acceptEncoding) {
+        return renderedResponse(APPLICATION_JSONHOME, ifNoneMatch, acceptEncoding);
     }
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getAsApplicationJson() {
-        final JsonHome jsonHome = jsonHomeSource.getJsonHome();
-        try {
-            return addCacheControlHeaders(Response.ok(toJsonString(jsonHome, APPLICATION_JSON)), maxAge);
-        } catch (IOException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+    public Response getAsApplicationJson(@HeaderParam("If-None-Match") String ifNoneMatch,
+                                         @HeaderParam("Accept-Encoding") String acceptEncoding) {
+        return renderedResponse(APPLICATION_JSON, ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Returns the pre-rendered representation of the json-home document, or 304 NOT MODIFIED if the
+     * client already has the current representation. Large documents are compressed using the content coding
+     * accepted by the client.
+     */
+    private Response renderedResponse(final JsonHomeMediaType mediaType,
+                                      final String ifNoneMatch,
+                                      final String acceptEncoding) {
+        final RenderedJsonHome rendered = currentRenderedJsonHome();
+        final ContentCoding coding = rendered.contentCodingFor(mediaType, acceptEncoding);
+        final String eTag = rendered.getETag(mediaType, coding);
+        if (rendered.isNotModified(mediaType, coding, ifNoneMatch)) {
+            return addCacheControlHeaders(Response.notModified().header("ETag", eTag), maxAge, VARY_ACCEPT_AND_ENCODING);
+        } else {
+            final StreamingOutput entity = output -> rendered.writeTo(mediaType, coding, output);
+            final Response.ResponseBuilder builder = Response.ok(entity)
+                    .header("ETag", eTag)
+                    .header("Content-Length", rendered.getContentLength(mediaType, coding));
+            if (coding != ContentCoding.IDENTITY) {
+                builder.header("Content-Encoding", coding.getName());
+            }
+            return addCacheControlHeaders(builder, maxAge, VARY_ACCEPT_AND_ENCODING);
         }
     }
 
-    private String toJsonString(JsonHome jsonHome, JsonHomeMediaType mediaType) throws IOException {
-        final ObjectMapper mapper = new ObjectMapper();
-        return mapper.writeValueAsString(toRepresentation(jsonHome, mediaType));
+    /**
+     * Returns the rendered representations of the current JsonHome. The document is only rendered again,
+     * if the JsonHomeSource is returning a different instance.
+     */
+    private RenderedJsonHome currentRenderedJsonHome() {
+        final JsonHome jsonHome = jsonHomeSource.getJsonHome();
+        RenderedJsonHome rendered = this.renderedJsonHome;
+        if (rendered == null || rendered.getJsonHome() != jsonHome) {
+            rendered = renderedJsonHome(jsonHome);
+            this.renderedJsonHome = rendered;
+        }
+        return rendered;
     }
 
 }
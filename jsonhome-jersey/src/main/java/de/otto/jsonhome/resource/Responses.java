@@ -24,11 +24,17 @@ import javax.ws.rs.core.Response;
  */
 public final class Responses {
 
+    public static final String VARY_ACCEPT_AND_ENCODING = "Accept, Accept-Encoding";
+
     private Responses() {}
 
     public static Response addCacheControlHeaders(Response.ResponseBuilder builder, int maxAge) {
+        return addCacheControlHeaders(builder, maxAge, "Accept");
+    }
+
+    public static Response addCacheControlHeaders(Response.ResponseBuilder builder, int maxAge, String vary) {
         return builder.
-                header("Vary", "Accept").
+                header("Vary", vary).
                 header("Cache-Control", "max-age=" + maxAge).build();
     }
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.resource;
+
+import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.model.JsonHome;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+import static de.otto.jsonhome.converter.JsonHomeConverter.toRepresentation;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.Documentation.documentation;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static java.net.URI.create;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class JsonHomeMessageBodyWriterTest {
+
+    private static final JsonHome JSON_HOME = jsonHome(directLink(
+            create("http://example.org/rel/foo"),
+            create("http://example.org/foo"),
+            hintsBuilder()
+                    .representedAs("text/html")
+                    .with(documentation(asList("Some description"), null, null))
+                    .build()));
+
+    @Test
+    public void shouldOnlyWriteJsonHome() {
+        final JsonHomeMessageBodyWriter writer = new JsonHomeMessageBodyWriter();
+        assertTrue(writer.isWriteable(JsonHome.class, JsonHome.class, null, MediaType.APPLICATION_JSON_TYPE));
+        assertFalse(writer.isWriteable(Map.class, Map.class, null, MediaType.APPLICATION_JSON_TYPE));
+    }
+
+    @Test
+    public void shouldWriteApplicationJsonHome() throws Exception {
+        assertEquals(written(new MediaType("application", "json-home")), jsonOf(JsonHomeMediaType.APPLICATION_JSONHOME));
+    }
+
+    @Test
+    public void shouldWriteApplicationJson() throws Exception {
+        assertEquals(written(MediaType.APPLICATION_JSON_TYPE), jsonOf(JsonHomeMediaType.APPLICATION_JSON));
+    }
+
+    private String written(final MediaType mediaType) throws Exception {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new JsonHomeMessageBodyWriter().writeTo(JSON_HOME, JsonHome.class, JsonHome.class, null, mediaType, null, stream);
+        return stream.toString("UTF-8");
+    }
+
+    private String jsonOf(final JsonHomeMediaType mediaType) throws Exception {
+        return new ObjectMapper().writeValueAsString(toRepresentation(JSON_HOME, mediaType));
+    }
+}
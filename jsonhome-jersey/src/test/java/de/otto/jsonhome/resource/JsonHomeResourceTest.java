@@ -19,16 +19,30 @@ package de.otto.jsonhome.resource;
 import de.otto.jsonhome.fixtures.ResourceFixtures;
 import de.otto.jsonhome.generator.JerseyJsonHomeGenerator;
 import de.otto.jsonhome.generator.JsonHomeSource;
+import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.model.ResourceLink;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.testng.annotations.Test;
 
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import static de.otto.jsonhome.model.Allow.GET;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static java.net.URI.create;
 import static java.util.Arrays.asList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -43,9 +57,9 @@ public class JsonHomeResourceTest {
         final JsonHomeResource controller = new JsonHomeResource(
                 jsonHomeSource(ResourceFixtures.ResourceWithRequestMappingAndLinkRelationTypeAtClassLevel.class));
         // when
-        final Response response = controller.getAsApplicationJsonHome();
+        final Response response = controller.getAsApplicationJsonHome(null, null);
         @SuppressWarnings("unchecked")
-        final Map<String, ?> resourcesMap = new ObjectMapper().readValue((String) response.getEntity(), Map.class);
+        final Map<String, ?> resourcesMap = new ObjectMapper().readValue(entityOf(response), Map.class);
         // then
         assertEquals(response.getMetadata().getFirst("Cache-Control"), "max-age=3600");
         assertEquals(resourcesMap.size(), 1);
@@ -64,9 +78,9 @@ public class JsonHomeResourceTest {
         // given
         final JsonHomeResource controller = new JsonHomeResource();
         // when
-        final Response response = controller.getAsApplicationJsonHome();
+        final Response response = controller.getAsApplicationJsonHome(null, null);
         @SuppressWarnings("unchecked")
-        final Map<String, ?> resourcesMap = new ObjectMapper().readValue((String) response.getEntity(), Map.class);
+        final Map<String, ?> resourcesMap = new ObjectMapper().readValue(entityOf(response), Map.class);
         // then
         assertEquals(response.getMetadata().getFirst("Cache-Control"), "max-age=3600");
         assertEquals(resourcesMap.size(), 1);
@@ -94,9 +108,9 @@ public class JsonHomeResourceTest {
         final JsonHomeResource controller = new JsonHomeResource(
                 jsonHomeSource(ResourceFixtures.ResourceWithDocumentation.class));
         // when
-        final Response response = controller.getAsApplicationJsonHome();
+        final Response response = controller.getAsApplicationJsonHome(null, null);
         @SuppressWarnings("unchecked")
-        final Map<String, ?> resourcesMap = new ObjectMapper().readValue((String) response.getEntity(), Map.class);
+        final Map<String, ?> resourcesMap = new ObjectMapper().readValue(entityOf(response), Map.class);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -110,9 +124,9 @@ public class JsonHomeResourceTest {
         final JsonHomeResource controller = new JsonHomeResource(
                 jsonHomeSource(ResourceFixtures.ResourceWithDocumentation.class));
         // when
-        final Response response = controller.getAsApplicationJson();
+        final Response response = controller.getAsApplicationJson(null, null);
         @SuppressWarnings("unchecked")
-        final Map<String, ?> resourcesMap = new ObjectMapper().readValue((String) response.getEntity(), Map.class);
+        final Map<String, ?> resourcesMap = new ObjectMapper().readValue(entityOf(response), Map.class);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -127,9 +141,9 @@ public class JsonHomeResourceTest {
         final JsonHomeResource controller = new JsonHomeResource(
                 jsonHomeSource(ResourceFixtures.ResourceWithRequestMappingAndLinkRelationTypeAtClassLevel.class));
         // when
-        final Response response = controller.getAsApplicationJsonHome();
+        final Response response = controller.getAsApplicationJsonHome(null, null);
         @SuppressWarnings("unchecked")
-        final Map<String, ?> resourcesMap = new ObjectMapper().readValue((String) response.getEntity(), Map.class);
+        final Map<String, ?> resourcesMap = new ObjectMapper().readValue(entityOf(response), Map.class);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -142,9 +156,9 @@ public class JsonHomeResourceTest {
         final JsonHomeResource controller = new JsonHomeResource(
                 jsonHomeSource(ResourceFixtures.ResourceWithDocumentation.class));
         // when
-        final Response response = controller.getAsApplicationJsonHome();
+        final Response response = controller.getAsApplicationJsonHome(null, null);
         @SuppressWarnings("unchecked")
-        final Map<String, ?> resourcesMap = new ObjectMapper().readValue((String) response.getEntity(), Map.class);
+        final Map<String, ?> resourcesMap = new ObjectMapper().readValue(entityOf(response), Map.class);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -164,4 +178,78 @@ public class JsonHomeResourceTest {
                 Arrays.<Class<?>>asList(classes));
     }
 
+    @Test
+    public void shouldReturnETag() throws Exception {
+        // given
+        final JsonHomeResource controller = new JsonHomeResource(
+                jsonHomeSource(ResourceFixtures.ResourceWithRequestMappingAndLinkRelationTypeAtClassLevel.class));
+        // when
+        final Response response = controller.getAsApplicationJsonHome(null, null);
+        // then
+        assertEquals(response.getStatus(), 200);
+        assertNotNull(response.getMetadata().getFirst("ETag"));
+        assertEquals(response.getMetadata().getFirst("Content-Length"), entityOf(response).length);
+    }
+
+    @Test
+    public void shouldReturnNotModifiedIfETagMatches() throws Exception {
+        // given
+        final JsonHomeResource controller = new JsonHomeResource(
+                jsonHomeSource(ResourceFixtures.ResourceWithRequestMappingAndLinkRelationTypeAtClassLevel.class));
+        final Object eTag = controller.getAsApplicationJsonHome(null, null).getMetadata().getFirst("ETag");
+        // when
+        final Response response = controller.getAsApplicationJsonHome(eTag.toString(), null);
+        // then
+        assertEquals(response.getStatus(), 304);
+        assertEquals(response.getMetadata().getFirst("ETag"), eTag);
+        assertEquals(response.getMetadata().getFirst("Cache-Control"), "max-age=3600");
+        assertNull(response.getEntity());
+    }
+
+    @Test
+    public void shouldReturnGzipCompressedDocument() throws Exception {
+        // given
+        final JsonHomeResource controller = new JsonHomeResource(largeJsonHomeSource());
+        // when
+        final Response response = controller.getAsApplicationJson(null, "gzip, deflate");
+        // then
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getMetadata().getFirst("Content-Encoding"), "gzip");
+        assertEquals(response.getMetadata().getFirst("Vary"), "Accept, Accept-Encoding");
+        final byte[] compressed = entityOf(response);
+        assertEquals(response.getMetadata().getFirst("Content-Length"), compressed.length);
+        final Map<?, ?> json = new ObjectMapper().readValue(new GZIPInputStream(new ByteArrayInputStream(compressed)), Map.class);
+        assertEquals(json, new ObjectMapper().readValue(entityOf(controller.getAsApplicationJson(null, null)), Map.class));
+    }
+
+    @Test
+    public void shouldReturnNotModifiedForCompressedDocument() throws Exception {
+        // given
+        final JsonHomeResource controller = new JsonHomeResource(largeJsonHomeSource());
+        final Object eTag = controller.getAsApplicationJson(null, "deflate").getMetadata().getFirst("ETag");
+        // when
+        final Response response = controller.getAsApplicationJson(eTag.toString(), "deflate");
+        // then
+        assertEquals(response.getStatus(), 304);
+        assertTrue(eTag.toString().endsWith("-deflate\""));
+    }
+
+    private JsonHomeSource largeJsonHomeSource() {
+        final List<ResourceLink> resources = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            resources.add(directLink(
+                    create("http://example.org/rel/resource" + i),
+                    create("http://example.org/resource" + i),
+                    hintsBuilder().allowing(GET).representedAs("text/html", "application/json").build()));
+        }
+        final JsonHome jsonHome = jsonHome(resources);
+        return () -> jsonHome;
+    }
+
+    private byte[] entityOf(final Response response) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(stream);
+        return stream.toByteArray();
+    }
+
 }
@@ -16,12 +16,13 @@
 
 package de.otto.jsonhome.registry.controller;
 
-import de.otto.jsonhome.client.HttpJsonHomeClient;
 import de.otto.jsonhome.client.JsonHomeClient;
 import de.otto.jsonhome.client.JsonHomeClientException;
+import de.otto.jsonhome.client.JsonHomeResults;
 import de.otto.jsonhome.model.JsonHome;
 import de.otto.jsonhome.model.ResourceLink;
 import de.otto.jsonhome.registry.store.Link;
+import de.otto.jsonhome.registry.store.Registry;
 import de.otto.jsonhome.registry.store.RegistryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,15 +31,29 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PreDestroy;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import static de.otto.jsonhome.client.HttpJsonHomeClientBuilder.httpJsonHomeClientBuilder;
 import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Provides access to a json-home document containing the merged json-home documents registered in the {@link de.otto.jsonhome.registry.store.RegistryRepository}.
  *
- * The service is responsible for retrieving all registered documents.
+ * The service is responsible for retrieving all registered documents. The documents of a registry are retrieved
+ * concurrently, using at most {@link #setMaxConcurrency(int) maxConcurrency} requests at the same time. Documents
+ * that are not retrieved before the {@link #setTimeoutMillis(long) timeout} has elapsed are left out of the merged
+ * document, and reported by {@link #getUnavailableLinks(String)}.
  *
  * @author Guido Steinacker
  * @since 20.11.12
@@ -49,10 +64,20 @@ public class DefaultRegistryJsonHomeSource implements RegistryJsonHomeSource {
     private static Logger LOG = LoggerFactory.getLogger(DefaultRegistryJsonHomeSource.class);
 
     private final JsonHomeClient client;
+    private final ConcurrentMap<String, Set<URI>> unavailableLinks = new ConcurrentHashMap<>();
     private RegistryRepository registries;
+    private int maxConcurrency = 16;
+    private long timeoutMillis = 2000;
 
     public DefaultRegistryJsonHomeSource() {
-        this.client = new HttpJsonHomeClient();
+        // unavailable services should not delay the aggregation of the other documents:
+        this(httpJsonHomeClientBuilder()
+                .withCircuitBreaker(3, 5, 300, SECONDS)
+                .build());
+    }
+
+    public DefaultRegistryJsonHomeSource(final JsonHomeClient client) {
+        this.client = client;
     }
 
     @PreDestroy
@@ -66,24 +91,67 @@ public class DefaultRegistryJsonHomeSource implements RegistryJsonHomeSource {
         this.registries = registries;
     }
 
+    /**
+     * Sets the maximum number of json-home documents of a registry that are retrieved concurrently. Default is 16.
+     *
+     * @param maxConcurrency the maximum number of concurrent requests. Must be positive.
+     */
+    public void setMaxConcurrency(final int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Sets the deadline for retrieving all json-home documents of a registry. Default is 2000ms.
+     *
+     * @param timeoutMillis the deadline in milliseconds. Values &lt;= 0 disable the deadline.
+     */
+    public void setTimeoutMillis(final long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Returns the json-home documents of a registry that could not be retrieved, or that were not retrieved before
+     * the deadline, the last time the merged document of the registry was created.
+     *
+     * @param registryName the name of the registry.
+     * @return unmodifiable set of hrefs of the registered links.
+     */
+    public Set<URI> getUnavailableLinks(final String registryName) {
+        final Set<URI> hrefs = unavailableLinks.get(registryName);
+        return hrefs != null ? hrefs : Collections.<URI>emptySet();
+    }
+
     /**
      * Returns the JsonHome document for the specified registryName.
      *
+     * If multiple registered documents contain the same relation type, the resource link of the document that is
+     * registered last takes precedence.
+     *
      * @param registryName the registryName (like develop, live) of this entry. Different registered environments
      *                    are used to access different versions of json-home documents during development.
      *                    The default registryName is ""; null is not accepted.
      * @return the json-home for the specified registryName.
      */
     public JsonHome getJsonHome(final String registryName) {
-        if (registries.get(registryName) == null) {
+        final Registry registry = registries.get(registryName);
+        if (registry == null) {
             final String msg = "Registry '" + registryName + "' does not exist.";
             LOG.warn(msg);
             throw new IllegalArgumentException(msg);
         } else {
+            final List<URI> hrefs = new ArrayList<>();
+            for (final Link link : registry.getAll()) {
+                hrefs.add(link.getHref());
+            }
+            final JsonHomeResults results = client.getAll(hrefs, maxConcurrency, timeoutMillis, MILLISECONDS);
             final Map<URI, ResourceLink> allResourceLinks = new HashMap<>();
-            for (final Link link : registries.get(registryName).getAll()) {
-                try {
-                    final JsonHome jsonHome = client.get(link.getHref());
+            // merged in the order of the registry, so later links still override earlier ones:
+            for (final URI href : hrefs) {
+                final JsonHome jsonHome = results.get(href);
+                if (jsonHome != null) {
                     final Map<URI, ResourceLink> resources = jsonHome.getResources();
                     for (final URI uri : resources.keySet()) {
                         if (allResourceLinks.containsKey(uri)) {
@@ -92,12 +160,13 @@ public class DefaultRegistryJsonHomeSource implements RegistryJsonHomeSource {
                         }
                         allResourceLinks.put(uri, resources.get(uri));
                     }
-                    allResourceLinks.putAll(resources);
-                } catch (final JsonHomeClientException e) {
-                    LOG.warn("Unable to get json-home document {}: {}", link.getHref(), e.getMessage());
-                    // After some retries, the json-home MAY automatically be unregistered here.
                 }
             }
+            for (final Map.Entry<URI, JsonHomeClientException> failure : results.getFailures().entrySet()) {
+                LOG.warn("Unable to get json-home document {}: {}", failure.getKey(), failure.getValue().getMessage());
+                // After some retries, the json-home MAY automatically be unregistered here.
+            }
+            unavailableLinks.put(registryName, unmodifiableSet(new LinkedHashSet<>(results.getFailures().keySet())));
             LOG.debug("Returning json-home instance containing {} relation types: {}",
                     allResourceLinks.size(), allResourceLinks.keySet());
             return jsonHome(allResourceLinks.values());
@@ -18,6 +18,9 @@ package de.otto.jsonhome.registry.controller;
 
 import de.otto.jsonhome.annotation.Doc;
 import de.otto.jsonhome.controller.JsonHomeController;
+import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.converter.RenderedJsonHome;
+import de.otto.jsonhome.model.JsonHome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,18 +28,25 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static de.otto.jsonhome.converter.JsonHomeConverter.toRepresentation;
+import static de.otto.jsonhome.controller.Responses.writeRenderedJsonHome;
 import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSON;
 import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSONHOME;
+import static de.otto.jsonhome.converter.RenderedJsonHome.renderedJsonHome;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 
 /**
+ * Controller serving the json-home documents of the registries.
+ *
+ * The JsonHome documents are rendered once per registry and document, and written using the pre-rendered bytes.
+ * Large documents are compressed using gzip or deflate, if accepted by the client.
+ *
  * @author Guido Steinacker
  * @since 08.01.13
  */
@@ -48,6 +58,7 @@ public class RegistryJsonHomeController {
     private RegistryJsonHomeSource jsonHomeSource;
     private int maxAge = 3600;
     private String defaultRegistry = "default";
+    private final ConcurrentMap<String, RenderedJsonHome> renderedJsonHomes = new ConcurrentHashMap<>();
 
     @Autowired
     public void setRegistryJsonHomeSource(final RegistryJsonHomeSource registryJsonHomeSource) {
@@ -67,37 +78,53 @@ public class RegistryJsonHomeController {
     @RequestMapping(
             value = "/json-home",
             produces = {"application/json-home"})
-    @ResponseBody
-    public Map<String, ?> getAsApplicationJsonHome(@RequestParam(required = false)
-                                                   @Doc(value = "The name of the json-home registry.")
-                                                   final String registry,
-                                                   final HttpServletResponse response) {
+    public void getAsApplicationJsonHome(@RequestParam(required = false)
+                                         @Doc(value = "The name of the json-home registry.")
+                                         final String registry,
+                                         final HttpServletRequest request,
+                                         final HttpServletResponse response) throws IOException {
         LOG.info("Returning json-home in application/json-home format.");
-        // home document should be cached:
-        response.setHeader("Cache-Control", "max-age=" + maxAge);
-        response.setHeader("Vary", "Accept");
-        final String selectedRegistry = registry != null ? registry : defaultRegistry;
-        return toRepresentation(jsonHomeSource.getJsonHome(selectedRegistry), APPLICATION_JSONHOME);
+        writeRegistryJsonHome(registry, APPLICATION_JSONHOME, request, response);
     }
 
     @RequestMapping(
             value = "/json-home",
             produces = {"application/json"})
-    @ResponseBody
-    public Map<String, ?> getAsApplicationJson(@RequestParam(required = false)
-                                               @Doc(value = "The name of the json-home registry.")
-                                               final String registry,
-                                               final HttpServletResponse response) {
+    public void getAsApplicationJson(@RequestParam(required = false)
+                                     @Doc(value = "The name of the json-home registry.")
+                                     final String registry,
+                                     final HttpServletRequest request,
+                                     final HttpServletResponse response) throws IOException {
         LOG.info("Returning json-home in application/json format.");
-        // home document should be cached:
-        response.setHeader("Cache-Control", "max-age=" + maxAge);
-        response.setHeader("Vary", "Accept");
+        writeRegistryJsonHome(registry, APPLICATION_JSON, request, response);
+    }
+
+    private void writeRegistryJsonHome(final String registry,
+                                       final JsonHomeMediaType mediaType,
+                                       final HttpServletRequest request,
+                                       final HttpServletResponse response) throws IOException {
+        final String selectedRegistry = registry != null ? registry : defaultRegistry;
+        final JsonHome jsonHome;
         try {
-            final String selectedRegistry = registry != null ? registry : defaultRegistry;
-            return toRepresentation(jsonHomeSource.getJsonHome(selectedRegistry), APPLICATION_JSON);
+            jsonHome = jsonHomeSource.getJsonHome(selectedRegistry);
         } catch (final IllegalArgumentException e) {
-            try { response.sendError(SC_NOT_FOUND, e.getMessage()); } catch (IOException ignore) { }
-            throw e;
+            response.sendError(SC_NOT_FOUND, e.getMessage());
+            return;
+        }
+        writeRenderedJsonHome(renderedJsonHomeOf(selectedRegistry, jsonHome), mediaType, maxAge, request, response);
+    }
+
+    /**
+     * Returns the rendered representations of the json-home document of a registry. The document is only rendered
+     * again, if it differs from the previously rendered document of the registry.
+     */
+    private RenderedJsonHome renderedJsonHomeOf(final String registry, final JsonHome jsonHome) {
+        final RenderedJsonHome previous = renderedJsonHomes.get(registry);
+        if (previous != null && (previous.getJsonHome() == jsonHome || previous.getJsonHome().equals(jsonHome))) {
+            return previous;
         }
+        final RenderedJsonHome rendered = renderedJsonHome(jsonHome);
+        renderedJsonHomes.put(registry, rendered);
+        return rendered;
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.registry.controller;
+
+import de.otto.jsonhome.client.SimpleJsonHomeClient;
+import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.registry.store.InMemoryRegistryRepository;
+import de.otto.jsonhome.registry.store.Link;
+import de.otto.jsonhome.registry.store.Registry;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.Hints.emptyHints;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static java.net.URI.create;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class DefaultRegistryJsonHomeSourceTest {
+
+    private static final URI FIRST_URI = create("http://example.org/first/json-home");
+    private static final URI SECOND_URI = create("http://example.org/second/json-home");
+    private static final URI MISSING_URI = create("http://example.org/missing/json-home");
+    private static final URI PRODUCTS_REL = create("http://example.org/rel/products");
+    private static final URI STOREFRONT_REL = create("http://example.org/rel/storefront");
+
+    @Test
+    public void shouldMergeDocumentsInRegistryOrder() {
+        // given
+        final SimpleJsonHomeClient client = new SimpleJsonHomeClient();
+        client.register(FIRST_URI, jsonHome(
+                directLink(PRODUCTS_REL, create("http://example.org/first/products"), emptyHints()),
+                directLink(STOREFRONT_REL, create("http://example.org/first/storefront"), emptyHints())));
+        client.register(SECOND_URI, jsonHome(
+                directLink(PRODUCTS_REL, create("http://example.org/second/products"), emptyHints())));
+        final DefaultRegistryJsonHomeSource source = sourceFor(client, FIRST_URI, SECOND_URI);
+        // when
+        final JsonHome jsonHome = source.getJsonHome("default");
+        // then
+        assertEquals(jsonHome.getResources().size(), 2);
+        assertEquals(jsonHome.getResourceFor(PRODUCTS_REL).asDirectLink().getHref(),
+                create("http://example.org/second/products"));
+        assertEquals(jsonHome.getResourceFor(STOREFRONT_REL).asDirectLink().getHref(),
+                create("http://example.org/first/storefront"));
+        assertTrue(source.getUnavailableLinks("default").isEmpty());
+    }
+
+    @Test
+    public void shouldReportUnavailableDocuments() {
+        // given
+        final SimpleJsonHomeClient client = new SimpleJsonHomeClient();
+        client.register(FIRST_URI, jsonHome(
+                directLink(PRODUCTS_REL, create("http://example.org/first/products"), emptyHints())));
+        final DefaultRegistryJsonHomeSource source = sourceFor(client, MISSING_URI, FIRST_URI);
+        // when
+        final JsonHome jsonHome = source.getJsonHome("default");
+        // then
+        assertEquals(jsonHome.getResources().keySet(), singleton(PRODUCTS_REL));
+        assertEquals(source.getUnavailableLinks("default"), singleton(MISSING_URI));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectUnknownRegistry() {
+        // given
+        final DefaultRegistryJsonHomeSource source = sourceFor(new SimpleJsonHomeClient(), FIRST_URI);
+        // when
+        source.getJsonHome("unknown");
+        // then an exception is thrown
+    }
+
+    private static DefaultRegistryJsonHomeSource sourceFor(final SimpleJsonHomeClient client, final URI... hrefs) {
+        final InMemoryRegistryRepository registries = new InMemoryRegistryRepository();
+        final Link[] links = new Link[hrefs.length];
+        for (int i = 0; i < hrefs.length; ++i) {
+            links[i] = new Link(hrefs[i], "service " + i);
+        }
+        registries.createOrUpdate(new Registry("default", "Default registry", asList(links)));
+        final DefaultRegistryJsonHomeSource source = new DefaultRegistryJsonHomeSource(client);
+        source.setRegistries(registries);
+        return source;
+    }
+}
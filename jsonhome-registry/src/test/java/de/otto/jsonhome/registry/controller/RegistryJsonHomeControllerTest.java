@@ -17,16 +17,19 @@
 package de.otto.jsonhome.registry.controller;
 
 import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.model.ResourceLink;
+import de.otto.jsonhome.parser.JacksonJsonHomeParser;
 import de.otto.jsonhome.registry.store.RegistryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Map;
 
 import static de.otto.jsonhome.model.DirectLink.directLink;
 import static de.otto.jsonhome.model.Hints.emptyHints;
@@ -60,16 +63,49 @@ public class RegistryJsonHomeControllerTest extends AbstractTestNGSpringContextT
         jsonHomeController.setRegistryJsonHomeSource(getJsonHomeSource());
         registriesController.putRegistry("test", registryLiveWithSingleLinkTo("foo"), new MockHttpServletResponse());
         // when:
-        final Map<String, ?> json = jsonHomeController.getAsApplicationJson("test", new MockHttpServletResponse());
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        jsonHomeController.getAsApplicationJson("test", new MockHttpServletRequest(), response);
+        final JsonHome json = new JacksonJsonHomeParser().parse(new ByteArrayInputStream(response.getContentAsByteArray()));
         // then:
         assertNotNull(json);
-        assertTrue(json.containsKey("resources"));
-        final Object resources = getFrom(json, "resources");
-        assertEquals(((Map)resources).size(), 1);
-        final Object resource = getFrom(resources, "http://example.org/rel/foo");
+        assertEquals(json.getResources().size(), 1);
+        final ResourceLink resource = json.getResourceFor(create("http://example.org/rel/foo"));
         assertNotNull(resource);
-        final Object href = getFrom(resource, "href");
-        assertEquals(href, "http://example.org/fooResource");
+        assertEquals(resource.asDirectLink().getHref(), create("http://example.org/fooResource"));
+    }
+
+    @Test
+    public void shouldReturnNotFoundForUnknownRegistry() throws IOException {
+        // given:
+        final RegistryJsonHomeController jsonHomeController = new RegistryJsonHomeController();
+        jsonHomeController.setRegistryJsonHomeSource(new RegistryJsonHomeSource() {
+            @Override
+            public JsonHome getJsonHome(final String environment) {
+                throw new IllegalArgumentException("Registry '" + environment + "' does not exist.");
+            }
+        });
+        // when:
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        jsonHomeController.getAsApplicationJsonHome("unknown", new MockHttpServletRequest(), response);
+        // then:
+        assertEquals(response.getStatus(), 404);
+    }
+
+    @Test
+    public void shouldReturnNotModifiedIfETagMatches() throws IOException {
+        // given:
+        final RegistryJsonHomeController jsonHomeController = new RegistryJsonHomeController();
+        jsonHomeController.setRegistryJsonHomeSource(getJsonHomeSource());
+        final MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        jsonHomeController.getAsApplicationJsonHome("test", new MockHttpServletRequest(), firstResponse);
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", firstResponse.getHeader("ETag"));
+        // when:
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        jsonHomeController.getAsApplicationJsonHome("test", request, response);
+        // then:
+        assertEquals(response.getStatus(), 304);
+        assertEquals(response.getHeader("Vary"), "Accept, Accept-Encoding");
     }
 
     private RegistryJsonHomeSource getJsonHomeSource() {
@@ -86,8 +122,4 @@ public class RegistryJsonHomeControllerTest extends AbstractTestNGSpringContextT
             }
         };
     }
-
-    private Object getFrom(final Object map, final String key) {
-        return ((Map)map).get(key);
-    }
 }
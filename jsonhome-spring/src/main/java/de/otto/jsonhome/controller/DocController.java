@@ -21,24 +21,35 @@ import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.BufferedReader;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.util.StringUtils.cleanPath;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 import static org.springframework.web.bind.annotation.RequestMethod.HEAD;
 
 /**
  * Controller serving the /docs resource based on markdown documents.
  *
- * The implementation makes use of the Markdown4j library.
+ * The implementation makes use of the Markdown4j library. Markdown and rendered HTML are cached per normalized path
+ * of existing documents and only read and rendered again, if the lastModified timestamp of the underlying resource
+ * changes. Responses contain ETag and Last-Modified headers; conditional requests are answered with 304 NOT MODIFIED.
+ * As the representation depends on the Accept header, every response has a different ETag per content type and
+ * contains a Vary: Accept header.
  *
  * @author Guido Steinacker
  * @since 17.02.13
@@ -48,46 +59,55 @@ import static org.springframework.web.bind.annotation.RequestMethod.HEAD;
 @RequestMapping("/docs")
 public class DocController {
 
-    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
 
+    private final ConcurrentMap<String, RenderedDoc> renderedDocs = new ConcurrentHashMap<>();
     private Resource rootDir;
 
     public void setRootDir(final Resource rootDir) {
         this.rootDir = rootDir;
+        this.renderedDocs.clear();
     }
 
     /**
-     * Returns the requested /docs resource as html.
+     * Writes the requested /docs resource as html.
      * The returned content type is text/html.
      *
      * @param request the HttpServletRequest.
-     * @return markdown of the requested document.
+     * @param response the HttpServletResponse used to write the html of the requested document.
      * @throws IOException if the document does not exist.
      */
     @RequestMapping(
             value = "/**",
             method = {GET, HEAD},
             produces = {"text/html", "*/*"})
-    @ResponseBody
-    public String getMarkdownAsHtml(final HttpServletRequest request) throws IOException {
-        return new Markdown4jProcessor().process(getSourceFor(request));
+    public void getMarkdownAsHtml(final HttpServletRequest request,
+                                  final HttpServletResponse response) throws IOException {
+        final RenderedDoc doc = getRenderedDocFor(request);
+        write(doc.html, doc.htmlETag, "text/html;charset=UTF-8", doc.lastModified, request, response);
     }
 
     /**
-     * Returns the requested /docs resource as markdown.
-     * The returned content type is text/x-markdown.
+     * Writes the requested /docs resource as markdown.
+     * The returned content type is text/x-markdown, or text/plain if text/x-markdown is not accepted.
      *
      * @param request the HttpServletRequest.
-     * @return markdown of the requested document.
+     * @param response the HttpServletResponse used to write the markdown of the requested document.
      * @throws IOException if the document does not exist.
      */
     @RequestMapping(
             value = "/**",
             method = {GET, HEAD},
             produces = {"text/x-markdown", "text/plain"})
-    @ResponseBody
-    public String getMarkdown(final HttpServletRequest request) throws IOException {
-        return getSourceFor(request);
+    public void getMarkdown(final HttpServletRequest request,
+                            final HttpServletResponse response) throws IOException {
+        final RenderedDoc doc = getRenderedDocFor(request);
+        final String accept = request.getHeader("Accept");
+        final String contentType = accept == null || accept.contains("text/x-markdown")
+                ? "text/x-markdown;charset=UTF-8"
+                : "text/plain;charset=UTF-8";
+        final String eTag = contentType.startsWith("text/x-markdown") ? doc.markdownETag : doc.textETag;
+        write(doc.markdown, eTag, contentType, doc.lastModified, request, response);
     }
 
     /**
@@ -102,29 +122,150 @@ public class DocController {
         response.sendError(NOT_FOUND.value(), "File not found");
     }
 
+    private void write(final byte[] content,
+                       final String eTag,
+                       final String contentType,
+                       final long lastModified,
+                       final HttpServletRequest request,
+                       final HttpServletResponse response) throws IOException {
+        response.setHeader("ETag", eTag);
+        response.setHeader("Vary", "Accept");
+        if (lastModified > 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+        if (isNotModified(eTag, lastModified, request)) {
+            response.setStatus(SC_NOT_MODIFIED);
+        } else {
+            response.setContentType(contentType);
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
+        }
+    }
+
+    /**
+     * Checks the preconditions of a conditional request. As specified in RFC 7232, If-Modified-Since is ignored
+     * if the request contains an If-None-Match header.
+     */
+    private boolean isNotModified(final String eTag, final long lastModified, final HttpServletRequest request) {
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (final String candidate : ifNoneMatch.split(",")) {
+                final String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(eTag) || (tag.startsWith("W/") && tag.substring(2).equals(eTag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (lastModified <= 0) {
+            return false;
+        }
+        try {
+            final long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            // HTTP dates have a resolution of seconds:
+            return ifModifiedSince >= 0 && ifModifiedSince >= lastModified / 1000 * 1000;
+        } catch (final IllegalArgumentException e) {
+            // unparsable date: ignore the header
+            return false;
+        }
+    }
+
     /**
-     * Returns the source code of the requested document.
+     * Returns the markdown and html of the requested document. The document is only read and rendered again, if
+     * it was not requested before, or if the lastModified timestamp of the resource has changed.
      *
      * @param request the HttpServletRequest.
-     * @return source of the documentation.
+     * @return RenderedDoc
      * @throws IOException if the resource can not be found.
      */
-    private String getSourceFor(final HttpServletRequest request) throws IOException {
-        final String requestURI = request.getRequestURI().substring(request.getRequestURI().indexOf("/docs/") + 6);
-        final InputStream file = rootDir.createRelative(requestURI).getInputStream();
+    private RenderedDoc getRenderedDocFor(final HttpServletRequest request) throws IOException {
+        final String path = cleanPath(request.getRequestURI().substring(request.getRequestURI().indexOf("/docs/") + 6));
+        // cleanPath resolves all inner "..", only leading ones are left:
+        if (path.equals("..") || path.startsWith("../") || path.startsWith("/../")) {
+            throw new FileNotFoundException("Document " + path + " is outside of the docs directory");
+        }
+        final Resource resource = rootDir.createRelative(path);
+        final long lastModified;
+        final String markdown;
+        RenderedDoc doc = renderedDocs.get(path);
         try {
-            final BufferedReader reader = new BufferedReader( new InputStreamReader(file));
-            String line;
-            final StringBuilder  markdown = new StringBuilder();
+            lastModified = resource.lastModified();
+            if (doc != null && doc.lastModified == lastModified) {
+                return doc;
+            }
+            markdown = contentOf(resource);
+        } catch (final IOException e) {
+            // misses are not cached:
+            renderedDocs.remove(path);
+            throw e;
+        }
+        doc = new RenderedDoc(lastModified, markdown, new Markdown4jProcessor().process(markdown));
+        renderedDocs.put(path, doc);
+        return doc;
+    }
 
-            while((line = reader.readLine()) != null) {
-                markdown.append(line);
-                markdown.append(LINE_SEPARATOR);
+    /**
+     * @return the number of cached documents.
+     */
+    int getCachedDocuments() {
+        return renderedDocs.size();
+    }
+
+    /**
+     * Returns the UTF-8 encoded source code of the document.
+     *
+     * @param resource the resource of the document.
+     * @return source of the documentation.
+     * @throws IOException if the resource can not be read.
+     */
+    private static String contentOf(final Resource resource) throws IOException {
+        try (final ReadableByteChannel channel = Channels.newChannel(resource.getInputStream())) {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            while (channel.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    final ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+            buffer.flip();
+            return UTF_8.decode(buffer).toString();
+        }
+    }
+
+    private static String eTagOf(final byte[] bytes, final String suffix) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            final StringBuilder eTag = new StringBuilder(digest.length * 2 + suffix.length() + 2).append('"');
+            for (final byte b : digest) {
+                eTag.append(HEX_DIGITS[(b >> 4) & 0x0f]).append(HEX_DIGITS[b & 0x0f]);
             }
+            return eTag.append(suffix).append('"').toString();
+        } catch (final NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The cached representations of a single document.
+     */
+    private static final class RenderedDoc {
+        private final long lastModified;
+        private final byte[] markdown;
+        private final String markdownETag;
+        private final String textETag;
+        private final byte[] html;
+        private final String htmlETag;
 
-            return markdown.toString();
-        } finally {
-            file.close();
+        private RenderedDoc(final long lastModified, final String markdown, final String html) {
+            this.lastModified = lastModified;
+            this.markdown = markdown.getBytes(UTF_8);
+            this.markdownETag = eTagOf(this.markdown, "");
+            this.textETag = eTagOf(this.markdown, "-text");
+            this.html = html.getBytes(UTF_8);
+            this.htmlETag = eTagOf(this.html, "");
         }
     }
 
@@ -16,28 +16,36 @@
 
 package de.otto.jsonhome.controller;
 
+import de.otto.jsonhome.converter.RenderedJsonHome;
 import de.otto.jsonhome.generator.JsonHomeSource;
+import de.otto.jsonhome.model.JsonHome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
-import java.util.Map;
 
-import static de.otto.jsonhome.converter.JsonHomeConverter.toRepresentation;
 import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSON;
 import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSONHOME;
+import static de.otto.jsonhome.controller.Responses.writeRenderedJsonHome;
+import static de.otto.jsonhome.converter.RenderedJsonHome.renderedJsonHome;
 import static java.net.URI.create;
 
 
 /**
  * A Spring controller, serving a json-home document.
  *
+ * The document is rendered once per JsonHome instance provided by the {@link JsonHomeSource}. Requests are
+ * answered by writing the pre-rendered bytes, or with 304 NOT MODIFIED if the If-None-Match header of the
+ * request matches the ETag of the representation. Large documents are compressed using gzip or deflate, if
+ * accepted by the client.
+ *
  * @author Guido Steinacker
  * @since 15.09.12
  */
@@ -50,6 +58,7 @@ public class JsonHomeController {
     private JsonHomeSource jsonHomeSource;
     private URI relationTypeBaseUri;
     private int maxAge = 3600;
+    private volatile RenderedJsonHome renderedJsonHome;
 
     @Autowired
     public void setJsonHomeSource(final JsonHomeSource jsonHomeSource) {
@@ -72,24 +81,33 @@ public class JsonHomeController {
     }
 
     @RequestMapping(produces = {"application/json-home"})
-    @ResponseBody
-    public Map<String, ?> getAsApplicationJsonHome(final HttpServletResponse response) {
-        LOG.info("Returning json-home in application/json-home format.");
-        // home document should be cached:
-        response.setHeader("Cache-Control", "max-age=" + maxAge);
-        response.setHeader("Vary", "Accept");
-        return toRepresentation(jsonHomeSource.getJsonHome(), APPLICATION_JSONHOME);
+    public void getAsApplicationJsonHome(final HttpServletRequest request,
+                                         final HttpServletResponse response) throws IOException {
+        LOG.debug("Returning json-home in application/json-home format.");
+        writeRenderedJsonHome(currentRenderedJsonHome(), APPLICATION_JSONHOME, maxAge, request, response);
     }
 
     @RequestMapping(produces = {"application/json"})
-    @ResponseBody
-    public Map<String, ?> getAsApplicationJson(final HttpServletResponse response) {
-        LOG.info("Returning json-home in application/json format.");
-        // home document should be cached:
-        response.setHeader("Cache-Control", "max-age=" + maxAge);
-        response.setHeader("Vary", "Accept");
-        return toRepresentation(jsonHomeSource.getJsonHome(), APPLICATION_JSON);
+    public void getAsApplicationJson(final HttpServletRequest request,
+                                     final HttpServletResponse response) throws IOException {
+        LOG.debug("Returning json-home in application/json format.");
+        writeRenderedJsonHome(currentRenderedJsonHome(), APPLICATION_JSON, maxAge, request, response);
     }
 
+    /**
+     * Returns the rendered representations of the current JsonHome. The document is only rendered again,
+     * if the JsonHomeSource is returning a different instance.
+     *
+     * @return RenderedJsonHome
+     */
+    private RenderedJsonHome currentRenderedJsonHome() {
+        final JsonHome jsonHome = jsonHomeSource.getJsonHome();
+        RenderedJsonHome rendered = this.renderedJsonHome;
+        if (rendered == null || rendered.getJsonHome() != jsonHome) {
+            rendered = renderedJsonHome(jsonHome);
+            this.renderedJsonHome = rendered;
+        }
+        return rendered;
+    }
 
 }
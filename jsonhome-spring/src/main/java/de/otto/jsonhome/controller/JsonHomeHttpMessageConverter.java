@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.controller;
+
+import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.parser.JacksonJsonHomeParser;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import static de.otto.jsonhome.converter.JsonHomeWriter.writeJsonHome;
+
+/**
+ * A HttpMessageConverter used to write JsonHome instances as application/json-home or application/json.
+ *
+ * The document is streamed to the response using {@link de.otto.jsonhome.converter.JsonHomeWriter}, so controllers
+ * may return JsonHome instead of converting it into a Map first. The representation is selected by the content
+ * type negotiated by Spring: application/json-home renders the json-home document, every other supported media type
+ * renders the application/json representation including the documentation of the resources.
+ *
+ * JsonHome documents are also read using a {@link JacksonJsonHomeParser}.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class JsonHomeHttpMessageConverter extends AbstractHttpMessageConverter<JsonHome> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static final MediaType APPLICATION_JSONHOME = new MediaType("application", "json-home", UTF_8);
+    public static final MediaType APPLICATION_JSON = new MediaType("application", "json", UTF_8);
+
+    public JsonHomeHttpMessageConverter() {
+        super(APPLICATION_JSONHOME, APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(final Class<?> clazz) {
+        return JsonHome.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected JsonHome readInternal(final Class<? extends JsonHome> clazz,
+                                    final HttpInputMessage inputMessage) throws IOException {
+        try {
+            return new JacksonJsonHomeParser().parse(inputMessage.getBody());
+        } catch (final IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Unable to parse json-home document: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void writeInternal(final JsonHome jsonHome,
+                                 final HttpOutputMessage outputMessage) throws IOException {
+        final MediaType contentType = outputMessage.getHeaders().getContentType();
+        writeJsonHome(jsonHome, jsonHomeMediaTypeOf(contentType), outputMessage.getBody());
+    }
+
+    private JsonHomeMediaType jsonHomeMediaTypeOf(final MediaType contentType) {
+        return contentType != null && APPLICATION_JSONHOME.isCompatibleWith(contentType)
+                ? JsonHomeMediaType.APPLICATION_JSONHOME
+                : JsonHomeMediaType.APPLICATION_JSON;
+    }
+}
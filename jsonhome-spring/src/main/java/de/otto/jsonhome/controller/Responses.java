@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.controller;
+
+import de.otto.jsonhome.converter.ContentCoding;
+import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.converter.RenderedJsonHome;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static de.otto.jsonhome.converter.ContentCoding.IDENTITY;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+
+/**
+ * Helper used by controllers to write pre-rendered json-home documents.
+ *
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public final class Responses {
+
+    private Responses() {}
+
+    /**
+     * Writes the representation of a rendered json-home document to the response.
+     *
+     * The content coding is negotiated using the Accept-Encoding header of the request, so large documents are
+     * transferred compressed. If the If-None-Match header of the request matches the ETag of the representation,
+     * 304 NOT MODIFIED is returned.
+     *
+     * @param rendered the rendered json-home document.
+     * @param mediaType the media type of the representation.
+     * @param maxAge max-age of the Cache-Control header in seconds.
+     * @param request the HTTP request.
+     * @param response the HTTP response.
+     * @throws IOException if writing the response fails.
+     */
+    public static void writeRenderedJsonHome(final RenderedJsonHome rendered,
+                                             final JsonHomeMediaType mediaType,
+                                             final int maxAge,
+                                             final HttpServletRequest request,
+                                             final HttpServletResponse response) throws IOException {
+        final ContentCoding coding = rendered.contentCodingFor(mediaType, request.getHeader("Accept-Encoding"));
+        // home document should be cached:
+        response.setHeader("Cache-Control", "max-age=" + maxAge);
+        response.setHeader("Vary", "Accept, Accept-Encoding");
+        response.setHeader("ETag", rendered.getETag(mediaType, coding));
+        if (rendered.isNotModified(mediaType, coding, request.getHeader("If-None-Match"))) {
+            response.setStatus(SC_NOT_MODIFIED);
+        } else {
+            response.setContentType(mediaType.toString());
+            if (coding != IDENTITY) {
+                response.setHeader("Content-Encoding", coding.getName());
+            }
+            response.setContentLength(rendered.getContentLength(mediaType, coding));
+            rendered.writeTo(mediaType, coding, response.getOutputStream());
+        }
+    }
+}
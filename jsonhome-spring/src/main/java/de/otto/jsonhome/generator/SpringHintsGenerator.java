@@ -29,7 +29,6 @@ import java.util.Set;
 import static de.otto.jsonhome.model.Allow.GET;
 import static java.util.Arrays.asList;
 import static java.util.EnumSet.of;
-import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 
 /**
  * A HintsGenerator that is used to generate Hints for Spring-base applications.
@@ -46,6 +45,16 @@ public class SpringHintsGenerator extends HintsGenerator {
         super(relationTypeBaseUri, docRootDir);
     }
 
+    /**
+     * Creates a SpringHintsGenerator.
+     *
+     * @param docsGenerator the generator used to create the documentation of link-relation types.
+     * @param annotationCache cache of the annotations of controller methods and classes.
+     */
+    public SpringHintsGenerator(final DocsGenerator docsGenerator, final AnnotationCache annotationCache) {
+        super(docsGenerator, annotationCache);
+    }
+
     /**
      * Analyses the method with a RequestMapping and returns a list of allowed http methods (GET, PUT, etc.).
      *
@@ -56,7 +65,7 @@ public class SpringHintsGenerator extends HintsGenerator {
      */
     @Override
     protected Set<Allow> allowedHttpMethodsOf(final Method method) {
-        final RequestMapping methodRequestMapping = findAnnotation(method, RequestMapping.class);
+        final RequestMapping methodRequestMapping = getAnnotationCache().findAnnotation(method, RequestMapping.class);
         final Set<Allow> allows = EnumSet.noneOf(Allow.class);
         for (Object o : methodRequestMapping.method()) {
             allows.add(Allow.valueOf(o.toString()));
@@ -70,7 +79,7 @@ public class SpringHintsGenerator extends HintsGenerator {
 
     @Override
     protected List<String> producedRepresentationsOf(final Method method) {
-        final RequestMapping methodRequestMapping = findAnnotation(method, RequestMapping.class);
+        final RequestMapping methodRequestMapping = getAnnotationCache().findAnnotation(method, RequestMapping.class);
         final String[] produces = methodRequestMapping.produces();
         return produces != null ? asList(produces) : Collections.<String>emptyList();
 
@@ -78,7 +87,7 @@ public class SpringHintsGenerator extends HintsGenerator {
 
     @Override
     protected List<String> consumedRepresentationsOf(final Method method) {
-        final RequestMapping methodRequestMapping = findAnnotation(method, RequestMapping.class);
+        final RequestMapping methodRequestMapping = getAnnotationCache().findAnnotation(method, RequestMapping.class);
         final String[] consumes = methodRequestMapping.consumes();
         return consumes != null ? asList(consumes) : Collections.<String>emptyList();
 
@@ -36,6 +36,16 @@ public class SpringHrefVarsGenerator extends HrefVarsGenerator {
         super(relationTypeBaseUri, docRootDir);
     }
 
+    /**
+     * Creates a SpringHrefVarsGenerator.
+     *
+     * @param docsGenerator the generator used to create the documentation of href-vars.
+     * @param annotationCache cache of the annotations of controller methods and classes.
+     */
+    public SpringHrefVarsGenerator(final DocsGenerator docsGenerator, final AnnotationCache annotationCache) {
+        super(docsGenerator, annotationCache);
+    }
+
     @Override
     protected boolean hasRequestParam(final ParameterInfo parameterInfo) {
         return parameterInfo.hasAnnotation(RequestParam.class);
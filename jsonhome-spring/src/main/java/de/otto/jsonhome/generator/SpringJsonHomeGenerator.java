@@ -22,6 +22,7 @@ import org.springframework.stereotype.Controller;
 
 import javax.annotation.PostConstruct;
 import java.net.URI;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 
@@ -61,6 +62,16 @@ public final class SpringJsonHomeGenerator extends JsonHomeGenerator {
         this.docRootDir = docRootDir;
     }
 
+    /**
+     * Enables the parallel analysis of controllers, using the common ForkJoinPool. Disabled by default.
+     *
+     * @param parallelGeneration true, if the controllers should be analyzed in parallel.
+     */
+    @Value("${jsonhome.parallelGeneration:false}")
+    public void setParallelGeneration(final boolean parallelGeneration) {
+        inParallel(parallelGeneration ? ForkJoinPool.commonPool() : null);
+    }
+
     @PostConstruct
     public void postConstruct() {
         setResourceLinkGenerator(new SpringResourceLinkGenerator(
@@ -16,14 +16,12 @@
 
 package de.otto.jsonhome.generator;
 
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import java.lang.reflect.Method;
 import java.net.URI;
 
 import static de.otto.jsonhome.generator.UriBuilder.normalized;
-import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 
 /**
  * A Spring-based ResourceLinkGenerator.
@@ -49,12 +47,35 @@ public class SpringResourceLinkGenerator extends ResourceLinkGenerator {
                                        final URI relationTypeBaseUri,
                                        final URI varTypeBaseUri,
                                        final String docRootDir) {
+        this(applicationBaseUri, relationTypeBaseUri, varTypeBaseUri, docRootDir, new AnnotationCache());
+    }
+
+    private SpringResourceLinkGenerator(final URI applicationBaseUri,
+                                        final URI relationTypeBaseUri,
+                                        final URI varTypeBaseUri,
+                                        final String docRootDir,
+                                        final AnnotationCache annotationCache) {
+        this(
+                applicationBaseUri,
+                relationTypeBaseUri,
+                varTypeBaseUri,
+                new DocsGenerator(relationTypeBaseUri, docRootDir, annotationCache),
+                annotationCache
+        );
+    }
+
+    private SpringResourceLinkGenerator(final URI applicationBaseUri,
+                                        final URI relationTypeBaseUri,
+                                        final URI varTypeBaseUri,
+                                        final DocsGenerator docsGenerator,
+                                        final AnnotationCache annotationCache) {
         super(
                 applicationBaseUri,
                 relationTypeBaseUri,
                 varTypeBaseUri,
-                new SpringHintsGenerator(relationTypeBaseUri, docRootDir),
-                new SpringHrefVarsGenerator(relationTypeBaseUri, docRootDir)
+                new SpringHintsGenerator(docsGenerator, annotationCache),
+                new SpringHrefVarsGenerator(docsGenerator, annotationCache),
+                annotationCache
         );
         this.applicationBaseUri = applicationBaseUri;
     }
@@ -69,13 +90,13 @@ public class SpringResourceLinkGenerator extends ResourceLinkGenerator {
      */
     @Override
     public boolean isCandidateForAnalysis(final Method method) {
-        return AnnotationUtils.findAnnotation(method, RequestMapping.class) != null;
+        return getAnnotationCache().findAnnotation(method, RequestMapping.class) != null;
     }
 
     @Override
     protected String resourcePathFor(final Method method) {
         if (isCandidateForAnalysis(method)) {
-            final RequestMapping methodRequestMapping = findAnnotation(method, RequestMapping.class);
+            final RequestMapping methodRequestMapping = getAnnotationCache().findAnnotation(method, RequestMapping.class);
             final String resourcePathPrefix = parentResourcePathsFrom(method.getDeclaringClass());
             final String resourcePathSuffix = methodRequestMapping.value().length > 0
                     ? methodRequestMapping.value()[0]
@@ -96,7 +117,7 @@ public class SpringResourceLinkGenerator extends ResourceLinkGenerator {
      * @return list of resource paths.
      */
     protected String parentResourcePathsFrom(final Class<?> controller) {
-        final RequestMapping controllerRequestMapping = findAnnotation(controller, RequestMapping.class);
+        final RequestMapping controllerRequestMapping = getAnnotationCache().findAnnotation(controller, RequestMapping.class);
         final String firstResourcePathPrefix;
         if (controllerRequestMapping != null && controllerRequestMapping.value().length > 0) {
             firstResourcePathPrefix = controllerRequestMapping.value()[0];
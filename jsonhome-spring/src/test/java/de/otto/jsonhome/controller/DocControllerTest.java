@@ -17,12 +17,19 @@
 package de.otto.jsonhome.controller;
 
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 
-import static org.testng.Assert.assertTrue;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+import static org.testng.Assert.*;
 
 /**
  * @author Guido Steinacker
@@ -35,11 +42,12 @@ public class DocControllerTest {
         // given
         final DocController controller = new DocController();
         controller.setRootDir(new ClassPathResource("/test/**"));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
         // when
-        final String markdown = controller.getMarkdown(
-                new MockHttpServletRequest("GET", "/test/doc/test.md"));
+        controller.getMarkdown(new MockHttpServletRequest("GET", "/test/doc/test.md"), response);
         // then
-        assertTrue(markdown.startsWith("Test"));
+        assertTrue(response.getContentAsString().startsWith("Test"));
+        assertEquals(response.getContentType(), "text/x-markdown;charset=UTF-8");
     }
 
     @Test
@@ -47,10 +55,146 @@ public class DocControllerTest {
         // given
         final DocController controller = new DocController();
         controller.setRootDir(new ClassPathResource("/test/**"));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
         // when
-        final String markdown = controller.getMarkdownAsHtml(
-                new MockHttpServletRequest("GET", "/test/doc/test.md"));
+        controller.getMarkdownAsHtml(new MockHttpServletRequest("GET", "/test/doc/test.md"), response);
         // then
-        assertTrue(markdown.startsWith("<h1>Test</h1>"));
+        assertTrue(response.getContentAsString().startsWith("<h1>Test</h1>"));
+        assertEquals(response.getContentType(), "text/html;charset=UTF-8");
+    }
+
+    @Test
+    public void shouldReturnETagAndLastModified() throws IOException {
+        // given
+        final DocController controller = new DocController();
+        controller.setRootDir(new ClassPathResource("/test/**"));
+        final MockHttpServletResponse htmlResponse = new MockHttpServletResponse();
+        final MockHttpServletResponse markdownResponse = new MockHttpServletResponse();
+        // when
+        controller.getMarkdownAsHtml(new MockHttpServletRequest("GET", "/test/doc/test.md"), htmlResponse);
+        controller.getMarkdown(new MockHttpServletRequest("GET", "/test/doc/test.md"), markdownResponse);
+        // then
+        assertNotNull(htmlResponse.getHeader("ETag"));
+        assertNotNull(htmlResponse.getHeader("Last-Modified"));
+        assertNotEquals(htmlResponse.getHeader("ETag"), markdownResponse.getHeader("ETag"));
+        assertEquals(htmlResponse.getHeader("Vary"), "Accept");
+        assertEquals(markdownResponse.getHeader("Vary"), "Accept");
+    }
+
+    @Test
+    public void shouldReturnDifferentETagsForMarkdownAndPlainText() throws IOException {
+        // given
+        final DocController controller = new DocController();
+        controller.setRootDir(new ClassPathResource("/test/**"));
+        final MockHttpServletRequest plainTextRequest = new MockHttpServletRequest("GET", "/test/doc/test.md");
+        plainTextRequest.addHeader("Accept", "text/plain");
+        final MockHttpServletResponse markdownResponse = new MockHttpServletResponse();
+        final MockHttpServletResponse plainTextResponse = new MockHttpServletResponse();
+        // when
+        controller.getMarkdown(new MockHttpServletRequest("GET", "/test/doc/test.md"), markdownResponse);
+        controller.getMarkdown(plainTextRequest, plainTextResponse);
+        // then
+        assertEquals(plainTextResponse.getContentType(), "text/plain;charset=UTF-8");
+        assertEquals(plainTextResponse.getContentAsString(), markdownResponse.getContentAsString());
+        assertNotEquals(plainTextResponse.getHeader("ETag"), markdownResponse.getHeader("ETag"));
+    }
+
+    @Test
+    public void shouldCacheDocumentsByNormalizedPathOnly() throws IOException {
+        // given
+        final DocController controller = new DocController();
+        controller.setRootDir(new ClassPathResource("/test/**"));
+        // when
+        controller.getMarkdown(new MockHttpServletRequest("GET", "/docs/doc/test.md"), new MockHttpServletResponse());
+        controller.getMarkdown(new MockHttpServletRequest("GET", "/docs/doc/./test.md"), new MockHttpServletResponse());
+        controller.getMarkdown(new MockHttpServletRequest("GET", "/docs/foo/../doc/test.md"), new MockHttpServletResponse());
+        try {
+            controller.getMarkdown(new MockHttpServletRequest("GET", "/docs/doc/unknown.md"), new MockHttpServletResponse());
+            fail("expected IOException");
+        } catch (final IOException expected) {
+            // then
+            assertEquals(controller.getCachedDocuments(), 1);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldRejectDocumentsOutsideOfRootDir() throws IOException {
+        // given
+        final DocController controller = new DocController();
+        controller.setRootDir(new ClassPathResource("/test/doc/"));
+        // when
+        controller.getMarkdown(new MockHttpServletRequest("GET", "/docs/../doc/test.md"), new MockHttpServletResponse());
+        // then an exception is thrown
+    }
+
+    @Test
+    public void shouldReturnNotModifiedIfETagMatches() throws IOException {
+        // given
+        final DocController controller = new DocController();
+        controller.setRootDir(new ClassPathResource("/test/**"));
+        final MockHttpServletResponse first = new MockHttpServletResponse();
+        controller.getMarkdownAsHtml(new MockHttpServletRequest("GET", "/test/doc/test.md"), first);
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test/doc/test.md");
+        request.addHeader("If-None-Match", "\"foo\", " + first.getHeader("ETag"));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        // when
+        controller.getMarkdownAsHtml(request, response);
+        // then
+        assertEquals(response.getStatus(), SC_NOT_MODIFIED);
+        assertEquals(response.getContentAsByteArray().length, 0);
+    }
+
+    @Test
+    public void shouldReturnNotModifiedIfNotModifiedSince() throws IOException {
+        // given
+        final DocController controller = new DocController();
+        controller.setRootDir(new ClassPathResource("/test/**"));
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test/doc/test.md");
+        request.addHeader("If-Modified-Since", System.currentTimeMillis());
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        // when
+        controller.getMarkdown(request, response);
+        // then
+        assertEquals(response.getStatus(), SC_NOT_MODIFIED);
+    }
+
+    @Test
+    public void shouldIgnoreIfModifiedSinceIfETagDoesNotMatch() throws IOException {
+        // given
+        final DocController controller = new DocController();
+        controller.setRootDir(new ClassPathResource("/test/**"));
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test/doc/test.md");
+        request.addHeader("If-None-Match", "\"foo\"");
+        request.addHeader("If-Modified-Since", System.currentTimeMillis());
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        // when
+        controller.getMarkdown(request, response);
+        // then
+        assertEquals(response.getStatus(), SC_OK);
+        assertTrue(response.getContentAsString().startsWith("Test"));
+    }
+
+    @Test
+    public void shouldRenderAgainIfDocumentIsModified() throws IOException {
+        // given
+        final File rootDir = Files.createTempDirectory("docs").toFile();
+        final File doc = new File(rootDir, "test.md");
+        Files.write(doc.toPath(), "First\n=====\n".getBytes(UTF_8));
+        doc.setLastModified(1000000000000L);
+        final DocController controller = new DocController();
+        controller.setRootDir(new FileSystemResource(rootDir.getPath() + "/"));
+        final MockHttpServletResponse first = new MockHttpServletResponse();
+        controller.getMarkdownAsHtml(new MockHttpServletRequest("GET", "/docs/test.md"), first);
+        // when
+        Files.write(doc.toPath(), "Second\n======\n".getBytes(UTF_8));
+        doc.setLastModified(1000000060000L);
+        final MockHttpServletResponse second = new MockHttpServletResponse();
+        controller.getMarkdownAsHtml(new MockHttpServletRequest("GET", "/docs/test.md"), second);
+        // then
+        assertTrue(first.getContentAsString().startsWith("<h1>First</h1>"));
+        assertTrue(second.getContentAsString().startsWith("<h1>Second</h1>"));
+        assertNotEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+        doc.delete();
+        rootDir.delete();
     }
 }
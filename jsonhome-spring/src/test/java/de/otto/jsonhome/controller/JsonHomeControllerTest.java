@@ -19,16 +19,17 @@ package de.otto.jsonhome.controller;
 import de.otto.jsonhome.generator.JsonHomeGenerator;
 import de.otto.jsonhome.generator.JsonHomeSource;
 import de.otto.jsonhome.generator.SpringJsonHomeGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 import static de.otto.jsonhome.fixtures.ControllerFixtures.*;
-import static de.otto.jsonhome.model.Allow.GET;
 import static java.util.Arrays.asList;
-import static java.util.EnumSet.of;
 import static org.testng.Assert.*;
 
 /**
@@ -45,7 +46,8 @@ public class JsonHomeControllerTest {
                 "http://example.org/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJsonHome(response);
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         assertEquals(response.getHeader("Cache-Control"), "max-age=3600");
         assertEquals(resourcesMap.size(), 1);
@@ -54,7 +56,7 @@ public class JsonHomeControllerTest {
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
         final Map<String, Object> expected = new HashMap<String, Object>();
         expected.put("representations", asList("text/html"));
-        expected.put("allow", of(GET));
+        expected.put("allow", asList("GET"));
         final Object hints = resources.get("http://example.org/rel/foo").get("hints");
         assertEquals(hints, expected);
     }
@@ -67,7 +69,8 @@ public class JsonHomeControllerTest {
                 "http://example.org/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJson(response);
+        controller.getAsApplicationJson(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -83,7 +86,8 @@ public class JsonHomeControllerTest {
                 "http://example.org/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJsonHome(response);
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -99,7 +103,8 @@ public class JsonHomeControllerTest {
                 "http://example.org/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJson(response);
+        controller.getAsApplicationJson(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -118,7 +123,8 @@ public class JsonHomeControllerTest {
                 "http://otto.de/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJsonHome(response);
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -134,7 +140,8 @@ public class JsonHomeControllerTest {
                 "http://otto.de/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJsonHome(response);
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -144,7 +151,7 @@ public class JsonHomeControllerTest {
     }
 
     @Test
-    public void shouldContainPreferHint() {
+    public void shouldContainPreferHint() throws Exception {
         // given
         final JsonHomeController controller = jsonHomeController(
                 ControllerWithHints.class,
@@ -152,7 +159,8 @@ public class JsonHomeControllerTest {
                 "http://otto.de/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJsonHome(response);
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -162,7 +170,7 @@ public class JsonHomeControllerTest {
     }
 
     @Test
-    public void shouldContainAcceptRangesHint() {
+    public void shouldContainAcceptRangesHint() throws Exception {
         // given
         final JsonHomeController controller = jsonHomeController(
                 ControllerWithHints.class,
@@ -170,7 +178,8 @@ public class JsonHomeControllerTest {
                 "http://otto.de/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJsonHome(response);
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -180,7 +189,7 @@ public class JsonHomeControllerTest {
     }
 
     @Test
-    public void shouldContainPreconditionReqEtag() {
+    public void shouldContainPreconditionReqEtag() throws Exception {
         // given
         final JsonHomeController controller = jsonHomeController(
                 ControllerWithHints.class,
@@ -188,7 +197,8 @@ public class JsonHomeControllerTest {
                 "http://otto.de/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJsonHome(response);
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -199,7 +209,7 @@ public class JsonHomeControllerTest {
 
     @Test
     @SuppressWarnings("unchecked")
-    public void shouldContainAuthReq() {
+    public void shouldContainAuthReq() throws Exception {
         // given
         final JsonHomeController controller = jsonHomeController(
                 ControllerWithHints.class,
@@ -207,7 +217,8 @@ public class JsonHomeControllerTest {
                 "http://otto.de/");
         // when
         final MockHttpServletResponse response = new MockHttpServletResponse();
-        final Map<String, ?> resourcesMap = controller.getAsApplicationJsonHome(response);
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        final Map<String, ?> resourcesMap = jsonOf(response);
         // then
         @SuppressWarnings("unchecked")
         final Map<String, Map<String, ?>> resources = (Map<String, Map<String, ?>>) resourcesMap.get("resources");
@@ -223,6 +234,81 @@ public class JsonHomeControllerTest {
                 basicAuth, digestAuth));
     }
 
+    @Test
+    public void shouldReturnETag() throws Exception {
+        // given
+        final JsonHomeController controller = jsonHomeController(
+                ControllerWithRequestMappingAndLinkRelationTypeAtClassLevel.class,
+                "http://example.org/");
+        // when
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), response);
+        // then
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getContentType(), "application/json-home");
+        assertNotNull(response.getHeader("ETag"));
+        assertEquals(response.getContentLength(), response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void shouldReturnNotModifiedIfETagMatches() throws Exception {
+        // given
+        final JsonHomeController controller = jsonHomeController(
+                ControllerWithRequestMappingAndLinkRelationTypeAtClassLevel.class,
+                "http://example.org/");
+        final MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), firstResponse);
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", firstResponse.getHeader("ETag"));
+        // when
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getAsApplicationJsonHome(request, response);
+        // then
+        assertEquals(response.getStatus(), 304);
+        assertEquals(response.getHeader("ETag"), firstResponse.getHeader("ETag"));
+        assertEquals(response.getContentAsByteArray().length, 0);
+    }
+
+    @Test
+    public void shouldUseDifferentETagsForDifferentMediaTypes() throws Exception {
+        // given
+        final JsonHomeController controller = jsonHomeController(
+                ControllerWithDocumentation.class,
+                "http://example.org/");
+        final MockHttpServletResponse jsonHomeResponse = new MockHttpServletResponse();
+        controller.getAsApplicationJsonHome(new MockHttpServletRequest(), jsonHomeResponse);
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", jsonHomeResponse.getHeader("ETag"));
+        // when
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getAsApplicationJson(request, response);
+        // then
+        assertEquals(response.getStatus(), 200);
+        assertNotEquals(response.getHeader("ETag"), jsonHomeResponse.getHeader("ETag"));
+    }
+
+    @Test
+    public void shouldNotCompressSmallDocuments() throws Exception {
+        // given
+        final JsonHomeController controller = jsonHomeController(
+                ControllerWithRequestMappingAndLinkRelationTypeAtClassLevel.class,
+                "http://example.org/");
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip");
+        // when
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getAsApplicationJsonHome(request, response);
+        // then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(response.getHeader("Vary"), "Accept, Accept-Encoding");
+        assertEquals(jsonOf(response).size(), 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> jsonOf(final MockHttpServletResponse response) throws IOException {
+        return new ObjectMapper().readValue(response.getContentAsByteArray(), Map.class);
+    }
+
     @SuppressWarnings("unchecked")
     private Map<String, ?> asMap(final Object obj) {
         return (Map<String, ?>) obj;
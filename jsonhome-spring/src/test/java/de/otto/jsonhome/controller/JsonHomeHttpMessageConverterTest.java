@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.controller;
+
+import de.otto.jsonhome.converter.JsonHomeMediaType;
+import de.otto.jsonhome.model.JsonHome;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static de.otto.jsonhome.converter.JsonHomeConverter.toRepresentation;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.Documentation.documentation;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static java.net.URI.create;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class JsonHomeHttpMessageConverterTest {
+
+    private static final JsonHome JSON_HOME = jsonHome(directLink(
+            create("http://example.org/rel/foo"),
+            create("http://example.org/foo"),
+            hintsBuilder()
+                    .representedAs("text/html")
+                    .with(documentation(asList("Some description"), null, null))
+                    .build()));
+
+    @Test
+    public void shouldSupportJsonHome() {
+        final JsonHomeHttpMessageConverter converter = new JsonHomeHttpMessageConverter();
+        assertTrue(converter.canWrite(JsonHome.class, MediaType.valueOf("application/json-home")));
+        assertTrue(converter.canWrite(JsonHome.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Map.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(JsonHome.class, MediaType.TEXT_HTML));
+    }
+
+    @Test
+    public void shouldWriteApplicationJsonHome() throws Exception {
+        // given
+        final MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        // when
+        new JsonHomeHttpMessageConverter().write(JSON_HOME, MediaType.valueOf("application/json-home"), outputMessage);
+        // then
+        assertEquals(outputMessage.getHeaders().getContentType().getSubtype(), "json-home");
+        assertEquals(outputMessage.getBodyAsString(), jsonOf(JsonHomeMediaType.APPLICATION_JSONHOME));
+    }
+
+    @Test
+    public void shouldWriteApplicationJson() throws Exception {
+        // given
+        final MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        // when
+        new JsonHomeHttpMessageConverter().write(JSON_HOME, MediaType.APPLICATION_JSON, outputMessage);
+        // then
+        assertEquals(outputMessage.getBodyAsString(), jsonOf(JsonHomeMediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void shouldReadJsonHome() throws Exception {
+        // given
+        final MockHttpInputMessage inputMessage = new MockHttpInputMessage(
+                jsonOf(JsonHomeMediaType.APPLICATION_JSONHOME).getBytes("UTF-8"));
+        // when
+        final JsonHome jsonHome = new JsonHomeHttpMessageConverter().read(JsonHome.class, inputMessage);
+        // then
+        assertEquals(jsonHome.getResourceFor(create("http://example.org/rel/foo")).asDirectLink().getHref(),
+                create("http://example.org/foo"));
+    }
+
+    private String jsonOf(final JsonHomeMediaType mediaType) throws Exception {
+        return new ObjectMapper().writeValueAsString(toRepresentation(JSON_HOME, mediaType));
+    }
+}
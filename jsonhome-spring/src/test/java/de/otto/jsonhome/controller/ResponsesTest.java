@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 Guido Steinacker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.otto.jsonhome.controller;
+
+import de.otto.jsonhome.converter.RenderedJsonHome;
+import de.otto.jsonhome.model.JsonHome;
+import de.otto.jsonhome.model.ResourceLink;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static de.otto.jsonhome.controller.Responses.writeRenderedJsonHome;
+import static de.otto.jsonhome.converter.ContentCoding.DEFLATE;
+import static de.otto.jsonhome.converter.ContentCoding.GZIP;
+import static de.otto.jsonhome.converter.JsonHomeMediaType.APPLICATION_JSON;
+import static de.otto.jsonhome.converter.RenderedJsonHome.renderedJsonHome;
+import static de.otto.jsonhome.model.Allow.GET;
+import static de.otto.jsonhome.model.DirectLink.directLink;
+import static de.otto.jsonhome.model.HintsBuilder.hintsBuilder;
+import static de.otto.jsonhome.model.JsonHome.jsonHome;
+import static java.net.URI.create;
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @since 18.10.26
+ */
+public class ResponsesTest {
+
+    private static final RenderedJsonHome RENDERED = renderedJsonHome(largeJsonHome());
+
+    @Test
+    public void shouldWriteGzipCompressedDocument() throws Exception {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        // when
+        writeRenderedJsonHome(RENDERED, APPLICATION_JSON, 60, request, response);
+        // then
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getHeader("Content-Encoding"), "gzip");
+        assertEquals(response.getHeader("Vary"), "Accept, Accept-Encoding");
+        assertEquals(response.getHeader("ETag"), RENDERED.getETag(APPLICATION_JSON, GZIP));
+        assertEquals(response.getContentLength(), response.getContentAsByteArray().length);
+        assertTrue(response.getContentLength() < RENDERED.getContentLength(APPLICATION_JSON));
+        final Map<?, ?> json = new ObjectMapper().readValue(
+                new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())), Map.class);
+        assertEquals(json, new ObjectMapper().readValue(RENDERED.getBytes(APPLICATION_JSON), Map.class));
+    }
+
+    @Test
+    public void shouldWriteUncompressedDocumentWithoutAcceptEncoding() throws Exception {
+        // given
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        // when
+        writeRenderedJsonHome(RENDERED, APPLICATION_JSON, 60, new MockHttpServletRequest(), response);
+        // then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(response.getHeader("ETag"), RENDERED.getETag(APPLICATION_JSON));
+        assertEquals(response.getContentAsByteArray(), RENDERED.getBytes(APPLICATION_JSON));
+    }
+
+    @Test
+    public void shouldReturnNotModifiedForCompressedDocument() throws Exception {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "deflate");
+        request.addHeader("If-None-Match", RENDERED.getETag(APPLICATION_JSON, DEFLATE));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        // when
+        writeRenderedJsonHome(RENDERED, APPLICATION_JSON, 60, request, response);
+        // then
+        assertEquals(response.getStatus(), 304);
+        assertEquals(response.getContentAsByteArray().length, 0);
+    }
+
+    private static JsonHome largeJsonHome() {
+        final List<ResourceLink> resources = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            resources.add(directLink(
+                    create("http://example.org/rel/resource" + i),
+                    create("http://example.org/resource" + i),
+                    hintsBuilder().allowing(GET).representedAs("text/html", "application/json").build()));
+        }
+        return jsonHome(resources);
+    }
+}
@@ -21,6 +21,8 @@ import org.testng.annotations.Test;
 
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static de.otto.jsonhome.fixtures.ControllerFixtures.*;
 import static de.otto.jsonhome.model.Allow.*;
@@ -370,6 +372,37 @@ public class SpringJsonHomeGeneratorTest {
         assertEquals(var2Doc.getDescription().get(0), "var value 2");
     }
 
+    @Test
+    public void parallelGenerationShouldGenerateSameJsonHome() throws Exception {
+        // given
+        final List<Class<?>> controllers = asList(
+                ControllerWithDifferentResourceDefinitions.class,
+                ControllerWithRequestMappingAndLinkRelationTypeAtClassLevel.class,
+                AnotherControllerWithRequestMappingAndLinkRelationTypeAtClassLevel.class,
+                ControllerWithDifferentRepresentations.class,
+                ControllerWithRelativeLinkRelationType.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // when
+            final JsonHome sequential = jsonHomeFor(ROOT_URI).with(controllers).generate();
+            final JsonHome parallel = jsonHomeFor(ROOT_URI).with(controllers).inParallel(executor).generate();
+            // then
+            assertEquals(parallel, sequential);
+            assertEquals(jsonHomeFor(ROOT_URI).with(controllers).inParallel().generate(), sequential);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void parallelGenerationShouldRethrowExceptionsOfGenerator() throws Exception {
+        jsonHomeFor(ROOT_URI)
+                .with(ControllerWithRequestMappingAndLinkRelationTypeAtClassLevel.class)
+                .with(ControllerWithAcceptPutAndAcceptPost.class)
+                .inParallel()
+                .generate();
+    }
+
     private JsonHomeGenerator jsonHomeFor(final URI applicationBaseUri) {
         final SpringJsonHomeGenerator jsonHomeGenerator = new SpringJsonHomeGenerator();
         jsonHomeGenerator.setApplicationBaseUri(applicationBaseUri.toString());